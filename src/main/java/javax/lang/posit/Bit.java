@@ -11,18 +11,14 @@ public final class Bit {
 		if (null == input || input.length() < 1) {
 			return input;
 		}
-		final char[] output = input.toCharArray();
-		// Flip bits
-		for (int i = 0; i < output.length; i++) {
-			output[i] = Bit.invert(output[i]);
+		// Invert the bits left of the lowest '1'.
+		final int lowestOne = input.lastIndexOf('1');
+		if (lowestOne < 1) {
+			return input;
 		}
-		// Add one
-		for (int i = output.length - 1; i >= 0; i--) {
+		final char[] output = input.toCharArray();
+		for (int i = 0; i < lowestOne; i++) {
 			output[i] = Bit.invert(output[i]);
-			if (output[i] == '1') {
-				// no carry means we are done.
-				break;
-			}
 		}
 		return new String(output);
 	}
@@ -39,21 +35,13 @@ public final class Bit {
      * @return
      */
     public static int pow( int base, int power) {
-        if (power < 0) {
-            throw new IllegalArgumentException( "power must be >= 0, power value was " + power);
-        }
-        if ( power == 0 ) {
-            return 1;
-        }
-        int result = base;
-        for ( int i = 1; i < power; i++ ) {
-            result *= base;
-        }
-        return result;
+        return (int) pow( (long) base, (long) power );
     }
     
     /**
      * Integer power function, base^power
+     * <p>
+     * Powers of 2 are shifts, other bases square and multiply.
      * @param base
      * @param power
      * @return
@@ -62,13 +50,161 @@ public final class Bit {
         if (power < 0L) {
             throw new IllegalArgumentException( "power must be >= 0, power value was " + power);
         }
-        if ( power == 0L ) {
-            return 1L;
+        if ( base == 2L && power < 64L ) {
+            return 1L << power;
         }
-        long result = base;
-        for ( long i = 1L; i < power; i++ ) {
-            result *= base;
+        long result = 1L;
+        while ( power != 0L ) {
+            if ( (power & 1L) != 0L ) {
+                result *= base;
+            }
+            base *= base;
+            power >>>= 1;
         }
         return result;
     }
-}
\ No newline at end of file
+
+    // Primitive widths
+    // Patterns are right aligned, bit 0 is the least significant bit.
+    // A long[] holds wider patterns in little endian limbs, bit i is in limbs[i >>> 6].
+
+    /**
+     * Returns 2^power as a long.
+     * @param power 0 to 62
+     * @return 2^power
+     */
+    public static long pow2(int power) {
+        if (power < 0 || power > 62) {
+            throw new IllegalArgumentException( "power must be 0 to 62, power value was " + power);
+        }
+        return 1L << power;
+    }
+
+    /** Returns a mask of the low nBits, all ones for 64 or more bits. */
+    public static long mask(int nBits) {
+        return nBits >= 64 ? -1L : (1L << nBits) - 1L;
+    }
+
+    /** Returns the twos complement of the low nBits of value. */
+    public static int twosComplement(int value, int nBits) {
+        return -value & (int) mask(nBits);
+    }
+
+    /** Returns the twos complement of the low nBits of value. */
+    public static long twosComplement(long value, int nBits) {
+        return -value & mask(nBits);
+    }
+
+    /** Twos complements all of the limbs in place. */
+    public static void twosComplement(long[] limbs) {
+        boolean carry = true;
+        for (int i = 0; i < limbs.length; i++) {
+            limbs[i] = ~limbs[i];
+            if (carry) {
+                limbs[i]++;
+                carry = limbs[i] == 0L;
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the run of identical bits starting at bit nBits - 1
+     * and counting towards bit 0. For a positive posit of n bits, the run of the
+     * regime is leadingRun(pattern, n - 1).
+     */
+    public static int leadingRun(int value, int nBits) {
+        final int x = value << (32 - nBits);
+        return Math.min(nBits, x < 0 ? Integer.numberOfLeadingZeros(~x) : Integer.numberOfLeadingZeros(x));
+    }
+
+    /** @see #leadingRun(int, int) */
+    public static int leadingRun(long value, int nBits) {
+        final long x = value << (64 - nBits);
+        return Math.min(nBits, x < 0L ? Long.numberOfLeadingZeros(~x) : Long.numberOfLeadingZeros(x));
+    }
+
+    /** @see #leadingRun(int, int) */
+    public static int leadingRun(long[] limbs, int nBits) {
+        int limb = (nBits - 1) >>> 6;
+        int top = ((nBits - 1) & 63) + 1; // valid bits in the top limb
+        final boolean ones = ((limbs[limb] >>> (top - 1)) & 1L) != 0L;
+        int run = 0;
+        for (; limb >= 0; limb--) {
+            final long x = (ones ? ~limbs[limb] : limbs[limb]) << (64 - top);
+            final int zeros = Math.min(top, Long.numberOfLeadingZeros(x));
+            run += zeros;
+            if (zeros < top) {
+                break;
+            }
+            top = 64;
+        }
+        return run;
+    }
+
+    /** Returns length bits of value starting at bit offset, right aligned. */
+    public static int bits(int value, int offset, int length) {
+        return length == 0 ? 0 : (value >>> offset) & (int) mask(length);
+    }
+
+    /** Returns length bits of value starting at bit offset, right aligned. */
+    public static long bits(long value, int offset, int length) {
+        return length == 0 ? 0L : (value >>> offset) & mask(length);
+    }
+
+    /** Returns up to 64 bits of the limbs starting at bit offset, right aligned. */
+    public static long bits(long[] limbs, int offset, int length) {
+        if (length == 0) {
+            return 0L;
+        }
+        final int limb = offset >>> 6;
+        final int shift = offset & 63;
+        long value = limb < limbs.length ? limbs[limb] >>> shift : 0L;
+        if (shift != 0 && shift + length > 64 && limb + 1 < limbs.length) {
+            value |= limbs[limb + 1] << (64 - shift);
+        }
+        return value & mask(length);
+    }
+
+    /** Shifts the limbs left by n bits in place, multiplying by 2^n. High bits are lost. */
+    public static void shiftLeft(long[] limbs, int n) {
+        final int words = n >>> 6;
+        final int shift = n & 63;
+        for (int i = limbs.length - 1; i >= 0; i--) {
+            final int from = i - words;
+            long value = from >= 0 ? limbs[from] << shift : 0L;
+            if (shift != 0 && from >= 1) {
+                value |= limbs[from - 1] >>> (64 - shift);
+            }
+            limbs[i] = value;
+        }
+    }
+
+    /** Shifts the limbs right by n bits in place, unsigned. Low bits are lost. */
+    public static void shiftRight(long[] limbs, int n) {
+        final int words = n >>> 6;
+        final int shift = n & 63;
+        for (int i = 0; i < limbs.length; i++) {
+            final int from = i + words;
+            long value = from < limbs.length ? limbs[from] >>> shift : 0L;
+            if (shift != 0 && from + 1 < limbs.length) {
+                value |= limbs[from + 1] << (64 - shift);
+            }
+            limbs[i] = value;
+        }
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128 bit product x * y.
+     * The low 64 bits are simply x * y. (Math.multiplyHigh is signed and Java 9.)
+     */
+    public static long unsignedMultiplyHigh(long x, long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+        final long low = x0 * y0;
+        final long middle1 = x1 * y0 + (low >>> 32);
+        final long middle2 = x0 * y1 + (middle1 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle1 >>> 32) + (middle2 >>> 32);
+    }
+}
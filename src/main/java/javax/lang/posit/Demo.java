@@ -1,6 +1,18 @@
 package javax.lang.posit;
 
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -39,6 +51,14 @@ public abstract class Demo extends Number implements Comparable<Demo> {
 		// Use dash with shortcut (-h) or -- with name (--help).
 		options.addOption("h", "help", false, "print the command line options");
 		options.addOption("n", "numPatterns", true, "generates this many patterns");
+		options.addOption("b", "bits", true, "posit bit size of the patterns, default 5");
+		options.addOption("e", "es", true, "posit maximum exponent size of the patterns, default 1");
+		options.addOption("o", "order", true, "sequential, strided or random patterns, default sequential");
+		options.addOption("s", "seed", true, "seed of random patterns, default 0");
+		options.addOption("t", "table", true, "writes a csv or binary value table of the patterns");
+		options.addOption("f", "from", true, "first pattern of the table, default 0");
+		options.addOption("c", "count", true, "patterns in the table, default all");
+		options.addOption("w", "output", true, "table file, default standard output");
 
 		final CommandLineParser cliParser = new DefaultParser();
 		final CommandLine line = cliParser.parse(options, args);
@@ -49,9 +69,54 @@ public abstract class Demo extends Number implements Comparable<Demo> {
 			formatter.printHelp("java -jar posit.jar <options> javax.lang.posit.Posit", options);
 			System.exit(0);
 		}
-		// if (line.hasOption("numPatterns")) {
-		// numPatterns = Integer.parseInt(line.getOptionValue("numPatterns"));
-		// System.out.println(" numPatterns=" + numPatterns);
-		// }
+		if (line.hasOption("numPatterns")) {
+			final long numPatterns = Long.parseLong(line.getOptionValue("numPatterns"));
+			final byte nBits = Byte.parseByte(line.getOptionValue("bits", "5"));
+			final byte maxEs = Byte.parseByte(line.getOptionValue("es", "1"));
+			final PositPatterns.Order order = PositPatterns.Order
+					.valueOf(line.getOptionValue("order", "sequential").toUpperCase(Locale.ROOT));
+			final long seed = Long.parseLong(line.getOptionValue("seed", "0"));
+			final PositEnv env = new PositEnv(nBits, maxEs);
+			LOGGER.info("numPatterns=" + numPatterns + ", " + env + ", order=" + order);
+			// Not System.out, a PrintStream that hides write errors. Left open.
+			writePatterns(env, order, numPatterns, seed,
+					new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out))));
+		}
+		if (line.hasOption("table")) {
+			final byte nBits = Byte.parseByte(line.getOptionValue("bits", "5"));
+			final byte maxEs = Byte.parseByte(line.getOptionValue("es", "1"));
+			final PositEnv env = new PositEnv(nBits, maxEs);
+			final PositTableWriter writer = new PositTableWriter(env,
+					PositTableWriter.Format.valueOf(line.getOptionValue("table").toUpperCase(Locale.ROOT)),
+					PositTableWriter.DEFAULT_CHUNK_PATTERNS, ForkJoinPool.getCommonPoolParallelism());
+			final long from = Long.parseUnsignedLong(line.getOptionValue("from", "0"));
+			final long count = line.hasOption("count") ? Long.parseLong(line.getOptionValue("count"))
+					: nBits < 64 ? 1L << nBits : Long.MAX_VALUE;
+			if (line.hasOption("output")) {
+				try (FileChannel channel = FileChannel.open(Paths.get(line.getOptionValue("output")),
+						StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					LOGGER.info("table " + writer.write(from, count, channel));
+				}
+			} else {
+				// Not System.out, a PrintStream that hides write errors. Left open.
+				final WritableByteChannel channel = new FileOutputStream(FileDescriptor.out).getChannel();
+				LOGGER.info("table " + writer.write(from, count, channel));
+			}
+		}
+	}
+
+	/**
+	 * Writes a table of the generated patterns, streaming rather than holding them.
+	 *
+	 * @throws IOException
+	 *             if the writer fails, including a PrintWriter that records an error
+	 */
+	public static void writePatterns(PositEnv env, PositPatterns.Order order, long numPatterns, long seed,
+			Writer out) throws IOException {
+		PositPatterns.writeTable(env, PositPatterns.stream(env, order, numPatterns, seed, false), out);
+		out.flush();
+		if (out instanceof PrintWriter && ((PrintWriter) out).checkError()) {
+			throw new IOException("cannot write the pattern table");
+		}
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package javax.lang.posit;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import org.slf4j.Logger;
@@ -168,6 +169,17 @@ public abstract class Posit extends Number implements Comparable<Posit> {
      */
     public abstract double doubleValueGustafson();
 
+	/**
+	 * Returns the exact value of this {@code Posit} as a {@code BigDecimal}.
+	 * <p>
+	 * This is the Gustafson value, sign * useed^k * 2^e * 1.f, with no rounding.
+	 *
+	 * @return the exact value, zero for an empty Posit
+	 * @throws ArithmeticException
+	 *             if this Posit is infinite
+	 */
+	public abstract BigDecimal toBigDecimal();
+
 	/**
 	 * Returns value of this {@code Posit} as a {@code String} after a primitive
 	 * conversion.
@@ -411,4 +423,4 @@ public abstract class Posit extends Number implements Comparable<Posit> {
 	 */
 	public abstract BigInteger getUseed();
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package javax.lang.posit;
+
+/**
+ * An immutable posit of up to 16 bits, held in a {@code short}.
+ * <p>
+ * Zero, one, minus one, infinity and plus or minus minPos and maxPos share
+ * one instance per environment, other values are new instances.
+ *
+ * @see PositValue
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class Posit16 extends PositValue {
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    // Constructors
+    private Posit16(PositContext context, long pattern) {
+        super(context, pattern);
+    }
+
+    /**
+     * Returns the posit of this pattern, a shared instance for the common values.
+     *
+     * @param env posit environment of 9 to 16 bits
+     * @param pattern pattern right-aligned in a long, higher bits are ignored
+     * @throws IllegalArgumentException
+     *             if the environment is in another container
+     */
+    public static Posit16 valueOf(PositEnv env, long pattern) {
+        return valueOf(getContext(env, 16), pattern);
+    }
+
+    /** Returns the posit nearest to the double. */
+    public static Posit16 valueOf(PositEnv env, double value) {
+        final PositContext context = getContext(env, 16);
+        return valueOf(context, context.fromDouble(value));
+    }
+
+    private static Posit16 valueOf(PositContext context, long pattern) {
+        final long p = pattern & Bit.mask(context.getBitSize());
+        final PositValue common = findCommon(getCommonValues(context, value -> new Posit16(context, value)), p);
+        return null != common ? (Posit16) common : new Posit16(context, p);
+    }
+
+    /** Returns the pattern in its container. */
+    public short patternValue() {
+        return (short) getPattern();
+    }
+
+    // Arithmetic
+    public Posit16 negate() {
+        return valueOf(getContext(), getContext().negate(getPattern()));
+    }
+
+    public Posit16 add(Posit16 y) {
+        return valueOf(getContext(), getContext(y).add(getPattern(), y.getPattern()));
+    }
+
+    public Posit16 subtract(Posit16 y) {
+        return valueOf(getContext(), getContext(y).subtract(getPattern(), y.getPattern()));
+    }
+
+    public Posit16 multiply(Posit16 y) {
+        return valueOf(getContext(), getContext(y).multiply(getPattern(), y.getPattern()));
+    }
+
+    public Posit16 divide(Posit16 y) {
+        return valueOf(getContext(), getContext(y).divide(getPattern(), y.getPattern()));
+    }
+
+    // Posit domain interface
+    @Override
+    public Class<?> getImplementation() {
+        return Short.class;
+    }
+}
@@ -0,0 +1,76 @@
+package javax.lang.posit;
+
+/**
+ * An immutable posit of up to 32 bits, held in an {@code int}.
+ * <p>
+ * Zero, one, minus one, infinity and plus or minus minPos and maxPos share
+ * one instance per environment, other values are new instances.
+ *
+ * @see PositValue
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class Posit32 extends PositValue {
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    // Constructors
+    private Posit32(PositContext context, long pattern) {
+        super(context, pattern);
+    }
+
+    /**
+     * Returns the posit of this pattern, a shared instance for the common values.
+     *
+     * @param env posit environment of 17 to 32 bits
+     * @param pattern pattern right-aligned in a long, higher bits are ignored
+     * @throws IllegalArgumentException
+     *             if the environment is in another container
+     */
+    public static Posit32 valueOf(PositEnv env, long pattern) {
+        return valueOf(getContext(env, 32), pattern);
+    }
+
+    /** Returns the posit nearest to the double. */
+    public static Posit32 valueOf(PositEnv env, double value) {
+        final PositContext context = getContext(env, 32);
+        return valueOf(context, context.fromDouble(value));
+    }
+
+    private static Posit32 valueOf(PositContext context, long pattern) {
+        final long p = pattern & Bit.mask(context.getBitSize());
+        final PositValue common = findCommon(getCommonValues(context, value -> new Posit32(context, value)), p);
+        return null != common ? (Posit32) common : new Posit32(context, p);
+    }
+
+    /** Returns the pattern in its container. */
+    public int patternValue() {
+        return (int) getPattern();
+    }
+
+    // Arithmetic
+    public Posit32 negate() {
+        return valueOf(getContext(), getContext().negate(getPattern()));
+    }
+
+    public Posit32 add(Posit32 y) {
+        return valueOf(getContext(), getContext(y).add(getPattern(), y.getPattern()));
+    }
+
+    public Posit32 subtract(Posit32 y) {
+        return valueOf(getContext(), getContext(y).subtract(getPattern(), y.getPattern()));
+    }
+
+    public Posit32 multiply(Posit32 y) {
+        return valueOf(getContext(), getContext(y).multiply(getPattern(), y.getPattern()));
+    }
+
+    public Posit32 divide(Posit32 y) {
+        return valueOf(getContext(), getContext(y).divide(getPattern(), y.getPattern()));
+    }
+
+    // Posit domain interface
+    @Override
+    public Class<?> getImplementation() {
+        return Integer.class;
+    }
+}
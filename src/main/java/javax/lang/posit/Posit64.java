@@ -0,0 +1,76 @@
+package javax.lang.posit;
+
+/**
+ * An immutable posit of up to 64 bits, held in a {@code long}.
+ * <p>
+ * Zero, one, minus one, infinity and plus or minus minPos and maxPos share
+ * one instance per environment, other values are new instances.
+ *
+ * @see PositValue
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class Posit64 extends PositValue {
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    // Constructors
+    private Posit64(PositContext context, long pattern) {
+        super(context, pattern);
+    }
+
+    /**
+     * Returns the posit of this pattern, a shared instance for the common values.
+     *
+     * @param env posit environment of 33 to 64 bits
+     * @param pattern pattern right-aligned in a long, higher bits are ignored
+     * @throws IllegalArgumentException
+     *             if the environment is in another container
+     */
+    public static Posit64 valueOf(PositEnv env, long pattern) {
+        return valueOf(getContext(env, 64), pattern);
+    }
+
+    /** Returns the posit nearest to the double. */
+    public static Posit64 valueOf(PositEnv env, double value) {
+        final PositContext context = getContext(env, 64);
+        return valueOf(context, context.fromDouble(value));
+    }
+
+    private static Posit64 valueOf(PositContext context, long pattern) {
+        final long p = pattern & Bit.mask(context.getBitSize());
+        final PositValue common = findCommon(getCommonValues(context, value -> new Posit64(context, value)), p);
+        return null != common ? (Posit64) common : new Posit64(context, p);
+    }
+
+    /** Returns the pattern in its container. */
+    public long patternValue() {
+        return getPattern();
+    }
+
+    // Arithmetic
+    public Posit64 negate() {
+        return valueOf(getContext(), getContext().negate(getPattern()));
+    }
+
+    public Posit64 add(Posit64 y) {
+        return valueOf(getContext(), getContext(y).add(getPattern(), y.getPattern()));
+    }
+
+    public Posit64 subtract(Posit64 y) {
+        return valueOf(getContext(), getContext(y).subtract(getPattern(), y.getPattern()));
+    }
+
+    public Posit64 multiply(Posit64 y) {
+        return valueOf(getContext(), getContext(y).multiply(getPattern(), y.getPattern()));
+    }
+
+    public Posit64 divide(Posit64 y) {
+        return valueOf(getContext(), getContext(y).divide(getPattern(), y.getPattern()));
+    }
+
+    // Posit domain interface
+    @Override
+    public Class<?> getImplementation() {
+        return Long.class;
+    }
+}
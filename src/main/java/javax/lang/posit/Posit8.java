@@ -0,0 +1,84 @@
+package javax.lang.posit;
+
+/**
+ * An immutable posit of up to 8 bits, held in a {@code byte}.
+ * <p>
+ * Every posit of an environment shares one instance, built with all the
+ * others on first use, so arithmetic on Posit8 values does not allocate.
+ * The instances belong to the {@link PositEnv} instance, not to its format.
+ *
+ * @see PositValue
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class Posit8 extends PositValue {
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    /** Name of the context table of all values. */
+    static final String VALUES_TABLE = "Posit8 values";
+
+    // Constructors
+    private Posit8(PositContext context, long pattern) {
+        super(context, pattern);
+    }
+
+    /**
+     * Returns the posit of this pattern, a shared instance for every posit.
+     *
+     * @param env posit environment of 2 to 8 bits
+     * @param pattern pattern right-aligned in a long, higher bits are ignored
+     * @throws IllegalArgumentException
+     *             if the environment is in another container
+     */
+    public static Posit8 valueOf(PositEnv env, long pattern) {
+        return valueOf(getContext(env, 8), pattern);
+    }
+
+    /** Returns the posit nearest to the double. */
+    public static Posit8 valueOf(PositEnv env, double value) {
+        final PositContext context = getContext(env, 8);
+        return valueOf(context, context.fromDouble(value));
+    }
+
+    private static Posit8 valueOf(PositContext context, long pattern) {
+        return context.<Posit8[]> getTable(VALUES_TABLE, () -> {
+            final Posit8[] values = new Posit8[1 << context.getBitSize()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new Posit8(context, i);
+            }
+            return values;
+        })[(int) (pattern & Bit.mask(context.getBitSize()))];
+    }
+
+    /** Returns the pattern in its container. */
+    public byte patternValue() {
+        return (byte) getPattern();
+    }
+
+    // Arithmetic
+    public Posit8 negate() {
+        return valueOf(getContext(), getContext().negate(getPattern()));
+    }
+
+    public Posit8 add(Posit8 y) {
+        return valueOf(getContext(), getContext(y).add(getPattern(), y.getPattern()));
+    }
+
+    public Posit8 subtract(Posit8 y) {
+        return valueOf(getContext(), getContext(y).subtract(getPattern(), y.getPattern()));
+    }
+
+    public Posit8 multiply(Posit8 y) {
+        return valueOf(getContext(), getContext(y).multiply(getPattern(), y.getPattern()));
+    }
+
+    public Posit8 divide(Posit8 y) {
+        return valueOf(getContext(), getContext(y).divide(getPattern(), y.getPattern()));
+    }
+
+    // Posit domain interface
+    @Override
+    public Class<?> getImplementation() {
+        return Byte.class;
+    }
+}
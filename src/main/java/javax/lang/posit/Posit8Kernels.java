@@ -0,0 +1,194 @@
+package javax.lang.posit;
+
+/**
+ * Dot product and convolution kernels over posit8 byte arrays.
+ * <p>
+ * Each posit of an environment of up to 8 bits is a multiple of minPos, so a
+ * 256 entry table of the environment maps patterns to exact fixed point longs
+ * in units of minPos. Products are exact in units of minPos^2, the least
+ * significant bit of the quire, and accumulate in a long that is spilled to a
+ * 128 bit register before it can overflow. This covers the quire of posit8 es0
+ * (64 bits) and es1 (128 bits). Each output rounds once to the output context,
+ * typically posit8 or posit16.
+ * <p>
+ * Convolutions are as in neural network layers: valid (no padding) and the
+ * kernel is not flipped.
+ *
+ * @see Quire
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class Posit8Kernels {
+    /** Name of the fixed point table in the input context. */
+    public static final String FIXED_TABLE = "posit8.fixed";
+
+    private final PositContext input;
+    private final PositContext output;
+    private final long[] fixed;
+    private final byte infinity;
+    /** Power of 2 of the accumulator bit 0, the scale of minPos^2. */
+    private final int lsbScale;
+    /** Terms accumulated in a long before spilling. */
+    private final int chunk;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private Posit8Kernels() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Constructs kernels reading posits of the input environment and writing
+     * posits of the output context.
+     *
+     * @param input environment of up to 8 bits whose products fit in 56 bits
+     * @param output context of the outputs
+     * @throws IllegalArgumentException
+     *             if the input environment is wider than 8 bits or es is too large
+     */
+    public Posit8Kernels(PositEnv input, PositContext output) {
+        final int nBits = input.getBitSize();
+        final int maxEs = input.getMaxExponentSize();
+        // Fixed point products of minPos^2 to maxPos^2 span this many bits.
+        final long productBits = (long) Math.max(0, nBits - 2) << (maxEs + 2);
+        if (nBits > 8 || productBits > 56) {
+            throw new IllegalArgumentException(input + " products do not fit a long");
+        }
+        this.input = input.getContext();
+        this.output = output;
+        this.fixed = this.input.getTable(FIXED_TABLE, () -> buildFixedTable(nBits, maxEs));
+        this.infinity = (byte) (1 << (nBits - 1));
+        this.lsbScale = Quire.getLsbScale(nBits, maxEs);
+        this.chunk = 1 << Math.min(30, 61 - productBits);
+    }
+
+    public PositContext getInputContext() {
+        return input;
+    }
+    public PositContext getOutputContext() {
+        return output;
+    }
+
+    /** Returns each pattern as a multiple of minPos, zero for infinity. */
+    static long[] buildFixedTable(int nBits, int maxEs) {
+        final long[] table = new long[256];
+        final int minScale = -(Math.max(0, nBits - 2) << maxEs);
+        for (int pattern = 0; pattern < 1 << nBits; pattern++) {
+            final long significand = Quire.getSignedSignificand(pattern, nBits, maxEs);
+            if (significand != 0L && significand != Quire.INFINITE) {
+                final int shift = 62 - (Quire.getScale(pattern, nBits, maxEs) - minScale);
+                table[pattern] = significand < 0L ? -(-significand >>> shift) : significand >>> shift;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the dot product of x[xFrom, xFrom + length) and y[yFrom, yFrom + length),
+     * rounded once to the output context.
+     */
+    public long dot(byte[] x, int xFrom, byte[] y, int yFrom, int length) {
+        long hi = 0L;
+        long lo = 0L;
+        boolean infinite = false;
+        for (int start = 0; start < length; start += chunk) {
+            final int end = Math.min(length, start + chunk);
+            long sum = 0L;
+            for (int i = start; i < end; i++) {
+                final byte a = x[xFrom + i];
+                final byte b = y[yFrom + i];
+                sum += fixed[a & 0xFF] * fixed[b & 0xFF];
+                infinite |= a == infinity | b == infinity;
+            }
+            final long total = lo + sum;
+            hi += (sum >> 63) + (Long.compareUnsigned(total, lo) < 0 ? 1L : 0L);
+            lo = total;
+        }
+        return round(infinite, hi, lo);
+    }
+
+    /**
+     * Sets out[r] to the dot product of row r of the rows by length matrix and
+     * the vector, for a batch of dot products against one vector.
+     *
+     * @param matrix row major posits, rows by length
+     * @param vector posits of the given length
+     * @param out pattern array of the output context, at least rows long
+     */
+    public void dot(byte[] matrix, byte[] vector, int rows, int length, Object out) {
+        if (matrix.length < (long) rows * length || vector.length < length || PositArrays.getLength(out) < rows) {
+            throw new IllegalArgumentException("arrays too short for rows=" + rows + ", length=" + length);
+        }
+        for (int r = 0; r < rows; r++) {
+            PositArrays.setPattern(out, r, dot(matrix, r * length, vector, 0, length));
+        }
+    }
+
+    /**
+     * Convolves the input with the kernel, out[i] = sum over j of
+     * input[i + j] * kernel[j], for 0 &lt;= i &lt;= inputLength - kernelLength.
+     *
+     * @param out pattern array of the output context
+     */
+    public void convolve(byte[] input, int inputLength, byte[] kernel, int kernelLength, Object out) {
+        final int outLength = inputLength - kernelLength + 1;
+        if (kernelLength <= 0 || outLength <= 0 || input.length < inputLength || kernel.length < kernelLength
+                || PositArrays.getLength(out) < outLength) {
+            throw new IllegalArgumentException("bad lengths input=" + inputLength + ", kernel=" + kernelLength);
+        }
+        for (int i = 0; i < outLength; i++) {
+            PositArrays.setPattern(out, i, dot(input, i, kernel, 0, kernelLength));
+        }
+    }
+
+    /**
+     * Convolves the row major height by width input with the kernelHeight by
+     * kernelWidth kernel, giving (height - kernelHeight + 1) by
+     * (width - kernelWidth + 1) outputs in row major order.
+     *
+     * @param out pattern array of the output context
+     */
+    public void convolve(byte[] input, int height, int width, byte[] kernel, int kernelHeight, int kernelWidth,
+            Object out) {
+        final int outHeight = height - kernelHeight + 1;
+        final int outWidth = width - kernelWidth + 1;
+        if (kernelHeight <= 0 || kernelWidth <= 0 || kernelWidth > chunk || outHeight <= 0 || outWidth <= 0
+                || input.length < (long) height * width || kernel.length < (long) kernelHeight * kernelWidth
+                || PositArrays.getLength(out) < (long) outHeight * outWidth) {
+            throw new IllegalArgumentException("bad dimensions input=" + height + "x" + width + ", kernel="
+                    + kernelHeight + "x" + kernelWidth);
+        }
+        for (int r = 0; r < outHeight; r++) {
+            for (int c = 0; c < outWidth; c++) {
+                long hi = 0L;
+                long lo = 0L;
+                boolean infinite = false;
+                // A kernel row is a short dot product, spill once per row.
+                for (int kr = 0; kr < kernelHeight; kr++) {
+                    final int from = (r + kr) * width + c;
+                    final int kernelFrom = kr * kernelWidth;
+                    long sum = 0L;
+                    for (int kc = 0; kc < kernelWidth; kc++) {
+                        final byte a = input[from + kc];
+                        final byte b = kernel[kernelFrom + kc];
+                        sum += fixed[a & 0xFF] * fixed[b & 0xFF];
+                        infinite |= a == infinity | b == infinity;
+                    }
+                    final long total = lo + sum;
+                    hi += (sum >> 63) + (Long.compareUnsigned(total, lo) < 0 ? 1L : 0L);
+                    lo = total;
+                }
+                PositArrays.setPattern(out, r * outWidth + c, round(infinite, hi, lo));
+            }
+        }
+    }
+
+    /** Rounds the 128 bit accumulator hi:lo, in units of minPos^2, to the output context. */
+    private long round(boolean infinite, long hi, long lo) {
+        if (infinite) {
+            return output.getInfinity();
+        }
+        final long[] limbs = { lo, hi };
+        return Quire.toPattern(limbs, 0, 2, new long[2], output.getBitSize(), output.getMaxExponentSize(), lsbScale,
+                output.getRoundingMode());
+    }
+}
@@ -0,0 +1,300 @@
+package javax.lang.posit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent exact sum of posits, the posit analog of
+ * {@link java.util.concurrent.atomic.DoubleAdder}.
+ * <p>
+ * The sum is striped over cells, held in {@link AtomicLongArray}s padded so
+ * cells of different threads do not share cache lines. A thread adds to the
+ * cell chosen by a hash of its id with one atomic add per touched limb, and
+ * carries and borrows out of a limb are atomic adds to the next limb. Writers
+ * never lock or retry, so contended sums scale with the cores. Integer
+ * addition is associative, so whatever the interleaving the cells hold the
+ * exact sum once the writers are done.
+ * <p>
+ * A carry or borrow may ripple through every limb, and until it lands the
+ * limbs hold no sum of whole adds. So each cell has two halves, each a
+ * {@link Quire} of {@link PositEnv#getQuireSize()} bits with a count of
+ * started and of ended adds, a seqlock. Writers add to the active half and
+ * count around each add. Readers, one at a time, switch the active half of a
+ * cell, wait until the old half has no add in progress and no add started
+ * while its limbs were read, then move that consistent value into the drained
+ * sum. Only adds that read the active half before the switch can still be in
+ * the old half, so readers wait at most for adds already in flight. Such late
+ * adds are moved out of the inactive half first, so once the writers are done
+ * a sum counts every add.
+ * <p>
+ * Like DoubleAdder, {@link #sum()} is not an atomic snapshot: adds concurrent
+ * with it may be missed. Each add is counted whole or not at all, and
+ * {@link #sumThenReset()} counts every add in it or in a later sum, never
+ * twice or not at all.
+ *
+ * @see Quire
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositAdder {
+    /** Longs of padding around each cell, a 64 byte cache line. */
+    static final int PAD = 8;
+    /** Index of the active half of a cell, 0 or 1. */
+    private static final int ACTIVE = PAD;
+    /** Offsets in a half of the started and ended add counts and of the limbs. */
+    private static final int STARTED = 0;
+    private static final int ENDED = 1;
+    private static final int LIMBS = 2;
+
+    private final PositContext context;
+    private final int nBits;
+    private final int maxEs;
+    private final int lsbScale;
+    private final int limbCount;
+    private final AtomicLongArray[] cells;
+    private volatile boolean infinite;
+
+    /** Sum of the limbs moved out of the cells, guarded by this. */
+    private final Quire drained;
+    /** Limbs read from a half, guarded by this. */
+    private final long[] scratch;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private PositAdder() {
+        throw new AssertionError();
+    }
+
+    /** Constructs a zero adder with a cell per available processor. */
+    public PositAdder(PositContext context) {
+        this(context, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a zero adder.
+     *
+     * @param context context of the posits, and the rounding of {@link #sum()}
+     * @param stripes number of cells, rounded up to a power of 2
+     * @throws IllegalArgumentException
+     *             if stripes is not 1 to 2^16
+     */
+    public PositAdder(PositContext context, int stripes) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes=" + stripes + " is not 1 to " + (1 << 16));
+        }
+        this.context = context;
+        this.nBits = context.getBitSize();
+        this.maxEs = context.getMaxExponentSize();
+        this.lsbScale = Quire.getLsbScale(nBits, maxEs);
+        this.limbCount = Quire.getLimbCount(context.getPositEnv());
+        this.cells = new AtomicLongArray[stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new AtomicLongArray(PAD + 1 + 2 * (LIMBS + limbCount) + PAD);
+        }
+        this.drained = new Quire(context);
+        this.scratch = new long[limbCount];
+    }
+
+    public PositContext getContext() {
+        return context;
+    }
+    /** Returns the number of cells. */
+    public int getStripeCount() {
+        return cells.length;
+    }
+
+    // Updates
+    /** Adds the posit x exactly. */
+    public void add(long x) {
+        addProduct(x, context.getOne());
+    }
+
+    /** Subtracts the posit x exactly. */
+    public void subtract(long x) {
+        addProduct(context.negate(x), context.getOne());
+    }
+
+    /** Adds the product x * y exactly. An infinite operand makes the sum infinite. */
+    public void addProduct(long x, long y) {
+        final long a = Quire.getSignedSignificand(x, nBits, maxEs);
+        final long b = Quire.getSignedSignificand(y, nBits, maxEs);
+        if (a == Quire.INFINITE || b == Quire.INFINITE) {
+            infinite = true;
+        } else if (a != 0L && b != 0L) {
+            final AtomicLongArray cell = cell();
+            final int half = half((int) cell.get(ACTIVE));
+            cell.incrementAndGet(half + STARTED);
+            addProduct(cell, half + LIMBS, a, Quire.getScale(x, nBits, maxEs), b, Quire.getScale(y, nBits, maxEs));
+            cell.incrementAndGet(half + ENDED);
+        }
+    }
+
+    /** Sets the sum to zero. Adds concurrent with the reset are kept or dropped whole. */
+    public synchronized void reset() {
+        drain();
+        drained.clear();
+        infinite = false;
+    }
+
+    // Results
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    /** Returns the sum, rounded once with the context rounding mode. */
+    public long sum() {
+        return quireSum().toPattern();
+    }
+
+    /** Returns the exact sum in a new quire. */
+    public synchronized Quire quireSum() {
+        drain();
+        final Quire sum = new Quire(context);
+        sum.add(drained);
+        if (infinite) {
+            sum.addProduct(context.getInfinity(), context.getOne());
+        }
+        return sum;
+    }
+
+    /** Returns the sum, rounded once, and sets it to zero without losing concurrent adds. */
+    public synchronized long sumThenReset() {
+        drain();
+        final long sum;
+        if (infinite) {
+            infinite = false;
+            sum = context.getInfinity();
+        } else {
+            sum = drained.toPattern();
+        }
+        drained.clear();
+        return sum;
+    }
+
+    /** Moves a consistent value of each cell into the drained sum. The caller holds this. */
+    private void drain() {
+        for (AtomicLongArray cell : cells) {
+            final int active = (int) cell.get(ACTIVE);
+            // First the inactive half, which holds only adds that were late for its last drain.
+            drain(cell, half(active ^ 1));
+            // Adds that read the active half from now on go to the other half.
+            cell.set(ACTIVE, active ^ 1);
+            drain(cell, half(active));
+        }
+    }
+
+    /** Moves a consistent value of a half into the drained sum. */
+    private void drain(AtomicLongArray cell, int half) {
+        while (!read(cell, half)) {
+            Thread.yield();
+        }
+        // Subtract what was read rather than zero the limbs, keeping late adds to this half.
+        subtract(cell, half + LIMBS, scratch);
+        drained.add(scratch);
+    }
+
+    /** Reads the limbs of a half into scratch, returns false if an add was in progress. */
+    private boolean read(AtomicLongArray cell, int half) {
+        // Read ended before started: equal counts then mean no add was in progress.
+        final long ended = cell.get(half + ENDED);
+        final long started = cell.get(half + STARTED);
+        if (started != ended) {
+            return false;
+        }
+        for (int i = 0; i < limbCount; i++) {
+            scratch[i] = cell.get(half + LIMBS + i);
+        }
+        return cell.get(half + STARTED) == started;
+    }
+
+    /** Returns the index of a half of a cell. */
+    private int half(int index) {
+        return ACTIVE + 1 + index * (LIMBS + limbCount);
+    }
+
+    /** Returns the cell of the current thread. */
+    private AtomicLongArray cell() {
+        // The SplitMix64 finalizer spreads sequential thread ids over the cells.
+        long z = Thread.currentThread().getId() + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return cells[(int) (z ^ (z >>> 31)) & (cells.length - 1)];
+    }
+
+    /**
+     * Adds the product of two nonzero signed significands to the limbs of a cell
+     * from index from, as
+     * {@link Quire#addProduct(long[], int, int, long, int, long, int, int)} does
+     * to limbs, with atomic adds.
+     */
+    private void addProduct(AtomicLongArray cell, int from, long a, int scaleA, long b, int scaleB) {
+        final long magnitudeA = a < 0L ? -a : a;
+        final long magnitudeB = b < 0L ? -b : b;
+        long hi = Bit.unsignedMultiplyHigh(magnitudeA, magnitudeB);
+        long lo = magnitudeA * magnitudeB;
+        int offset = scaleA + scaleB - 124 - lsbScale;
+        if (offset < 0) {
+            final int shift = -offset;
+            if (shift >= 64) {
+                lo = hi >>> (shift - 64);
+                hi = 0L;
+            } else {
+                lo = (lo >>> shift) | (hi << (64 - shift));
+                hi >>>= shift;
+            }
+            offset = 0;
+        }
+        final int word = offset >>> 6;
+        final int bit = offset & 63;
+        final long w0 = lo << bit;
+        final long w1 = bit == 0 ? hi : (hi << bit) | (lo >>> (64 - bit));
+        final long w2 = bit == 0 ? 0L : hi >>> (64 - bit);
+        final boolean subtract = (a ^ b) < 0L;
+        // Each atomic add reports its own wrap, so carries are exact under any interleaving.
+        // A limb may wrap on both the word and the carry, so up to 2 carries move on.
+        long carry = 0L;
+        for (int i = word; i < limbCount; i++) {
+            final int d = i - word;
+            if (d > 2 && carry == 0L) {
+                break;
+            }
+            final long w = d == 0 ? w0 : d == 1 ? w1 : d == 2 ? w2 : 0L;
+            long next = 0L;
+            if (w != 0L) {
+                next += wraps(cell, from + i, w, subtract);
+            }
+            if (carry != 0L) {
+                next += wraps(cell, from + i, carry, subtract);
+            }
+            carry = next;
+        }
+    }
+
+    /** Atomically subtracts limbs from the limbs of a cell from index from. */
+    private void subtract(AtomicLongArray cell, int from, long[] limbs) {
+        long borrow = 0L;
+        for (int i = 0; i < limbCount; i++) {
+            long next = 0L;
+            if (limbs[i] != 0L) {
+                next += wraps(cell, from + i, limbs[i], true);
+            }
+            if (borrow != 0L) {
+                next += wraps(cell, from + i, borrow, true);
+            }
+            borrow = next;
+        }
+    }
+
+    /** Atomically adds or subtracts w, an unsigned value, and returns 1 if the limb wraps. */
+    private static long wraps(AtomicLongArray cell, int index, long w, boolean subtract) {
+        if (subtract) {
+            final long old = cell.getAndAdd(index, -w);
+            return Long.compareUnsigned(old, w) < 0 ? 1L : 0L;
+        }
+        final long old = cell.getAndAdd(index, w);
+        return Long.compareUnsigned(old + w, old) < 0 ? 1L : 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "PositAdder: sum=" + context.toDouble(sum()) + ", stripes=" + cells.length + ", " + context;
+    }
+}
@@ -0,0 +1,109 @@
+package javax.lang.posit;
+
+import java.util.Arrays;
+
+/**
+ * Utility methods for arrays of posit patterns.
+ * <p>
+ * A posit column is stored in the smallest primitive array that holds the
+ * {@link PositEnv} container size: byte[] for up to 8 bits, short[] for up to 16
+ * bits, int[] for up to 32 bits, long[] for up to 64 bits. Patterns are stored
+ * in the low bits of each element and read back masked to the bit size.
+ *
+ * @see PositEnv#getContainerBitSize()
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositArrays {
+    @SuppressWarnings("unused")
+    private PositArrays() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns a new primitive array of the container type of this environment.
+     *
+     * @param env posit environment of up to 64 bits
+     * @param length number of patterns
+     * @return a byte[], short[], int[] or long[]
+     * @throws IllegalArgumentException
+     *             if the environment is wider than 64 bits
+     */
+    public static Object newArray(PositEnv env, int length) {
+        switch ((int) env.getContainerBitSize()) {
+        case 8:
+            return new byte[length];
+        case 16:
+            return new short[length];
+        case 32:
+            return new int[length];
+        case 64:
+            return new long[length];
+        default:
+            throw new IllegalArgumentException(env + " has no primitive container");
+        }
+    }
+
+    /** Returns the length of a primitive pattern array. */
+    public static int getLength(Object array) {
+        if (array instanceof byte[]) {
+            return ((byte[]) array).length;
+        } else if (array instanceof short[]) {
+            return ((short[]) array).length;
+        } else if (array instanceof int[]) {
+            return ((int[]) array).length;
+        } else if (array instanceof long[]) {
+            return ((long[]) array).length;
+        }
+        throw new IllegalArgumentException("not a pattern array " + array);
+    }
+
+    /**
+     * Returns the pattern at the given index, masked to the environment bit size.
+     */
+    public static long getPattern(PositEnv env, Object array, int index) {
+        final long mask = PositDomain.getPatternMask(env.getBitSize());
+        if (array instanceof byte[]) {
+            return ((byte[]) array)[index] & mask;
+        } else if (array instanceof short[]) {
+            return ((short[]) array)[index] & mask;
+        } else if (array instanceof int[]) {
+            return ((int[]) array)[index] & mask;
+        } else if (array instanceof long[]) {
+            return ((long[]) array)[index] & mask;
+        }
+        throw new IllegalArgumentException("not a pattern array " + array);
+    }
+
+    /**
+     * Sets the pattern at the given index. Bits beyond the container are dropped.
+     */
+    public static void setPattern(Object array, int index, long pattern) {
+        if (array instanceof byte[]) {
+            ((byte[]) array)[index] = (byte) pattern;
+        } else if (array instanceof short[]) {
+            ((short[]) array)[index] = (short) pattern;
+        } else if (array instanceof int[]) {
+            ((int[]) array)[index] = (int) pattern;
+        } else if (array instanceof long[]) {
+            ((long[]) array)[index] = pattern;
+        } else {
+            throw new IllegalArgumentException("not a pattern array " + array);
+        }
+    }
+
+    /**
+     * Returns a copy of the array truncated or padded to the given length.
+     */
+    public static Object copyOf(Object array, int length) {
+        if (array instanceof byte[]) {
+            return Arrays.copyOf((byte[]) array, length);
+        } else if (array instanceof short[]) {
+            return Arrays.copyOf((short[]) array, length);
+        } else if (array instanceof int[]) {
+            return Arrays.copyOf((int[]) array, length);
+        } else if (array instanceof long[]) {
+            return Arrays.copyOf((long[]) array, length);
+        }
+        throw new IllegalArgumentException("not a pattern array " + array);
+    }
+}
@@ -0,0 +1,297 @@
+package javax.lang.posit;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A lossless block codec for arrays of posit patterns.
+ * <p>
+ * Posits order as their patterns read as two's complement integers, so samples
+ * of a smooth signal have nearby patterns, and small differences even across
+ * zero. Each block of up to blockSize patterns is written as:
+ * <ul>
+ * <li>the pattern count, an unsigned short,
+ * <li>the bit width of the packed differences, a byte,
+ * <li>the first pattern in nBits bits,
+ * <li>the zigzag encoded difference of each further pattern from the one
+ * before, in width bits,
+ * </ul>
+ * packed little endian and padded to a byte at the end of the block. Blocks
+ * are self describing, so an encoder may append blocks to a buffer across
+ * calls and a decoder reads them in order. Patterns are read from and written
+ * to the {@link PositArrays} container array of the environment with a loop
+ * per container type.
+ *
+ * @see PositArrays
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositCodec {
+    /** Default patterns per block. */
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+    /** Largest block, the count is an unsigned short. */
+    public static final int MAX_BLOCK_SIZE = 0xFFFF;
+    /** Bytes of block count and width. */
+    static final int HEADER_BYTES = 3;
+
+    private final PositEnv env;
+    private final int nBits;
+    private final int blockSize;
+    private final long[] block;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private PositCodec() {
+        throw new AssertionError();
+    }
+
+    /** Constructs a codec with blocks of {@link #DEFAULT_BLOCK_SIZE} patterns. */
+    public PositCodec(PositEnv env) {
+        this(env, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a codec. A codec holds a block of work space, use one per thread.
+     *
+     * @param env posit environment of the arrays, up to 64 bits
+     * @param blockSize patterns per block, more amortize the header, fewer adapt
+     *            the width to the data
+     * @throws IllegalArgumentException
+     *             if the environment has no primitive container or blockSize is
+     *             not 1 to {@link #MAX_BLOCK_SIZE}
+     */
+    public PositCodec(PositEnv env, int blockSize) {
+        if (env.getBitSize() < 2 || env.getContainerBitSize() > 64) {
+            throw new IllegalArgumentException(env + " has no primitive container");
+        }
+        if (blockSize < 1 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("blockSize=" + blockSize + " is not 1 to " + MAX_BLOCK_SIZE);
+        }
+        this.env = env;
+        this.nBits = env.getBitSize();
+        this.blockSize = blockSize;
+        this.block = new long[blockSize];
+    }
+
+    public PositEnv getPositEnv() {
+        return env;
+    }
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /** Returns the most bytes {@link #encode} writes for count patterns. */
+    public int getMaxEncodedSize(int count) {
+        final int blocks = (count + blockSize - 1) / blockSize;
+        // Differences of nBits integers take nBits + 1 bits zigzag encoded, 64 at most.
+        final long bits = (long) count * Math.min(64, nBits + 1) + blocks * 7L;
+        return (int) Math.min(Integer.MAX_VALUE, blocks * (long) HEADER_BYTES + (bits >>> 3));
+    }
+
+    // Encoding
+    /**
+     * Encodes array[from, to) as blocks appended to the buffer.
+     *
+     * @param array byte[], short[], int[] or long[] of patterns
+     * @throws java.nio.BufferOverflowException
+     *             if the buffer has less than {@link #getMaxEncodedSize} remaining
+     *             and the blocks do not fit
+     */
+    public void encode(Object array, int from, int to, ByteBuffer out) {
+        for (int start = from; start < to; start += blockSize) {
+            final int count = Math.min(blockSize, to - start);
+            load(array, start, count);
+            long widest = 0L;
+            for (int i = count - 1; i > 0; i--) {
+                // Differences of the sign extended patterns, zigzag encoded.
+                final long difference = block[i] - block[i - 1];
+                block[i] = (difference << 1) ^ (difference >> 63);
+                widest |= block[i];
+            }
+            final int width = 64 - Long.numberOfLeadingZeros(widest);
+            out.putShort((short) count);
+            out.put((byte) width);
+            final BitWriter writer = new BitWriter(out);
+            writer.put(block[0] & Bit.mask(nBits), nBits);
+            for (int i = 1; i < count; i++) {
+                writer.put(block[i], width);
+            }
+            writer.flush();
+        }
+    }
+
+    /** Loads array[from, from + count) into the block, sign extended. */
+    private void load(Object array, int from, int count) {
+        final int shift = 64 - nBits;
+        if (array instanceof byte[]) {
+            final byte[] a = (byte[]) array;
+            for (int i = 0; i < count; i++) {
+                block[i] = (long) a[from + i] << shift >> shift;
+            }
+        } else if (array instanceof short[]) {
+            final short[] a = (short[]) array;
+            for (int i = 0; i < count; i++) {
+                block[i] = (long) a[from + i] << shift >> shift;
+            }
+        } else if (array instanceof int[]) {
+            final int[] a = (int[]) array;
+            for (int i = 0; i < count; i++) {
+                block[i] = (long) a[from + i] << shift >> shift;
+            }
+        } else if (array instanceof long[]) {
+            final long[] a = (long[]) array;
+            for (int i = 0; i < count; i++) {
+                block[i] = a[from + i] << shift >> shift;
+            }
+        } else {
+            throw new IllegalArgumentException("not a pattern array " + array);
+        }
+    }
+
+    // Decoding
+    /**
+     * Decodes the blocks remaining in the buffer into array from offset.
+     *
+     * @param array byte[], short[], int[] or long[] of patterns
+     * @return the number of patterns decoded
+     * @throws BufferUnderflowException
+     *             if the buffer ends within a block
+     * @throws IllegalArgumentException
+     *             if a block is malformed
+     * @throws ArrayIndexOutOfBoundsException
+     *             if the array is too short
+     */
+    public int decode(ByteBuffer in, Object array, int offset) {
+        int index = offset;
+        while (in.hasRemaining()) {
+            index += decodeBlock(in, array, index);
+        }
+        return index - offset;
+    }
+
+    /**
+     * Decodes one block from the buffer into array from offset.
+     *
+     * @return the number of patterns decoded
+     * @throws BufferUnderflowException
+     *             if the buffer ends within the block
+     */
+    public int decodeBlock(ByteBuffer in, Object array, int offset) {
+        final int count = in.getShort() & 0xFFFF;
+        final int width = in.get() & 0xFF;
+        if (count < 1 || count > blockSize || width > 64) {
+            throw new IllegalArgumentException("block of " + count + " patterns of width " + width);
+        }
+        final BitReader reader = new BitReader(in);
+        final int shift = 64 - nBits;
+        long previous = reader.get(nBits) << shift >> shift;
+        block[0] = previous;
+        for (int i = 1; i < count; i++) {
+            final long zigzag = reader.get(width);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1L);
+            block[i] = previous;
+        }
+        store(array, offset, count);
+        return count;
+    }
+
+    /** Stores the block into array[from, from + count), dropping bits beyond the container. */
+    private void store(Object array, int from, int count) {
+        final long mask = Bit.mask(nBits);
+        if (array instanceof byte[]) {
+            final byte[] a = (byte[]) array;
+            for (int i = 0; i < count; i++) {
+                a[from + i] = (byte) (block[i] & mask);
+            }
+        } else if (array instanceof short[]) {
+            final short[] a = (short[]) array;
+            for (int i = 0; i < count; i++) {
+                a[from + i] = (short) (block[i] & mask);
+            }
+        } else if (array instanceof int[]) {
+            final int[] a = (int[]) array;
+            for (int i = 0; i < count; i++) {
+                a[from + i] = (int) (block[i] & mask);
+            }
+        } else if (array instanceof long[]) {
+            final long[] a = (long[]) array;
+            for (int i = 0; i < count; i++) {
+                a[from + i] = block[i] & mask;
+            }
+        } else {
+            throw new IllegalArgumentException("not a pattern array " + array);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PositCodec: blockSize=" + blockSize + ", " + env;
+    }
+
+    /** Packs values of up to 64 bits into bytes, least significant bit first. */
+    static final class BitWriter {
+        private final ByteBuffer out;
+        private long bits;
+        /** Number of pending bits, below 8 between calls. */
+        private int count;
+
+        BitWriter(ByteBuffer out) {
+            this.out = out;
+        }
+
+        /** Writes the low width bits of value, the higher bits must be zero. */
+        void put(long value, int width) {
+            // At most 56 bits at a time, so pending bits and new bits fit a long.
+            while (width > 0) {
+                final int take = Math.min(width, 56);
+                bits |= (value & Bit.mask(take)) << count;
+                count += take;
+                value >>>= take;
+                width -= take;
+                while (count >= 8) {
+                    out.put((byte) bits);
+                    bits >>>= 8;
+                    count -= 8;
+                }
+            }
+        }
+
+        /** Writes the pending bits padded to a byte. */
+        void flush() {
+            if (count > 0) {
+                out.put((byte) bits);
+            }
+            bits = 0L;
+            count = 0;
+        }
+    }
+
+    /** Unpacks values written by {@link BitWriter}. */
+    static final class BitReader {
+        private final ByteBuffer in;
+        private long bits;
+        private int count;
+
+        BitReader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        /** Reads width bits as an unsigned value. */
+        long get(int width) {
+            long value = 0L;
+            int shift = 0;
+            while (width > 0) {
+                final int take = Math.min(width, 56);
+                while (count < take) {
+                    bits |= (in.get() & 0xFFL) << count;
+                    count += 8;
+                }
+                value |= (bits & Bit.mask(take)) << shift;
+                bits >>>= take;
+                count -= take;
+                shift += take;
+                width -= take;
+            }
+            return value;
+        }
+    }
+}
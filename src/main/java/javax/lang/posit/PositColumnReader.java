@@ -0,0 +1,436 @@
+package javax.lang.posit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams a delimited text file of numbers into columns of posit patterns.
+ * <p>
+ * The file is read through a {@link FileChannel} in chunks split on line
+ * boundaries. A batch of chunks is parsed in parallel, each chunk into a
+ * {@link Block} of primitive pattern arrays for the chosen {@link PositEnv},
+ * and blocks are handed to the consumer in file order. Memory is bounded by
+ * parallelism * chunkSize bytes plus the blocks in flight, regardless of file
+ * size.
+ * <p>
+ * Lines end with "\n" (a trailing "\r" is dropped). Empty lines are skipped.
+ * The first columns fields of each line are parsed, further fields are ignored.
+ * A space delimiter accepts any run of spaces and tabs.
+ *
+ * @see PositArrays
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositColumnReader {
+    /** Write to the console log. */
+    public static final Logger LOGGER = LoggerFactory.getLogger(PositColumnReader.class);
+
+    /** Default chunk size, 4 MB. A line may not be longer than a chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+
+    private final PositEnv env;
+    private final int columns;
+    private final char delimiter;
+    private final boolean header;
+    private final int chunkSize;
+    private final int parallelism;
+
+    // Constructors
+    /**
+     * Reads comma separated columns with no header line.
+     *
+     * @param env posit environment of the columns, up to 64 bits
+     * @param columns number of leading fields parsed on each line
+     */
+    public PositColumnReader(PositEnv env, int columns) {
+        this(env, columns, ',', false, DEFAULT_CHUNK_SIZE, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param env posit environment of the columns, up to 64 bits
+     * @param columns number of leading fields parsed on each line
+     * @param delimiter field separator, a space accepts any run of spaces and tabs
+     * @param header true to skip the first line of the file
+     * @param chunkSize bytes per chunk, also the longest legal line
+     * @param parallelism number of chunks read and parsed per batch
+     */
+    public PositColumnReader(PositEnv env, int columns, char delimiter, boolean header, int chunkSize,
+            int parallelism) {
+        if (env.getBitSize() < 2 || env.getContainerBitSize() > 64) {
+            throw new IllegalArgumentException(env + " has no primitive container");
+        }
+        if (columns < 1 || chunkSize < 2 || parallelism < 1) {
+            throw new IllegalArgumentException("columns=" + columns + ", chunkSize=" + chunkSize
+                    + ", parallelism=" + parallelism);
+        }
+        this.env = env;
+        this.columns = columns;
+        this.delimiter = delimiter;
+        this.header = header;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads the file, passing each parsed block to the consumer in file order.
+     *
+     * @param path file to read
+     * @param consumer receives blocks on the calling thread
+     * @return rows, bytes and elapsed time of the read
+     * @throws IOException
+     *             if the file cannot be read or a line is longer than a chunk
+     * @throws NumberFormatException
+     *             if a field does not contain a parsable number.
+     */
+    public Stats read(Path path, Consumer<Block> consumer) throws IOException {
+        final long start = System.nanoTime();
+        long rows = 0L;
+        long bytes = 0L;
+        final ByteBuffer[] buffers = new ByteBuffer[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            buffers[i] = ByteBuffer.allocate(chunkSize);
+        }
+        final byte[] carry = new byte[chunkSize];
+        int carryLength = 0;
+        boolean skipLine = header;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                // Read a batch of chunks, each ending on a line boundary.
+                final List<ForkJoinTask<Block>> tasks = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism && !eof; i++) {
+                    final ByteBuffer buffer = buffers[i];
+                    buffer.clear();
+                    buffer.put(carry, 0, carryLength);
+                    while (buffer.hasRemaining() && !eof) {
+                        eof = channel.read(buffer) < 0;
+                    }
+                    final byte[] array = buffer.array();
+                    final int filled = buffer.position();
+                    bytes += filled - carryLength;
+                    int end = filled;
+                    if (!eof) {
+                        end = lastLineEnd(array, filled);
+                        if (end < 0) {
+                            throw new IOException("line longer than chunk size " + chunkSize + " in " + path);
+                        }
+                    }
+                    carryLength = filled - end;
+                    System.arraycopy(array, end, carry, 0, carryLength);
+                    final int from = skipLine ? firstLineEnd(array, 0, end) : 0;
+                    final int to = end;
+                    skipLine = false;
+                    tasks.add(ForkJoinPool.commonPool().submit(() -> parse(array, from, to)));
+                }
+                long batchRows = 0L;
+                for (ForkJoinTask<Block> task : tasks) {
+                    final Block block;
+                    try {
+                        block = task.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("interrupted reading " + path, e);
+                    } catch (ExecutionException e) {
+                        // A task completed on another thread rethrows a copy caused by the original.
+                        Throwable cause = e.getCause();
+                        while (null != cause.getCause() && cause.getClass() == cause.getCause().getClass()) {
+                            cause = cause.getCause();
+                        }
+                        if (cause instanceof NumberFormatException) {
+                            throw (NumberFormatException) cause;
+                        }
+                        throw new IOException(cause);
+                    }
+                    block.firstRow = rows + batchRows;
+                    batchRows += block.rows;
+                    if (block.rows > 0) {
+                        consumer.accept(block);
+                    }
+                }
+                rows += batchRows;
+            }
+        }
+        final Stats stats = new Stats(rows, bytes, System.nanoTime() - start);
+        LOGGER.debug("Read {} from {}", stats, path);
+        return stats;
+    }
+
+    /** Returns the index after the last '\n' in the array, or -1 if there is none. */
+    private static int lastLineEnd(byte[] array, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (array[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the index after the first '\n' in the range, or to if there is none. */
+    private static int firstLineEnd(byte[] array, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return to;
+    }
+
+    /** Parses the complete lines in the range into a block. */
+    private Block parse(byte[] array, int from, int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) {
+            if (array[i] == '\n') {
+                lines++;
+            }
+        }
+        if (to > from && array[to - 1] != '\n') {
+            lines++;
+        }
+        final Object[] patterns = new Object[columns];
+        for (int c = 0; c < columns; c++) {
+            patterns[c] = PositArrays.newArray(env, lines);
+        }
+        final int nBits = env.getBitSize();
+        final int maxEs = env.getMaxExponentSize();
+        int row = 0;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && array[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            final int next = lineEnd + 1;
+            if (lineEnd > lineStart && array[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            int pos = skipBlanks(array, lineStart, lineEnd);
+            if (pos < lineEnd) {
+                for (int c = 0; c < columns; c++) {
+                    if (pos > lineEnd) {
+                        throw new NumberFormatException("missing field " + c + " in \""
+                                + new String(array, lineStart, lineEnd - lineStart, StandardCharsets.US_ASCII) + "\"");
+                    }
+                    int fieldEnd = pos;
+                    while (fieldEnd < lineEnd && !isDelimiter(array[fieldEnd])) {
+                        fieldEnd++;
+                    }
+                    final double value = parseDouble(array, pos, fieldEnd);
+                    PositArrays.setPattern(patterns[c], row, PositDomain.toPattern(value, nBits, maxEs));
+                    pos = fieldEnd + 1;
+                    if (delimiter == ' ') {
+                        pos = skipBlanks(array, pos, lineEnd);
+                    }
+                }
+                row++;
+            }
+            lineStart = next;
+        }
+        if (row < lines) {
+            for (int c = 0; c < columns; c++) {
+                patterns[c] = PositArrays.copyOf(patterns[c], row);
+            }
+        }
+        return new Block(env, row, patterns);
+    }
+
+    private boolean isDelimiter(byte b) {
+        return b == delimiter || (delimiter == ' ' && b == '\t');
+    }
+
+    private static int skipBlanks(byte[] array, int from, int to) {
+        while (from < to && (array[from] == ' ' || array[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    /** Exact powers of ten representable as a double. */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /**
+     * Parses a decimal number from ASCII bytes.
+     * <p>
+     * Numbers with a mantissa below 2^53 and a decimal exponent of up to 22 are
+     * converted with one multiply or divide. Other numbers fall back to
+     * {@link Double#parseDouble(String)}.
+     *
+     * @throws NumberFormatException
+     *             if the field does not contain a parsable number.
+     */
+    static double parseDouble(byte[] array, int from, int to) {
+        int end = to;
+        while (end > from && (array[end - 1] == ' ' || array[end - 1] == '\t')) {
+            end--;
+        }
+        int pos = skipBlanks(array, from, end);
+        final int start = pos;
+        boolean negative = false;
+        if (pos < end && (array[pos] == '-' || array[pos] == '+')) {
+            negative = array[pos] == '-';
+            pos++;
+        }
+        long mantissa = 0L;
+        int significant = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; pos < end; pos++) {
+            final byte b = array[pos];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (significant < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0L) {
+                        significant++;
+                    }
+                    if (seenPoint) {
+                        exponent--;
+                    }
+                } else {
+                    truncated |= b != '0';
+                    if (!seenPoint) {
+                        exponent++;
+                    }
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (seenDigit && pos < end && (array[pos] == 'e' || array[pos] == 'E')) {
+            int p = pos + 1;
+            boolean negativeExponent = false;
+            if (p < end && (array[p] == '-' || array[p] == '+')) {
+                negativeExponent = array[p] == '-';
+                p++;
+            }
+            int value = 0;
+            final int digitsStart = p;
+            while (p < end && array[p] >= '0' && array[p] <= '9' && value < 100000) {
+                value = value * 10 + (array[p] - '0');
+                p++;
+            }
+            if (p > digitsStart) {
+                exponent += negativeExponent ? -value : value;
+                pos = p;
+            }
+        }
+        if (seenDigit && pos == end && !truncated && mantissa < 1L << 53) {
+            // Both the mantissa and the power of ten are exact, so one operation rounds once.
+            double value = mantissa;
+            if (exponent == 0 || mantissa == 0L) {
+                return negative ? -value : value;
+            } else if (exponent > 0 && exponent <= 22) {
+                value *= POWERS_OF_TEN[exponent];
+                return negative ? -value : value;
+            } else if (exponent < 0 && exponent >= -22) {
+                value /= POWERS_OF_TEN[-exponent];
+                return negative ? -value : value;
+            }
+        }
+        if (start == end) {
+            throw new NumberFormatException("empty field");
+        }
+        return Double.parseDouble(new String(array, start, end - start, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Columns of posit patterns parsed from consecutive rows of the file.
+     */
+    public static final class Block {
+        private final PositEnv env;
+        private final int rows;
+        private final Object[] patterns;
+        /** Set in file order once the rows of earlier blocks are known. */
+        private long firstRow;
+
+        Block(PositEnv env, int rows, Object[] patterns) {
+            this.env = env;
+            this.rows = rows;
+            this.patterns = patterns;
+        }
+
+        public PositEnv getPositEnv() {
+            return env;
+        }
+
+        /** Returns the number of rows in this block. */
+        public int getRows() {
+            return rows;
+        }
+
+        /** Returns the zero based row number in the file of the first row of this block. */
+        public long getFirstRow() {
+            return firstRow;
+        }
+
+        public int getColumns() {
+            return patterns.length;
+        }
+
+        /**
+         * Returns the pattern array of a column, a byte[], short[], int[] or long[]
+         * as given by {@link PositArrays#newArray(PositEnv, int)} of length rows.
+         */
+        public Object getColumn(int column) {
+            return patterns[column];
+        }
+
+        /** Returns the pattern of the given column and row of this block. */
+        public long getPattern(int column, int row) {
+            return PositArrays.getPattern(env, patterns[column], row);
+        }
+    }
+
+    /**
+     * Totals of a read.
+     */
+    public static final class Stats {
+        private final long rows;
+        private final long bytes;
+        private final long nanos;
+
+        Stats(long rows, long bytes, long nanos) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return nanos;
+        }
+
+        public double getRowsPerSecond() {
+            return nanos == 0L ? 0.0 : rows * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows, %d bytes in %.3f s, %.0f rows/s", rows, bytes, nanos / 1e9,
+                    getRowsPerSecond());
+        }
+    }
+}
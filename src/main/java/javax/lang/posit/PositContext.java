@@ -0,0 +1,628 @@
+package javax.lang.posit;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Settings, tables and arithmetic for the posits of one environment, similar to
+ * {@link java.math.MathContext} for BigDecimal.
+ * <p>
+ * A context resolves the bit size, maximum exponent size and rounding mode once,
+ * so that loops over many values do not pass them with every value. Posits are
+ * primitive patterns right-aligned in a long, as in
+ * {@link PositDomain#toPattern(double, int, int)}, for environments of 2 to 64 bits.
+ * <p>
+ * Results are rounded with the context rounding mode. As with all posits they
+ * saturate at minPos and maxPos rather than rounding to zero or to infinity.
+ * Infinity absorbs: any operation with infinity, and division by zero, returns
+ * infinity.
+ * <p>
+ * The usual context of an environment is shared, see {@link PositEnv#getContext()}.
+ *
+ * @see PositEnv
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositContext {
+    /** Environments of up to this many bits decode doubles through a lookup table. */
+    public static final int DOUBLE_TABLE_BITS = 12;
+
+    /** Largest scale of maxPos supported, leaving room for products of scales in an int. */
+    private static final long MAX_SCALE = 1L << 28;
+
+    private final PositEnv env;
+    private final RoundingMode roundingMode;
+    private final int nBits;
+    private final int maxEs;
+    private final long mask;
+    private final long infinity;
+
+    /** Named tables built on first use, shared by all users of this context. */
+    private final ConcurrentMap<String, Table> tables = new ConcurrentHashMap<>();
+    private volatile double[] doubles;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private PositContext() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Constructs a context that rounds to nearest, ties to even.
+     *
+     * @param env environment of 2 to 64 bits
+     */
+    public PositContext(PositEnv env) {
+        this(env, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Constructs a context with the given rounding mode.
+     *
+     * @param env environment of 2 to 64 bits
+     * @param roundingMode rounding of inexact results
+     * @throws NullPointerException
+     *             if either parameter is null
+     * @throws IllegalArgumentException
+     *             if the environment has no primitive pattern or its exponents do not fit an int
+     */
+    public PositContext(PositEnv env, RoundingMode roundingMode) {
+        if (null == env || null == roundingMode) {
+            throw new NullPointerException("null environment or rounding mode");
+        }
+        this.nBits = env.getBitSize();
+        this.maxEs = env.getMaxExponentSize();
+        if (nBits < 2 || nBits > 64) {
+            throw new IllegalArgumentException("nBits=" + nBits + " has no primitive pattern");
+        }
+        if (maxEs > 28 || ((long) (nBits - 2) << maxEs) > MAX_SCALE) {
+            throw new IllegalArgumentException("maxEs=" + maxEs + " is too large for primitive patterns");
+        }
+        this.env = env;
+        this.roundingMode = roundingMode;
+        this.mask = Bit.mask(nBits);
+        this.infinity = 1L << (nBits - 1);
+    }
+
+    // Settings
+    public PositEnv getPositEnv() {
+        return env;
+    }
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+    public int getBitSize() {
+        return nBits;
+    }
+    public int getMaxExponentSize() {
+        return maxEs;
+    }
+
+    /** Returns the infinity pattern, "1" followed by zeros. */
+    public long getInfinity() {
+        return infinity;
+    }
+    /** Returns the pattern of maxPos, "0" followed by ones. */
+    public long getMaxPos() {
+        return infinity - 1L;
+    }
+    /** Returns the pattern of minPos, zeros followed by "1". */
+    public long getMinPos() {
+        return 1L;
+    }
+    /** Returns the pattern of one, "01" followed by zeros. */
+    public long getOne() {
+        return 1L << (nBits - 2);
+    }
+
+    /**
+     * Returns the named table of this context, building it on first use.
+     * <p>
+     * Tables are shared by all users of the context. Concurrent first calls may
+     * each run the builder, one result is kept and returned to all. Each table
+     * records its build time and, when {@link PositMetrics#ENABLED}, the later
+     * calls that found it, see {@link PositRegistry}.
+     *
+     * @param name unique name of the table
+     * @param builder builds the table when it is missing
+     * @return the table
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getTable(String name, Supplier<T> builder) {
+        Table table = tables.get(name);
+        if (null == table) {
+            final long start = System.nanoTime();
+            final T newValue = PositMetrics.EVENTS ? PositMetrics.RECORDER.buildTable(this, name, builder) : builder.get();
+            table = tables.putIfAbsent(name, new Table(newValue, System.nanoTime() - start));
+            if (null == table) {
+                return newValue;
+            }
+        }
+        if (PositMetrics.ENABLED) {
+            table.hits.increment();
+        }
+        return (T) table.value;
+    }
+
+    /** Returns a read only view of the tables built so far by name. */
+    Map<String, Table> getTables() {
+        return Collections.unmodifiableMap(tables);
+    }
+
+    /**
+     * Drops a table, to be built again on next use. Users holding the table
+     * keep it until they let go.
+     *
+     * @return true if the table was built
+     */
+    boolean evictTable(String name) {
+        if ("toDouble".equals(name)) {
+            doubles = null;
+        }
+        return null != tables.remove(name);
+    }
+
+    /** A built table, its build time and the number of later lookups when metrics are enabled. */
+    static final class Table {
+        final Object value;
+        final long buildNanos;
+        final LongAdder hits = new LongAdder();
+
+        Table(Object value, long buildNanos) {
+            this.value = value;
+            this.buildNanos = buildNanos;
+        }
+    }
+
+    // Predicates and sign
+    public boolean isZero(long pattern) {
+        return (pattern & mask) == 0L;
+    }
+    public boolean isInfinite(long pattern) {
+        return (pattern & mask) == infinity;
+    }
+    /** Returns true for negative posits, false for zero and infinity. */
+    public boolean isNegative(long pattern) {
+        final long p = pattern & mask;
+        return (p & infinity) != 0L && p != infinity;
+    }
+
+    /** Returns -x. Zero and infinity are their own negation. */
+    public long negate(long x) {
+        return Bit.twosComplement(x, nBits);
+    }
+
+    /** Returns |x|. */
+    public long abs(long x) {
+        return isNegative(x) ? negate(x) : x & mask;
+    }
+
+    /**
+     * Compares two posits. Posits order as their patterns read as signed integers,
+     * so infinity is less than every other posit.
+     */
+    public int compare(long x, long y) {
+        final int shift = 64 - nBits;
+        return Long.compare(x << shift, y << shift);
+    }
+
+    // Conversions
+    /** Returns the pattern of the given double, NaN and infinities become infinity. */
+    public long fromDouble(double value) {
+        return PositDomain.toPattern(value, nBits, maxEs, roundingMode);
+    }
+
+    /** Returns the pattern of the given long. */
+    public long fromLong(long value) {
+        if (value == 0L) {
+            return 0L;
+        }
+        final boolean negative = value < 0L;
+        // Unsigned, Long.MIN_VALUE is 2^63.
+        final long magnitude = negative ? -value : value;
+        final int zeros = Long.numberOfLeadingZeros(magnitude);
+        if (zeros == 0) {
+            return PositDomain.encode(nBits, maxEs, negative, 63, magnitude >>> 1, (magnitude & 1L) != 0L,
+                    roundingMode);
+        }
+        return PositDomain.encode(nBits, maxEs, negative, 63 - zeros, magnitude << (zeros - 1), false, roundingMode);
+    }
+
+    /** Returns the double nearest to the posit, see {@link PositDomain#toDouble(long, int, int)}. */
+    public double toDouble(long pattern) {
+        if (nBits <= DOUBLE_TABLE_BITS) {
+            double[] table = doubles;
+            if (null == table) {
+                table = getTable("toDouble", this::buildDoubleTable);
+                doubles = table;
+            }
+            if (PositMetrics.ENABLED) {
+                PositMetrics.count(PositMetrics.Counter.CONVERSION);
+            }
+            return table[(int) (pattern & mask)];
+        }
+        return PositDomain.toDouble(pattern, nBits, maxEs);
+    }
+
+    /** Returns the float nearest to the posit, see {@link PositDomain#toFloat(long, int, int)}. */
+    public float toFloat(long pattern) {
+        return PositDomain.toFloat(pattern, nBits, maxEs);
+    }
+
+    /** Returns the posit truncated to a long, see {@link PositDomain#toLong(long, int, int)}. */
+    public long toLong(long pattern) {
+        return PositDomain.toLong(pattern, nBits, maxEs);
+    }
+
+    /** Returns the exact value of the posit, see {@link PositDomain#toBigDecimal(long, PositEnv)}. */
+    public BigDecimal toBigDecimal(long pattern) {
+        return PositDomain.toBigDecimal(pattern, env);
+    }
+
+    private double[] buildDoubleTable() {
+        final double[] table = new double[1 << nBits];
+        for (int pattern = 0; pattern < table.length; pattern++) {
+            table[pattern] = PositDomain.toDouble(pattern, nBits, maxEs);
+        }
+        return table;
+    }
+
+    // Arithmetic
+    /** Returns x + y, rounded once. */
+    public long add(long x, long y) {
+        if (PositMetrics.ENABLED) {
+            PositMetrics.count(PositMetrics.Counter.OPERATION);
+        }
+        final long a = x & mask;
+        final long b = y & mask;
+        if (a == infinity || b == infinity) {
+            return infinity;
+        }
+        if (a == 0L) {
+            return b;
+        }
+        if (b == 0L) {
+            return a;
+        }
+        final boolean negativeA = (a & infinity) != 0L;
+        final boolean negativeB = (b & infinity) != 0L;
+        long magnitudeA = negativeA ? Bit.twosComplement(a, nBits) : a;
+        long magnitudeB = negativeB ? Bit.twosComplement(b, nBits) : b;
+        if (negativeA != negativeB && magnitudeA == magnitudeB) {
+            return 0L;
+        }
+        // Magnitudes order as their patterns, keep the larger in a.
+        final boolean negative;
+        if (magnitudeA < magnitudeB) {
+            final long swap = magnitudeA;
+            magnitudeA = magnitudeB;
+            magnitudeB = swap;
+            negative = negativeB;
+        } else {
+            negative = negativeA;
+        }
+        int scale = PositDomain.getScale(magnitudeA, nBits, maxEs);
+        final long significandA = PositDomain.getSignificand(magnitudeA, nBits, maxEs);
+        final long significandB = PositDomain.getSignificand(magnitudeB, nBits, maxEs);
+        final int shift = scale - PositDomain.getScale(magnitudeB, nBits, maxEs);
+
+        // Align b below a in 128 bits hi:lo, further bits are only sticky.
+        long bHi = 0L;
+        long bLo = 0L;
+        boolean sticky = false;
+        if (shift == 0) {
+            bHi = significandB;
+        } else if (shift < 64) {
+            bHi = significandB >>> shift;
+            bLo = significandB << (64 - shift);
+        } else if (shift < 128) {
+            bLo = significandB >>> (shift - 64);
+            sticky = shift > 64 && significandB << (128 - shift) != 0L;
+        } else {
+            sticky = true;
+        }
+
+        long hi;
+        long lo;
+        if (negativeA == negativeB) {
+            hi = significandA + bHi;
+            lo = bLo;
+            if (hi < 0L) {
+                // Carry into bit 63, renormalize.
+                sticky |= (lo & 1L) != 0L;
+                lo = (lo >>> 1) | (hi << 63);
+                hi >>>= 1;
+                scale++;
+            }
+        } else {
+            if (sticky) {
+                // The lost bits of b are less than one unit of lo, subtract a whole unit and keep sticky.
+                bLo++;
+                if (bLo == 0L) {
+                    bHi++;
+                }
+            }
+            lo = -bLo;
+            hi = significandA - bHi - (bLo != 0L ? 1L : 0L);
+            if (hi == 0L && lo == 0L) {
+                return 0L;
+            }
+            final int normalize = (hi != 0L ? Long.numberOfLeadingZeros(hi) : 64 + Long.numberOfLeadingZeros(lo)) - 1;
+            if (normalize >= 64) {
+                hi = lo << (normalize - 64);
+                lo = 0L;
+            } else if (normalize > 0) {
+                hi = (hi << normalize) | (lo >>> (64 - normalize));
+                lo <<= normalize;
+            }
+            scale -= normalize;
+        }
+        return PositDomain.encode(nBits, maxEs, negative, scale, hi, sticky || lo != 0L, roundingMode);
+    }
+
+    /** Returns x - y, rounded once. */
+    public long subtract(long x, long y) {
+        return add(x, negate(y));
+    }
+
+    /** Returns x * y, rounded once. */
+    public long multiply(long x, long y) {
+        if (PositMetrics.ENABLED) {
+            PositMetrics.count(PositMetrics.Counter.OPERATION);
+        }
+        final long a = x & mask;
+        final long b = y & mask;
+        if (a == infinity || b == infinity) {
+            return infinity;
+        }
+        if (a == 0L || b == 0L) {
+            return 0L;
+        }
+        final boolean negativeA = (a & infinity) != 0L;
+        final boolean negativeB = (b & infinity) != 0L;
+        final long magnitudeA = negativeA ? Bit.twosComplement(a, nBits) : a;
+        final long magnitudeB = negativeB ? Bit.twosComplement(b, nBits) : b;
+        int scale = PositDomain.getScale(magnitudeA, nBits, maxEs) + PositDomain.getScale(magnitudeB, nBits, maxEs);
+        final long significandA = PositDomain.getSignificand(magnitudeA, nBits, maxEs);
+        final long significandB = PositDomain.getSignificand(magnitudeB, nBits, maxEs);
+
+        // The 128 bit product of two 1.f in [1,4) has 124 fraction bits.
+        final long hi = Bit.unsignedMultiplyHigh(significandA, significandB);
+        final long lo = significandA * significandB;
+        final long significand;
+        final boolean sticky;
+        if ((hi >>> 61) != 0L) {
+            significand = (hi << 1) | (lo >>> 63);
+            sticky = lo << 1 != 0L;
+            scale++;
+        } else {
+            significand = (hi << 2) | (lo >>> 62);
+            sticky = lo << 2 != 0L;
+        }
+        return PositDomain.encode(nBits, maxEs, negativeA != negativeB, scale, significand, sticky, roundingMode);
+    }
+
+    /** Returns x / y, rounded once. Division by zero returns infinity. */
+    public long divide(long x, long y) {
+        if (PositMetrics.ENABLED) {
+            PositMetrics.count(PositMetrics.Counter.OPERATION);
+        }
+        final long a = x & mask;
+        final long b = y & mask;
+        if (a == infinity || b == infinity || b == 0L) {
+            if (PositMetrics.ENABLED && a != infinity && b == 0L) {
+                PositMetrics.count(PositMetrics.Counter.NAR);
+            }
+            return infinity;
+        }
+        if (a == 0L) {
+            return 0L;
+        }
+        final boolean negativeA = (a & infinity) != 0L;
+        final boolean negativeB = (b & infinity) != 0L;
+        final long magnitudeA = negativeA ? Bit.twosComplement(a, nBits) : a;
+        final long magnitudeB = negativeB ? Bit.twosComplement(b, nBits) : b;
+        int scale = PositDomain.getScale(magnitudeA, nBits, maxEs) - PositDomain.getScale(magnitudeB, nBits, maxEs);
+        long remainder = PositDomain.getSignificand(magnitudeA, nBits, maxEs);
+        final long divisor = PositDomain.getSignificand(magnitudeB, nBits, maxEs);
+        if (remainder < divisor) {
+            remainder <<= 1;
+            scale--;
+        }
+        // Restoring division, the remainder stays below 2^64 unsigned.
+        long quotient = 0L;
+        for (int bit = 62; bit >= 0; bit--) {
+            if (Long.compareUnsigned(remainder, divisor) >= 0) {
+                remainder -= divisor;
+                quotient |= 1L << bit;
+            }
+            remainder <<= 1;
+        }
+        return PositDomain.encode(nBits, maxEs, negativeA != negativeB, scale, quotient, remainder != 0L,
+                roundingMode);
+    }
+
+    /**
+     * Returns x * y + z, rounded once.
+     * <p>
+     * The product is kept exact in an extended fraction rather than a quire,
+     * so the result is that of the exact x * y + z rounded.
+     */
+    public long fma(long x, long y, long z) {
+        if (PositMetrics.ENABLED) {
+            PositMetrics.count(PositMetrics.Counter.OPERATION);
+        }
+        final long a = x & mask;
+        final long b = y & mask;
+        final long c = z & mask;
+        if (a == infinity || b == infinity || c == infinity) {
+            return infinity;
+        }
+        if (a == 0L || b == 0L) {
+            return c;
+        }
+        final boolean negativeA = (a & infinity) != 0L;
+        final boolean negativeB = (b & infinity) != 0L;
+        final long magnitudeA = negativeA ? Bit.twosComplement(a, nBits) : a;
+        final long magnitudeB = negativeB ? Bit.twosComplement(b, nBits) : b;
+        final long significandA = PositDomain.getSignificand(magnitudeA, nBits, maxEs);
+        final long significandB = PositDomain.getSignificand(magnitudeB, nBits, maxEs);
+        final boolean negativeP = negativeA != negativeB;
+        int scaleP = PositDomain.getScale(magnitudeA, nBits, maxEs) + PositDomain.getScale(magnitudeB, nBits, maxEs);
+
+        // Exact product, normalized to the top at bit 126 of p2:p1.
+        long p2 = Bit.unsignedMultiplyHigh(significandA, significandB);
+        long p1 = significandA * significandB;
+        if ((p2 >>> 61) != 0L) {
+            p2 = (p2 << 1) | (p1 >>> 63);
+            p1 <<= 1;
+            scaleP++;
+        } else {
+            p2 = (p2 << 2) | (p1 >>> 62);
+            p1 <<= 2;
+        }
+        if (c == 0L) {
+            return PositDomain.encode(nBits, maxEs, negativeP, scaleP, p2, p1 != 0L, roundingMode);
+        }
+        final boolean negativeC = (c & infinity) != 0L;
+        final long magnitudeC = negativeC ? Bit.twosComplement(c, nBits) : c;
+        final int scaleC = PositDomain.getScale(magnitudeC, nBits, maxEs);
+        final long significandC = PositDomain.getSignificand(magnitudeC, nBits, maxEs);
+
+        // Extended fractions of three limbs w2:w1:w0, both topped at bit 190. Keep the larger in big.
+        final boolean productLarger = scaleP != scaleC ? scaleP > scaleC
+                : Long.compareUnsigned(p2, significandC) != 0 ? Long.compareUnsigned(p2, significandC) > 0 : p1 != 0L;
+        if (negativeP != negativeC && scaleP == scaleC && p2 == significandC && p1 == 0L) {
+            return 0L;
+        }
+        final boolean negative = productLarger ? negativeP : negativeC;
+        int scale = productLarger ? scaleP : scaleC;
+        final long big2 = productLarger ? p2 : significandC;
+        final long big1 = productLarger ? p1 : 0L;
+        long s2 = productLarger ? significandC : p2;
+        long s1 = productLarger ? 0L : p1;
+        long s0 = 0L;
+        int shift = Math.min(192, productLarger ? scaleP - scaleC : scaleC - scaleP);
+
+        // Align the smaller, exact for shifts to 64 since its low limb starts empty.
+        boolean sticky = false;
+        while (shift >= 64) {
+            sticky |= s0 != 0L;
+            s0 = s1;
+            s1 = s2;
+            s2 = 0L;
+            shift -= 64;
+        }
+        if (shift > 0) {
+            sticky |= s0 << (64 - shift) != 0L;
+            s0 = (s0 >>> shift) | (s1 << (64 - shift));
+            s1 = (s1 >>> shift) | (s2 << (64 - shift));
+            s2 >>>= shift;
+        }
+
+        long w2;
+        long w1;
+        long w0;
+        if (negativeP == negativeC) {
+            w0 = s0;
+            w1 = big1 + s1;
+            w2 = big2 + s2 + (Long.compareUnsigned(w1, big1) < 0 ? 1L : 0L);
+            if (w2 < 0L) {
+                sticky |= (w0 & 1L) != 0L;
+                w0 = (w0 >>> 1) | (w1 << 63);
+                w1 = (w1 >>> 1) | (w2 << 63);
+                w2 >>>= 1;
+                scale++;
+            }
+        } else {
+            if (sticky) {
+                // Lost bits are less than one unit of s0, subtract a whole unit and keep sticky.
+                s0++;
+                if (s0 == 0L && ++s1 == 0L) {
+                    s2++;
+                }
+            }
+            w0 = -s0;
+            final long borrow0 = s0 != 0L ? 1L : 0L;
+            w1 = big1 - s1 - borrow0;
+            final long borrow1 = Long.compareUnsigned(big1, s1) < 0 || (big1 == s1 && borrow0 != 0L) ? 1L : 0L;
+            w2 = big2 - s2 - borrow1;
+            if (w2 == 0L && w1 == 0L && w0 == 0L) {
+                return 0L;
+            }
+            // Normalize the top to bit 62 of w2.
+            int normalize = (w2 != 0L ? Long.numberOfLeadingZeros(w2)
+                    : w1 != 0L ? 64 + Long.numberOfLeadingZeros(w1) : 128 + Long.numberOfLeadingZeros(w0)) - 1;
+            scale -= normalize;
+            while (normalize >= 64) {
+                w2 = w1;
+                w1 = w0;
+                w0 = 0L;
+                normalize -= 64;
+            }
+            if (normalize > 0) {
+                w2 = (w2 << normalize) | (w1 >>> (64 - normalize));
+                w1 = (w1 << normalize) | (w0 >>> (64 - normalize));
+                w0 <<= normalize;
+            }
+        }
+        return PositDomain.encode(nBits, maxEs, negative, scale, w2, sticky || w1 != 0L || w0 != 0L, roundingMode);
+    }
+
+    /**
+     * Sets result[i] = a[i] * b[i] + c[i] for all i, each rounded once.
+     * The result may be one of the inputs.
+     *
+     * @throws IllegalArgumentException
+     *             if the array lengths differ
+     */
+    public void mulAdd(long[] a, long[] b, long[] c, long[] result) {
+        if (a.length != b.length || a.length != c.length || a.length != result.length) {
+            throw new IllegalArgumentException("array lengths differ " + a.length + "," + b.length + ","
+                    + c.length + "," + result.length);
+        }
+        for (int i = 0; i < a.length; i++) {
+            result[i] = fma(a[i], b[i], c[i]);
+        }
+    }
+
+    /**
+     * Sets y[i] = alpha * x[i] + y[i] for all i, each rounded once.
+     *
+     * @throws IllegalArgumentException
+     *             if the array lengths differ
+     */
+    public void axpy(long alpha, long[] x, long[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("array lengths differ " + x.length + "," + y.length);
+        }
+        for (int i = 0; i < x.length; i++) {
+            y[i] = fma(alpha, x[i], y[i]);
+        }
+    }
+
+    // Object methods
+    @Override
+    public int hashCode() {
+        return 31 * env.hashCode() + roundingMode.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (other instanceof PositContext) {
+            final PositContext context = (PositContext) other;
+            return env.equals(context.env) && roundingMode == context.roundingMode;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "PositContext: bits=" + nBits + ", maxEs=" + maxEs + ", roundingMode=" + roundingMode;
+    }
+}
@@ -1,6 +1,8 @@
 package javax.lang.posit;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.RoundingMode;
 
 
 /**
@@ -365,8 +367,8 @@ public final class PositDomain {
             return 1.0;
         }
         final double fnumerator = Long.parseUnsignedLong(fraction, 2);
-        final double fdenominator = Bit.pow(2, fraction.length());
-        final double fmultiplier = 1.0 + fnumerator / fdenominator;
+        // Divide by 2^length exactly with a power of 2 scale.
+        final double fmultiplier = 1.0 + Math.scalb(fnumerator, -fraction.length());
         // final double fmultiplier = fnumerator / fdenominator;
         return fmultiplier;
     }
@@ -486,4 +488,366 @@ public final class PositDomain {
         sb.append(", val="+ p.doubleValue() + ",1/val=" + 1.0 / p.doubleValue());
         return sb.toString();
     }
+
+    // Primitive patterns
+    // A pattern holds the posit bits right-aligned in a long, for example
+    // "0 0001 101 11011101" is 0b0000110111011101. Bits above nBits are ignored.
+
+    /**
+     * Returns the posit pattern nearest to the given double.
+     * <p>
+     * Rounds to nearest, ties to the even pattern. Posits never round to zero or
+     * to infinity: magnitudes beyond maxPos return maxPos, below minPos return
+     * minPos. NaN and infinities return the infinity pattern, "1" followed by zeros.
+     *
+     * @param value the double to convert
+     * @param nBits number of bits in the posit, 2 to 64
+     * @param maxEs maximum exponent size
+     * @return the pattern right-aligned in a long
+     */
+    public static long toPattern(double value, int nBits, int maxEs) {
+        return toPattern(value, nBits, maxEs, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Returns the posit pattern of the given double rounded with the given mode.
+     * Like {@link #toPattern(double, int, int)}, results saturate at minPos and maxPos.
+     *
+     * @throws ArithmeticException
+     *             if the mode is UNNECESSARY and the value is not a posit
+     */
+    public static long toPattern(double value, int nBits, int maxEs, RoundingMode mode) {
+        if (PositMetrics.ENABLED) {
+            PositMetrics.count(PositMetrics.Counter.CONVERSION);
+        }
+        if (value == 0.0) {
+            return 0L;
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return 1L << (nBits - 1);
+        }
+        final long bits = Double.doubleToRawLongBits(value);
+        final long mantissa = bits & 0x000FFFFFFFFFFFFFL;
+        final int biased = (int) ((bits >>> 52) & 0x7FF);
+        int scale;
+        long significand;
+        if (biased == 0) {
+            // Subnormal, normalize the leading bit to the hidden bit position.
+            final int lz = Long.numberOfLeadingZeros(mantissa);
+            scale = -1011 - lz;
+            significand = mantissa << (lz - 1);
+        } else {
+            scale = biased - 1023;
+            significand = HIDDEN_BIT | (mantissa << 10);
+        }
+        return encode(nBits, maxEs, bits < 0, scale, significand, false, mode);
+    }
+
+    /**
+     * Returns the double nearest to the value of the given pattern.
+     * <p>
+     * This is the Gustafson value of the posit, zero for the zero pattern and
+     * {@link Double#POSITIVE_INFINITY} for the infinity pattern.
+     *
+     * @param pattern posit bits right-aligned in a long
+     * @param nBits number of bits in the posit, 2 to 64
+     * @param maxEs maximum exponent size
+     * @return nearest double value
+     */
+    public static double toDouble(long pattern, int nBits, int maxEs) {
+        if (PositMetrics.ENABLED) {
+            PositMetrics.count(PositMetrics.Counter.CONVERSION);
+        }
+        final long mask = getPatternMask(nBits);
+        final long p = pattern & mask;
+        if (p == 0L) {
+            return 0.0;
+        }
+        final long signBit = 1L << (nBits - 1);
+        if (p == signBit) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final long magnitude = (p & signBit) == 0L ? p : Bit.twosComplement(p, nBits);
+        final double value = Math.scalb((double) getSignificand(magnitude, nBits, maxEs),
+                getScale(magnitude, nBits, maxEs) - 62);
+        return p == magnitude ? value : -value;
+    }
+
+    /**
+     * Returns the exact value of the given pattern.
+     * <p>
+     * The significand is scaled by a power of 2 cached in the environment, there
+     * is no rounding.
+     *
+     * @param pattern posit bits right-aligned in a long
+     * @param env environment of up to 64 bits
+     * @return the exact value
+     * @throws ArithmeticException
+     *             if the pattern is infinity
+     */
+    public static BigDecimal toBigDecimal(long pattern, PositEnv env) {
+        final int nBits = env.getBitSize();
+        final int maxEs = env.getMaxExponentSize();
+        final long p = pattern & Bit.mask(nBits);
+        if (p == 0L) {
+            return BigDecimal.ZERO;
+        }
+        final long signBit = 1L << (nBits - 1);
+        if (p == signBit) {
+            throw new ArithmeticException("infinite pattern has no BigDecimal value");
+        }
+        final long magnitude = (p & signBit) == 0L ? p : Bit.twosComplement(p, nBits);
+        final long significand = getSignificand(magnitude, nBits, maxEs);
+        final int zeros = Long.numberOfTrailingZeros(significand);
+        final BigDecimal value = BigDecimal.valueOf(significand >>> zeros)
+                .multiply(env.getPowerOfTwo(getScale(magnitude, nBits, maxEs) - 62 + zeros));
+        return p == magnitude ? value : value.negate();
+    }
+
+    /**
+     * Returns the value of the given pattern truncated toward zero to a long.
+     * <p>
+     * Like a double, magnitudes beyond the long range saturate at
+     * {@link Long#MAX_VALUE} or {@link Long#MIN_VALUE}. Infinity is treated as
+     * {@link Double#POSITIVE_INFINITY}.
+     *
+     * @param pattern posit bits right-aligned in a long
+     * @param nBits number of bits in the posit, 2 to 64
+     * @param maxEs maximum exponent size
+     * @return truncated long value
+     */
+    public static long toLong(long pattern, int nBits, int maxEs) {
+        final long p = pattern & Bit.mask(nBits);
+        if (p == 0L) {
+            return 0L;
+        }
+        final long signBit = 1L << (nBits - 1);
+        if (p == signBit) {
+            return Long.MAX_VALUE;
+        }
+        final long magnitude = (p & signBit) == 0L ? p : Bit.twosComplement(p, nBits);
+        return toLong(p != magnitude, getScale(magnitude, nBits, maxEs), getSignificand(magnitude, nBits, maxEs));
+    }
+
+    /**
+     * Returns the value of the given pattern rounded once to the nearest float.
+     *
+     * @param pattern posit bits right-aligned in a long
+     * @param nBits number of bits in the posit, 2 to 64
+     * @param maxEs maximum exponent size
+     * @return nearest float value, {@link Float#POSITIVE_INFINITY} for infinity
+     */
+    public static float toFloat(long pattern, int nBits, int maxEs) {
+        final long p = pattern & Bit.mask(nBits);
+        if (p == 0L) {
+            return 0.0f;
+        }
+        final long signBit = 1L << (nBits - 1);
+        if (p == signBit) {
+            return Float.POSITIVE_INFINITY;
+        }
+        final long magnitude = (p & signBit) == 0L ? p : Bit.twosComplement(p, nBits);
+        return toFloat(p != magnitude, getScale(magnitude, nBits, maxEs), getSignificand(magnitude, nBits, maxEs));
+    }
+
+    /**
+     * Truncates sign * significand * 2^(scale - 62) toward zero, saturating at the
+     * long range.
+     */
+    static long toLong(boolean negative, int scale, long significand) {
+        if (scale < 0) {
+            return 0L;
+        }
+        if (scale > 62) {
+            return negative ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        final long magnitude = significand >>> (62 - scale);
+        return negative ? -magnitude : magnitude;
+    }
+
+    /**
+     * Rounds sign * significand * 2^(scale - 62) once to the nearest float, ties
+     * to even. Bits lost before the call should be ORed into bit 0 as a sticky bit.
+     */
+    static float toFloat(boolean negative, int scale, long significand) {
+        float value;
+        if (scale >= -126) {
+            // The long to float conversion rounds once, the power of 2 scale is exact.
+            value = Math.scalb((float) significand, scale - 62);
+        } else {
+            // Subnormal, round to a multiple of 2^-149 before scaling.
+            final int shift = 62 - (scale + 149);
+            long units = 0L;
+            if (shift < 64) {
+                units = significand >>> shift;
+                final long rem = significand << (64 - shift);
+                if (rem < 0L && ((rem << 1) != 0L || (units & 1L) != 0L)) {
+                    units++;
+                }
+            }
+            value = Math.scalb((float) units, -149);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the pattern of another environment nearest to the given pattern.
+     * <p>
+     * The regime, exponent and fraction are re-encoded with integer operations,
+     * rounding to nearest, ties to even, saturating at minPos and maxPos. Zero and
+     * infinity map to zero and infinity. Conversions to at least as many bits and
+     * at least the same exponent size are exact.
+     *
+     * @param pattern posit bits right-aligned in a long
+     * @param nBits number of bits of the pattern, 2 to 64
+     * @param maxEs maximum exponent size of the pattern
+     * @param targetBits number of bits of the result, 2 to 64
+     * @param targetEs maximum exponent size of the result
+     * @return the converted pattern
+     */
+    public static long convert(long pattern, int nBits, int maxEs, int targetBits, int targetEs) {
+        final long p = pattern & Bit.mask(nBits);
+        if (p == 0L) {
+            return 0L;
+        }
+        final long signBit = 1L << (nBits - 1);
+        if (p == signBit) {
+            return 1L << (targetBits - 1);
+        }
+        final long magnitude = (p & signBit) == 0L ? p : Bit.twosComplement(p, nBits);
+        return encode(targetBits, targetEs, p != magnitude, getScale(magnitude, nBits, maxEs),
+                getSignificand(magnitude, nBits, maxEs), false);
+    }
+
+    /** Returns a mask of the low nBits of a long. */
+    public static long getPatternMask(int nBits) {
+        return Bit.mask(nBits);
+    }
+
+    /** The hidden bit of a significand, 1.0 in a fixed point long with 62 fraction bits. */
+    static final long HIDDEN_BIT = 1L << 62;
+
+    /**
+     * Returns the power of 2 scale of a positive pattern, k * 2^maxEs + e.
+     * <p>
+     * The pattern must be positive, not zero, not infinity.
+     */
+    static int getScale(long magnitude, int nBits, int maxEs) {
+        final int bodyBits = nBits - 1;
+        final int run = Bit.leadingRun(magnitude, bodyBits);
+        final int k = Bit.bits(magnitude, bodyBits - 1, 1) != 0L ? run - 1 : -run;
+        // Bits after the regime and its terminator.
+        final int remaining = Math.max(0, bodyBits - run - 1);
+        final int e = remaining >= maxEs ? (int) Bit.bits(magnitude, remaining - maxEs, maxEs)
+                : (int) Bit.bits(magnitude, 0, remaining) << (maxEs - remaining); // left adjust a truncated exponent
+        return (k << maxEs) + e;
+    }
+
+    /**
+     * Returns the significand 1.f of a positive pattern as a fixed point long with
+     * the hidden bit at bit 62 and the fraction bits below it.
+     * <p>
+     * The pattern must be positive, not zero, not infinity.
+     */
+    static long getSignificand(long magnitude, int nBits, int maxEs) {
+        final int bodyBits = nBits - 1;
+        final int run = Bit.leadingRun(magnitude, bodyBits);
+        final int fs = Math.max(0, bodyBits - run - 1 - maxEs);
+        return HIDDEN_BIT | (Bit.bits(magnitude, 0, fs) << (62 - fs));
+    }
+
+    /**
+     * Encodes sign * significand * 2^(scale - 62) to the nearest pattern.
+     * <p>
+     * The significand has the hidden bit at bit 62. Sticky indicates nonzero bits
+     * were already lost below the significand. Rounds to nearest, ties to even,
+     * saturating at minPos and maxPos.
+     */
+    static long encode(int nBits, int maxEs, boolean negative, int scale, long significand, boolean sticky) {
+        return encode(nBits, maxEs, negative, scale, significand, sticky, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Encodes sign * significand * 2^(scale - 62) to a pattern with the given
+     * rounding mode. Whatever the mode, results saturate at minPos and maxPos.
+     *
+     * @throws ArithmeticException
+     *             if the mode is UNNECESSARY and the value is not exact
+     */
+    static long encode(int nBits, int maxEs, boolean negative, int scale, long significand, boolean sticky,
+            RoundingMode mode) {
+        final int bodyBits = nBits - 1;
+        final long mask = Bit.mask(nBits);
+        final int k = scale >> maxEs;
+        final long e = scale - ((long) k << maxEs);
+        final int regimeBits = k >= 0 ? k + 2 : 1 - k;
+        long body;
+        if (regimeBits > bodyBits) {
+            // Beyond maxPos or below minPos, saturate.
+            if (PositMetrics.ENABLED) {
+                PositMetrics.count(PositMetrics.Counter.SATURATION);
+            }
+            body = k >= 0 ? mask >>> 1 : 1L;
+        } else {
+            // Lay out regime, exponent, fraction from the top of a 128 bit hi:lo.
+            long hi = k >= 0 ? -1L << (64 - (k + 1)) : 1L << (64 - regimeBits);
+            long lo = 0L;
+            int offset = regimeBits;
+            if (maxEs > 0) {
+                final long field = e << (64 - maxEs);
+                hi |= field >>> offset;
+                lo |= field << (64 - offset);
+                offset += maxEs;
+            }
+            final long fraction = significand << 2;
+            if (offset < 64) {
+                hi |= fraction >>> offset;
+                lo |= fraction << (64 - offset);
+            } else {
+                lo |= fraction >>> (offset - 64);
+                sticky |= offset > 64 && fraction << (128 - offset) != 0L;
+            }
+            body = hi >>> (64 - bodyBits);
+            final long rem = (hi << bodyBits) | (lo >>> (64 - bodyBits));
+            sticky |= lo << bodyBits != 0L;
+            if (PositMetrics.ENABLED && (rem != 0L || sticky)) {
+                PositMetrics.count(PositMetrics.Counter.ROUNDING);
+            }
+            if (isRoundUp(mode, negative, body, rem, sticky)) {
+                body++;
+            }
+        }
+        return negative ? Bit.twosComplement(body, nBits) : body;
+    }
+
+    /**
+     * Decides whether a truncated magnitude rounds up by one unit in the last place.
+     * The remainder holds the dropped bits left-aligned, the first is the guard bit.
+     */
+    static boolean isRoundUp(RoundingMode mode, boolean negative, long body, long rem, boolean sticky) {
+        final boolean inexact = rem != 0L || sticky;
+        switch (mode) {
+        case HALF_EVEN:
+            return rem < 0L && ((rem << 1) != 0L || sticky || (body & 1L) != 0L);
+        case HALF_UP:
+            return rem < 0L;
+        case HALF_DOWN:
+            return rem < 0L && ((rem << 1) != 0L || sticky);
+        case UP:
+            return inexact;
+        case DOWN:
+            return false;
+        case CEILING:
+            return inexact && !negative;
+        case FLOOR:
+            return inexact && negative;
+        case UNNECESSARY:
+            if (inexact) {
+                throw new ArithmeticException("Rounding necessary");
+            }
+            return false;
+        default:
+            throw new IllegalArgumentException("rounding mode " + mode);
+        }
+    }
 }
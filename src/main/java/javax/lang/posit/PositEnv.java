@@ -1,8 +1,13 @@
 package javax.lang.posit;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Posit elements that are immutable or generally not changed.
@@ -24,7 +29,7 @@ import java.util.concurrent.ConcurrentMap;
  * <li>useed = 2^2^es
  * <li>nPat = number of patterns = 2^nbits
  * <li>minPos, maxPos = useed^(-nbits+2), useed^(nbits-2)
- * <li>qSize = quireSize = 2^(Log(2,(nbits-2)*2^(es+2)+5)
+ * <li>qSize = quireSize = 2^ceil(Log(2,(nbits-2)*2^(es+2)+32))
  * <li>qExtra = quireExtra = quireSize - (nbits-2) * 2^(es+2) 
  * </ul>
  * <p>
@@ -38,6 +43,8 @@ import java.util.concurrent.ConcurrentMap;
 public final class PositEnv implements Comparable<PositEnv> {
     /** This is a registry of immutable classes that all instances can share. */
     private static ConcurrentMap<PositEnv.KeyPair,PositEnv> REGISTRY = new ConcurrentHashMap<>();
+    /** Environments of values read back in a format not in the REGISTRY, one per format. */
+    private static final ConcurrentMap<PositEnv.KeyPair,PositEnv> UNREGISTERED = new ConcurrentHashMap<>();
 
     private byte nBits;
     private byte maxEs;
@@ -52,6 +59,18 @@ public final class PositEnv implements Comparable<PositEnv> {
     private long qSize;
     private long qExtra;
 
+    /** Largest source bit size converted through a table, 2^16 patterns. */
+    public static final int CONVERT_TABLE_BITS = 16;
+
+    /** Largest power of 2 cached by an environment. */
+    private static final long MAX_CACHED_SCALE = 1L << 14;
+    /** Exact 2^i for minScale &lt;= i &lt;= -minScale, allocated and filled on first use. */
+    private volatile AtomicReferenceArray<BigDecimal> powersOfTwo;
+    private final int minScale;
+
+    /** The shared context of this environment, constructed on first use. */
+    private volatile PositContext context;
+
     // Constructors
     @SuppressWarnings("unused")
     private PositEnv() {
@@ -69,17 +88,64 @@ public final class PositEnv implements Comparable<PositEnv> {
         PositEnv.KeyPair key = new PositEnv.KeyPair(nBits,maxEs);
         PositEnv oldValue = REGISTRY.get(key);
         if (null==oldValue) {
-            PositEnv newValue = new PositEnv(nBits,maxEs);
+            if (PositMetrics.ENABLED) {
+                PositMetrics.count(PositMetrics.Counter.REGISTRY_MISS);
+            }
+            PositEnv newValue = PositMetrics.EVENTS ? PositMetrics.RECORDER.constructEnv(nBits, maxEs) : new PositEnv(nBits,maxEs);
             oldValue = REGISTRY.putIfAbsent(key, newValue);
             return null == oldValue ? newValue : oldValue;
         }
         return oldValue;
     }
+
+    /** Returns the PositEnv for this {bits,maxExponentSize} in the REGISTRY, or null.
+     * Unlike getPositEnv, this never adds to the REGISTRY.
+     * @param nBits
+     * @param maxEs
+     * @return
+     */
+    static PositEnv findPositEnv(byte nBits, byte maxEs) {
+        return REGISTRY.get(new PositEnv.KeyPair(nBits,maxEs));
+    }
+
+    /** Returns the PositEnv for this {bits,maxExponentSize} in the REGISTRY, or else
+     * one shared environment kept out of the REGISTRY, so that values of a format
+     * read back from streams share one context and its tables.
+     * @param nBits
+     * @param maxEs
+     * @return
+     * @throws IllegalArgumentException
+     *             if the format has no primitive pattern
+     */
+    static PositEnv resolvePositEnv(byte nBits, byte maxEs) {
+        final PositEnv registered = findPositEnv(nBits, maxEs);
+        if (null != registered) {
+            return registered;
+        }
+        return UNREGISTERED.computeIfAbsent(new PositEnv.KeyPair(nBits,maxEs), key -> {
+            // Construct the context first, so a format without a context is not kept.
+            final PositEnv env = new PositEnv(nBits, maxEs);
+            env.getContext();
+            return env;
+        });
+    }
        
     /** Returns PositEnv.REGISTRY.size()     */
     public static int getRegistrySize() {
         return REGISTRY.size();
     }
+
+    /** Returns the registered environments in order. */
+    static List<PositEnv> getRegisteredEnvs() {
+        final List<PositEnv> envs = new ArrayList<>(REGISTRY.values());
+        Collections.sort(envs);
+        return envs;
+    }
+
+    /** Returns the context of this environment if it is constructed, or null. */
+    PositContext getContextIfConstructed() {
+        return context;
+    }
        
     /**
      * Instantiates a new Posit from the bit and max exponent size.
@@ -101,12 +167,16 @@ public final class PositEnv implements Comparable<PositEnv> {
         this.containerBits = getContainerSize( nBits ); // find nearest platform size
         this.containerClass = getContainerClass( nBits ); // find nearest platform object
         
-        this.useed = getUseed( nBits ); 
+        this.useed = getUseed( maxEs ); 
         this.nPat = getNumPat(nBits); 
         this.minPos = getMinPos(useed,nBits);
         this.maxPos = getMaxPos(useed,nBits);
         this.qSize = getQuireSize(nBits, maxEs);
         this.qExtra = getQuireExtra(qSize, nBits, maxEs);
+
+        // Every posit is a multiple of minPos = 2^minScale and at most maxPos = 2^-minScale.
+        final long maxScale = (long) Math.max(0, nBits - 2) << Math.min(maxEs, 32);
+        this.minScale = (int) -Math.min(maxScale, MAX_CACHED_SCALE);
     }
 
     // Posit domain interface
@@ -140,6 +210,117 @@ public final class PositEnv implements Comparable<PositEnv> {
     public final long getQuireExtra() {
         return qExtra;
     }
+
+    /**
+     * Returns the exact value 2^power.
+     * <p>
+     * Powers from the scale of minPos to the scale of maxPos are cached in this
+     * environment, which covers every power needed to convert its posits.
+     *
+     * @param power power of 2
+     * @return 2^power as an exact BigDecimal
+     */
+    public final BigDecimal getPowerOfTwo(int power) {
+        final int index = power - minScale;
+        if (index < 0 || index > -2 * minScale) {
+            return PositEnv.powerOfTwo(power);
+        }
+        AtomicReferenceArray<BigDecimal> powers = powersOfTwo;
+        if (null == powers) {
+            synchronized (this) {
+                powers = powersOfTwo;
+                if (null == powers) {
+                    powers = new AtomicReferenceArray<>(1 - 2 * minScale);
+                    powersOfTwo = powers;
+                }
+            }
+        }
+        BigDecimal value = powers.get(index);
+        if (null == value) {
+            value = PositEnv.powerOfTwo(power);
+            powers.lazySet(index, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the shared context of this environment, rounding to nearest, ties to even.
+     *
+     * @return the context, constructed on first use
+     * @throws IllegalArgumentException
+     *             if this environment has no primitive pattern
+     * @see PositContext
+     */
+    public final PositContext getContext() {
+        PositContext value = context;
+        if (null == value) {
+            synchronized (this) {
+                value = context;
+                if (null == value) {
+                    value = new PositContext(this);
+                    context = value;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the pattern of the target environment nearest to the given pattern
+     * of this environment.
+     *
+     * @see PositDomain#convert(long, int, int, int, int)
+     */
+    public long convert(long pattern, PositEnv target) {
+        return PositDomain.convert(pattern, nBits, maxEs, target.nBits, target.maxEs);
+    }
+
+    /**
+     * Converts an array of patterns of this environment to the target environment.
+     * <p>
+     * Sources of up to {@link #CONVERT_TABLE_BITS} bits convert through a table of
+     * every source pattern, built on first use and cached in the context of this
+     * environment.
+     *
+     * @param source pattern array of this environment, see {@link PositArrays}
+     * @param target environment of the destination
+     * @param destination pattern array of the target, at least as long as the source
+     * @throws IllegalArgumentException
+     *             if the destination is shorter than the source
+     */
+    public void convert(Object source, PositEnv target, Object destination) {
+        final int length = PositArrays.getLength(source);
+        if (PositArrays.getLength(destination) < length) {
+            throw new IllegalArgumentException("destination shorter than source length " + length);
+        }
+        if (nBits <= CONVERT_TABLE_BITS) {
+            final long[] table = getContext().getTable("convert " + target.nBits + "," + target.maxEs,
+                    () -> buildConvertTable(target));
+            for (int i = 0; i < length; i++) {
+                PositArrays.setPattern(destination, i, table[(int) PositArrays.getPattern(this, source, i)]);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                PositArrays.setPattern(destination, i, convert(PositArrays.getPattern(this, source, i), target));
+            }
+        }
+    }
+
+    private long[] buildConvertTable(PositEnv target) {
+        final long[] table = new long[1 << nBits];
+        for (int pattern = 0; pattern < table.length; pattern++) {
+            table[pattern] = convert(pattern, target);
+        }
+        return table;
+    }
+
+    /** Calculates 2^power exactly, 2^-n is 5^n / 10^n. */
+    public static BigDecimal powerOfTwo(int power) {
+        if (power >= 0) {
+            return new BigDecimal(BigInteger.ONE.shiftLeft(power));
+        }
+        return new BigDecimal(BigInteger.valueOf(5L).pow(-power), -power);
+    }
         
     // Object methods
     /**
@@ -302,7 +483,9 @@ public final class PositEnv implements Comparable<PositEnv> {
     }
     
     /**
-     * Get the quire size in bits, quireSize = 2^(Log(2,(nbits-2)*2^(es+2)+5)
+     * Get the quire size in bits, the power of 2 holding (nbits-2)*2^(es+2) bits
+     * for the range of products minPos^2 to maxPos^2, plus a sign bit and 31 carry
+     * guard bits as in the posit standard.
      * <p>
      * A lookup for common posit nbits,es is given on page 83 of "Posit Arithmetic".
      * 8,0=>64,38,
@@ -313,28 +496,12 @@ public final class PositEnv implements Comparable<PositEnv> {
      * 256,5=>32k,254
      */
     public static long getQuireSize(byte nBits, byte maxEs) {
-        // long power = Bit.pow(2, maxEs+2);
-        // long range = (nBits -2) * (power +5);
-        // double log2 = Math.log(range) / Math.log( 2.0 ); 
-        // long quireBits = 
-        // return quireBits
-        // Cheat for now
-        if (nBits <= 8) {
-            return 64;
-        } else if (nBits <= 16) {
-            return 256;
-        } else if (nBits <= 32) {
-            return 512;
-        } else if (nBits <= 64) {
-            return 2048;
-        } else if (nBits <= 128) {
-            return 8192;
-        } else if (nBits <= 256) {
-            return 32768;
-        } else {
-            throw new IllegalArgumentException( "nBits=" + nBits + "is too large for this implementation");
+        if (maxEs > 48) {
+            throw new IllegalArgumentException( "maxEs=" + maxEs + " quire is too large for this implementation");
         }
-        
+        final long range = (long) Math.max(0, nBits - 2) << (maxEs + 2);
+        final long bits = range + 32;
+        return Math.max(64L, Long.highestOneBit(bits - 1) << 1);
     }
     
     /**
@@ -407,4 +574,4 @@ public final class PositEnv implements Comparable<PositEnv> {
             return this.nBits - other.nBits;
         }
     } // KeyPair
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+package javax.lang.posit;
+
+/**
+ * Conversions between posit patterns and the 16 bit floating point formats
+ * IEEE half (float16) and bfloat16, stored as the bits of a short.
+ * <p>
+ * Conversions round once, to nearest, ties to even. Posit rounding saturates at
+ * minPos and maxPos, IEEE rounding overflows to infinity and underflows through
+ * subnormals to zero. Posit infinity converts to NaN, and NaN and the IEEE
+ * infinities convert to posit infinity.
+ * <p>
+ * The bulk forms are table driven for posits of up to 16 bits: each direction
+ * has at most 65,536 source values, so a table of every result is built on first
+ * use and cached in the environment context.
+ *
+ * @see PositEnv#getContext()
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositHalfFloats {
+    /** Largest posit bit size converted through tables. */
+    public static final int TABLE_BITS = 16;
+
+    /** A 16 bit floating point format, a sign bit then exponent and fraction fields. */
+    public enum Format {
+        /** IEEE 754 binary16, 5 exponent bits and 10 fraction bits. */
+        FLOAT16(5, 10),
+        /** The upper half of an IEEE float, 8 exponent bits and 7 fraction bits. */
+        BFLOAT16(8, 7);
+
+        private final int exponentBits;
+        private final int fractionBits;
+        private final int bias;
+
+        Format(int exponentBits, int fractionBits) {
+            this.exponentBits = exponentBits;
+            this.fractionBits = fractionBits;
+            this.bias = (1 << (exponentBits - 1)) - 1;
+        }
+
+        public int getExponentBits() {
+            return exponentBits;
+        }
+        public int getFractionBits() {
+            return fractionBits;
+        }
+
+        /** Returns the bits of a quiet NaN. */
+        public short getNaN() {
+            return (short) ((((1 << exponentBits) - 1) << fractionBits) | (1 << (fractionBits - 1)));
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private PositHalfFloats() {
+        throw new AssertionError();
+    }
+
+    /** Returns the exact double value of the given 16 bit float. */
+    public static double toDouble(short bits, Format format) {
+        final int fractionMask = (1 << format.fractionBits) - 1;
+        final int exponentMask = (1 << format.exponentBits) - 1;
+        final int fraction = bits & fractionMask;
+        final int exponent = (bits >>> format.fractionBits) & exponentMask;
+        double value;
+        if (exponent == exponentMask) {
+            value = fraction == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        } else if (exponent == 0) {
+            value = Math.scalb((double) fraction, 1 - format.bias - format.fractionBits);
+        } else {
+            value = Math.scalb((double) (fraction | (1 << format.fractionBits)), exponent - format.bias - format.fractionBits);
+        }
+        return (bits & 0x8000) != 0 ? -value : value;
+    }
+
+    /** Returns the posit of the environment nearest to the given 16 bit float. */
+    public static long toPattern(short bits, Format format, PositEnv env) {
+        final int nBits = env.getBitSize();
+        final int maxEs = env.getMaxExponentSize();
+        final int fractionMask = (1 << format.fractionBits) - 1;
+        final int exponentMask = (1 << format.exponentBits) - 1;
+        final int fraction = bits & fractionMask;
+        final int exponent = (bits >>> format.fractionBits) & exponentMask;
+        if (exponent == exponentMask) {
+            return 1L << (nBits - 1);
+        }
+        if (exponent == 0 && fraction == 0) {
+            return 0L;
+        }
+        int scale;
+        long significand;
+        if (exponent == 0) {
+            // Subnormal, normalize the leading bit to the hidden bit position.
+            final int zeros = Long.numberOfLeadingZeros(fraction);
+            significand = (long) fraction << (zeros - 1);
+            scale = 1 - format.bias - format.fractionBits + (63 - zeros);
+        } else {
+            significand = PositDomain.HIDDEN_BIT | ((long) fraction << (62 - format.fractionBits));
+            scale = exponent - format.bias;
+        }
+        return PositDomain.encode(nBits, maxEs, (bits & 0x8000) != 0, scale, significand, false);
+    }
+
+    /** Returns the 16 bit float nearest to the given posit of the environment. */
+    public static short fromPattern(long pattern, PositEnv env, Format format) {
+        final int nBits = env.getBitSize();
+        final int maxEs = env.getMaxExponentSize();
+        final long p = pattern & Bit.mask(nBits);
+        if (p == 0L) {
+            return 0;
+        }
+        final long signBit = 1L << (nBits - 1);
+        if (p == signBit) {
+            return format.getNaN();
+        }
+        final long magnitude = (p & signBit) == 0L ? p : Bit.twosComplement(p, nBits);
+        final int bits = encode(format, PositDomain.getScale(magnitude, nBits, maxEs),
+                PositDomain.getSignificand(magnitude, nBits, maxEs));
+        return (short) (p == magnitude ? bits : bits | 0x8000);
+    }
+
+    /**
+     * Encodes significand * 2^(scale - 62) to the unsigned bits of the format,
+     * rounding to nearest even, through subnormals to zero and up to infinity.
+     */
+    static int encode(Format format, int scale, long significand) {
+        final int fractionBits = format.fractionBits;
+        final int minExponent = 1 - format.bias;
+        if (scale > format.bias) {
+            return ((1 << format.exponentBits) - 1) << fractionBits;
+        }
+        // Significand bits kept, with the hidden bit for normals.
+        final int shift = 62 - fractionBits + Math.max(0, minExponent - scale);
+        if (shift > 63) {
+            return 0;
+        }
+        final long kept = significand >>> shift;
+        final long rem = significand << (64 - shift);
+        final boolean roundUp = rem < 0L && ((rem << 1) != 0L || (kept & 1L) != 0L);
+        // A normal adds its hidden bit to the biased exponent, a carry rounds into the exponent.
+        final long biased = scale >= minExponent ? (long) (scale + format.bias - 1) << fractionBits : 0L;
+        return (int) (biased + kept + (roundUp ? 1L : 0L));
+    }
+
+    /**
+     * Converts 16 bit floats to posits of the environment through a table.
+     *
+     * @param source 16 bit floats of the format
+     * @param destination pattern array of the environment, at least as long as the source
+     */
+    public static void toPatterns(short[] source, Format format, PositEnv env, Object destination) {
+        if (PositArrays.getLength(destination) < source.length) {
+            throw new IllegalArgumentException("destination shorter than source length " + source.length);
+        }
+        if (env.getBitSize() <= TABLE_BITS) {
+            final short[] table = env.getContext().getTable(format + " to posit", () -> {
+                final short[] patterns = new short[1 << 16];
+                for (int bits = 0; bits < patterns.length; bits++) {
+                    patterns[bits] = (short) toPattern((short) bits, format, env);
+                }
+                return patterns;
+            });
+            for (int i = 0; i < source.length; i++) {
+                PositArrays.setPattern(destination, i, table[source[i] & 0xFFFF] & 0xFFFF);
+            }
+        } else {
+            for (int i = 0; i < source.length; i++) {
+                PositArrays.setPattern(destination, i, toPattern(source[i], format, env));
+            }
+        }
+    }
+
+    /**
+     * Converts posits of the environment to 16 bit floats, through a table for
+     * posits of up to {@link #TABLE_BITS} bits.
+     *
+     * @param source pattern array of the environment
+     * @param destination 16 bit floats, at least as long as the source
+     */
+    public static void fromPatterns(Object source, PositEnv env, Format format, short[] destination) {
+        final int length = PositArrays.getLength(source);
+        if (destination.length < length) {
+            throw new IllegalArgumentException("destination shorter than source length " + length);
+        }
+        if (env.getBitSize() <= TABLE_BITS) {
+            final short[] table = env.getContext().getTable("posit to " + format, () -> {
+                final short[] floats = new short[1 << env.getBitSize()];
+                for (int pattern = 0; pattern < floats.length; pattern++) {
+                    floats[pattern] = fromPattern(pattern, env, format);
+                }
+                return floats;
+            });
+            for (int i = 0; i < length; i++) {
+                destination[i] = table[(int) PositArrays.getPattern(env, source, i)];
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                destination[i] = fromPattern(PositArrays.getPattern(env, source, i), env, format);
+            }
+        }
+    }
+}
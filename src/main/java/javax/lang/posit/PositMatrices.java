@@ -0,0 +1,183 @@
+package javax.lang.posit;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matrix operations on arrays of posit patterns.
+ * <p>
+ * Matrices are row major primitive pattern arrays of the environment container
+ * type, see {@link PositArrays}. Dot products accumulate exactly in a
+ * {@link Quire} and round once per element.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositMatrices {
+    /** Rows of C per fork-join task. */
+    static final int ROW_BLOCK = 16;
+    /** Columns of C whose quires are held together, sized with the rows for L2. */
+    static final int COLUMN_BLOCK = 64;
+    /** Rows of B visited per pass over a block of C, sized for L1 and L2. */
+    static final int DEPTH_BLOCK = 128;
+
+    @SuppressWarnings("unused")
+    private PositMatrices() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Computes C = A B, with each element of C the exact dot product rounded once.
+     * <p>
+     * Rows of C are computed in parallel in the common fork-join pool. An infinite
+     * term makes its element of C infinite.
+     *
+     * @param context context of the posits and rounding
+     * @param a m by k matrix
+     * @param b k by n matrix
+     * @param c m by n result matrix
+     * @param m rows of A and C
+     * @param n columns of B and C
+     * @param k columns of A and rows of B
+     * @throws IllegalArgumentException
+     *             if an array is too short for its dimensions
+     */
+    public static void multiply(PositContext context, Object a, Object b, Object c, int m, int n, int k) {
+        if (m < 0 || n < 0 || k < 0) {
+            throw new IllegalArgumentException("negative dimension m=" + m + ", n=" + n + ", k=" + k);
+        }
+        if (PositArrays.getLength(a) < (long) m * k || PositArrays.getLength(b) < (long) k * n
+                || PositArrays.getLength(c) < (long) m * n) {
+            throw new IllegalArgumentException("arrays too short for m=" + m + ", n=" + n + ", k=" + k);
+        }
+        // Decode the operands once rather than once per product.
+        final Decoded decodedA = new Decoded(context, a, m * k);
+        final Decoded decodedB = new Decoded(context, b, k * n);
+        final Multiply task = new Multiply(context, decodedA, decodedB, c, n, k, 0, m);
+        if (m <= ROW_BLOCK) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    /** Signed significands and scales of a pattern array. */
+    static final class Decoded {
+        final long[] significands;
+        final int[] scales;
+        boolean hasInfinite;
+
+        Decoded(PositContext context, Object array, int length) {
+            final PositEnv env = context.getPositEnv();
+            final int nBits = context.getBitSize();
+            final int maxEs = context.getMaxExponentSize();
+            significands = new long[length];
+            scales = new int[length];
+            for (int i = 0; i < length; i++) {
+                final long pattern = PositArrays.getPattern(env, array, i);
+                significands[i] = Quire.getSignedSignificand(pattern, nBits, maxEs);
+                if (significands[i] == Quire.INFINITE) {
+                    hasInfinite = true;
+                } else if (significands[i] != 0L) {
+                    scales[i] = Quire.getScale(pattern, nBits, maxEs);
+                }
+            }
+        }
+    }
+
+    /** Computes rows [from, to) of C, splitting into blocks of rows. */
+    @SuppressWarnings("serial")
+    static final class Multiply extends RecursiveAction {
+        private final PositContext context;
+        private final Decoded a;
+        private final Decoded b;
+        private final Object c;
+        private final int n;
+        private final int k;
+        private final int from;
+        private final int to;
+
+        Multiply(PositContext context, Decoded a, Decoded b, Object c, int n, int k, int from, int to) {
+            this.context = context;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.n = n;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROW_BLOCK) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Multiply(context, a, b, c, n, k, from, middle),
+                        new Multiply(context, a, b, c, n, k, middle, to));
+                return;
+            }
+            final int nBits = context.getBitSize();
+            final int maxEs = context.getMaxExponentSize();
+            final RoundingMode mode = context.getRoundingMode();
+            final int lsbScale = Quire.getLsbScale(nBits, maxEs);
+            final int limbs = Quire.getLimbCount(context.getPositEnv());
+            final int rows = to - from;
+            final long[] quires = new long[rows * COLUMN_BLOCK * limbs];
+            final boolean[] infinite = new boolean[rows * COLUMN_BLOCK];
+            final long[] scratch = new long[limbs];
+
+            for (int j0 = 0; j0 < n; j0 += COLUMN_BLOCK) {
+                final int j1 = Math.min(n, j0 + COLUMN_BLOCK);
+                final int width = j1 - j0;
+                Arrays.fill(quires, 0L);
+                Arrays.fill(infinite, false);
+                for (int p0 = 0; p0 < k; p0 += DEPTH_BLOCK) {
+                    final int p1 = Math.min(k, p0 + DEPTH_BLOCK);
+                    for (int i = from; i < to; i++) {
+                        final int element = (i - from) * width;
+                        for (int p = p0; p < p1; p++) {
+                            final long sa = a.significands[i * k + p];
+                            if (sa == 0L) {
+                                // Zero times infinity is still infinite.
+                                if (b.hasInfinite) {
+                                    for (int j = j0; j < j1; j++) {
+                                        infinite[element + j - j0] |= b.significands[p * n + j] == Quire.INFINITE;
+                                    }
+                                }
+                                continue;
+                            }
+                            if (sa == Quire.INFINITE) {
+                                Arrays.fill(infinite, element, element + width, true);
+                                continue;
+                            }
+                            final int scaleA = a.scales[i * k + p];
+                            final int row = p * n;
+                            for (int j = j0; j < j1; j++) {
+                                final long sb = b.significands[row + j];
+                                if (sb == 0L) {
+                                    continue;
+                                }
+                                if (sb == Quire.INFINITE) {
+                                    infinite[element + j - j0] = true;
+                                    continue;
+                                }
+                                Quire.addProduct(quires, (element + j - j0) * limbs, limbs, sa, scaleA, sb,
+                                        b.scales[row + j], lsbScale);
+                            }
+                        }
+                    }
+                }
+                for (int i = from; i < to; i++) {
+                    for (int j = j0; j < j1; j++) {
+                        final int element = (i - from) * width + j - j0;
+                        final long pattern = infinite[element] ? context.getInfinity()
+                                : Quire.toPattern(quires, element * limbs, limbs, scratch, nBits, maxEs, lsbScale,
+                                        mode);
+                        PositArrays.setPattern(c, i * n + j, pattern);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package javax.lang.posit;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional counters of the posit hot paths, exposed as a JMX MBean and as JDK
+ * Flight Recorder events.
+ * <p>
+ * Instrumentation is off unless the JVM starts with -Dposit.metrics=true.
+ * {@link #ENABLED} is a static final flag, so when it is false the JIT drops
+ * the guarded counting from the compiled hot paths. When enabled, counts are
+ * kept in {@link LongAdder}s, which stay cheap under contention, the MBean is
+ * registered as {@value #OBJECT_NAME} along with the {@link PositRegistry}
+ * MBean, and where the JVM has Flight Recorder
+ * a periodic event records the counters and events record table builds and
+ * environment constructions. The events are a Java 11 class loaded by name,
+ * so the library still runs on Java 8, see {@link Recorder}.
+ *
+ * @see PositMetricsMBean
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositMetrics implements PositMetricsMBean {
+    /** Write to the console log. */
+    public static final Logger LOGGER = LoggerFactory.getLogger(PositMetrics.class);
+
+    /** True if -Dposit.metrics=true, read once at class initialization. */
+    public static final boolean ENABLED = Boolean.getBoolean("posit.metrics");
+
+    /** JMX name of the counters. */
+    public static final String OBJECT_NAME = "javax.lang.posit:type=PositMetrics";
+
+    /** The counted events. */
+    public enum Counter {
+        CONVERSION, OPERATION, ROUNDING, SATURATION, NAR, REGISTRY_MISS
+    }
+
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static final PositMetrics INSTANCE = new PositMetrics();
+
+    /** Records the slow paths, implemented by the Java 11 class PositEvents. */
+    interface Recorder {
+        /** Builds a context table, recording the build. */
+        <T> T buildTable(PositContext context, String name, Supplier<T> builder);
+
+        /** Constructs an environment missing from the registry, recording the construction. */
+        PositEnv constructEnv(byte nBits, byte maxEs);
+    }
+
+    /** Name of the Flight Recorder {@link Recorder}, compiled for Java 11. */
+    private static final String EVENTS_CLASS = "javax.lang.posit.PositEvents";
+
+    /** True if Flight Recorder events are registered. */
+    static final boolean EVENTS;
+    /** The Flight Recorder events, or null if {@link #EVENTS} is false. */
+    static final Recorder RECORDER;
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+        Recorder recorder = null;
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                LOGGER.warn("cannot register " + OBJECT_NAME, e);
+            }
+            PositRegistry.register();
+            try {
+                recorder = (Recorder) Class.forName(EVENTS_CLASS).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Java 8 or no jdk.jfr in this JVM, counters only.
+                LOGGER.info("no Flight Recorder, posit events are off");
+            }
+        }
+        RECORDER = recorder;
+        EVENTS = null != recorder;
+    }
+
+    // Constructors
+    private PositMetrics() {
+    }
+
+    /** Returns the counters, also registered with the platform MBean server when enabled. */
+    public static PositMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /** Counts an event. Callers guard the call with {@link #ENABLED}. */
+    static void count(Counter counter) {
+        COUNTERS[counter.ordinal()].increment();
+    }
+
+    /** Returns the count of an event since startup or the last reset. */
+    public static long get(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    // PositMetricsMBean
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+    @Override
+    public long getConversions() {
+        return get(Counter.CONVERSION);
+    }
+    @Override
+    public long getOperations() {
+        return get(Counter.OPERATION);
+    }
+    @Override
+    public long getRoundings() {
+        return get(Counter.ROUNDING);
+    }
+    @Override
+    public long getSaturations() {
+        return get(Counter.SATURATION);
+    }
+    @Override
+    public long getNaRs() {
+        return get(Counter.NAR);
+    }
+    @Override
+    public long getRegistryMisses() {
+        return get(Counter.REGISTRY_MISS);
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PositMetrics:");
+        for (Counter counter : Counter.values()) {
+            sb.append(' ').append(counter).append('=').append(get(counter));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package javax.lang.posit;
+
+/**
+ * Management interface of the posit counters, see {@link PositMetrics}.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public interface PositMetricsMBean {
+    /** Returns true if the counters were enabled at startup with -Dposit.metrics=true. */
+    boolean isEnabled();
+
+    /** Returns the conversions of doubles to and from posits. */
+    long getConversions();
+
+    /** Returns the additions, subtractions, multiplications, divisions and fused multiply adds. */
+    long getOperations();
+
+    /** Returns the inexact results rounded to a posit. */
+    long getRoundings();
+
+    /** Returns the results beyond maxPos or below minPos that saturated. */
+    long getSaturations();
+
+    /** Returns the infinities, "not a real", produced from real operands. */
+    long getNaRs();
+
+    /** Returns the environments constructed because the registry did not hold them. */
+    long getRegistryMisses();
+
+    /** Sets all counters to zero. */
+    void reset();
+}
@@ -0,0 +1,247 @@
+package javax.lang.posit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Enumerates the patterns of an environment as a stream, and writes pattern
+ * tables like those of Posit5bes01.pdf.
+ * <p>
+ * A table row is the binary pattern, the sign, the regime k and exponent of
+ * the magnitude, the binary fraction and the exact value, see
+ * {@link #appendRow}. {@link PositTableWriter} writes the same rows as CSV.
+ * <p>
+ * Patterns are computed from their index in the stream rather than held in
+ * memory, so a spliterator splits by halving its index range and parallel
+ * streams see exactly the patterns, in the same order, as sequential ones.
+ * Random patterns hash the seed and index, so they too do not depend on how
+ * the stream is split.
+ *
+ * @see Demo
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositPatterns {
+    /**
+     * Values with more digits than this either side of the point are written in
+     * scientific notation, to 16 digits.
+     */
+    static final int PLAIN_DIGITS = 40;
+
+    /** Column names of pattern tables, separated by commas. */
+    public static final String COLUMNS = "pattern,sign,k,exponent,fraction,value";
+
+    /** How patterns are chosen from the 2^nBits patterns of an environment. */
+    public enum Order {
+        /** Patterns 0, 1, 2 and so on. */
+        SEQUENTIAL,
+        /** Patterns evenly spread over all patterns, 0, stride, 2 * stride and so on. */
+        STRIDED,
+        /** Uniformly random patterns, with repeats. */
+        RANDOM
+    }
+
+    @SuppressWarnings("unused")
+    private PositPatterns() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns a spliterator over count patterns of the environment.
+     * Sequential and strided counts are limited to the number of patterns.
+     *
+     * @param env environment of 2 to 64 bits
+     * @param order how patterns are chosen
+     * @param count number of patterns
+     * @param seed seed of random patterns, ignored by the other orders
+     * @throws IllegalArgumentException
+     *             if the environment has no primitive pattern or the count is negative
+     */
+    public static Spliterator.OfLong spliterator(PositEnv env, Order order, long count, long seed) {
+        final int nBits = env.getBitSize();
+        if (nBits < 2 || nBits > 64) {
+            throw new IllegalArgumentException("nBits=" + nBits + " has no primitive pattern");
+        }
+        if (count < 0L) {
+            throw new IllegalArgumentException("negative count " + count);
+        }
+        final long mask = Bit.mask(nBits);
+        long stride = 1L;
+        long fence = count;
+        if (Order.RANDOM != order && nBits < 64) {
+            fence = Math.min(count, 1L << nBits);
+        }
+        if (Order.STRIDED == order && fence > 0L) {
+            // The number of patterns is 2^nBits, or 2^64 wrapping to 0 as unsigned.
+            stride = nBits < 64 ? (1L << nBits) / fence : Long.divideUnsigned(-1L, fence);
+        }
+        return new PatternSpliterator(order, mask, stride, seed, 0L, fence);
+    }
+
+    /** Returns a stream of count patterns of the environment, see {@link #spliterator}. */
+    public static LongStream stream(PositEnv env, Order order, long count, long seed, boolean parallel) {
+        return StreamSupport.longStream(spliterator(env, order, count, seed), parallel);
+    }
+
+    /** Returns a sequential stream of all patterns of an environment of fewer than 64 bits. */
+    public static LongStream stream(PositEnv env) {
+        return stream(env, Order.SEQUENTIAL, Long.MAX_VALUE, 0L, false);
+    }
+
+    /**
+     * Writes a tab separated table of the patterns, one line per pattern in
+     * stream order, with a header line. Lines are written as the stream
+     * produces them.
+     *
+     * @param env environment of the patterns
+     * @param patterns patterns of the environment
+     * @param out destination of the table
+     * @throws IOException
+     *             if the destination fails
+     */
+    public static void writeTable(PositEnv env, LongStream patterns, Appendable out) throws IOException {
+        out.append(COLUMNS.replace(',', '\t')).append('\n');
+        final StringBuilder row = new StringBuilder();
+        try {
+            patterns.forEachOrdered(pattern -> {
+                row.setLength(0);
+                appendRow(row, env, pattern, '\t').append('\n');
+                try {
+                    out.append(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Returns a tab separated table line, see {@link #appendRow}. */
+    public static String toTableLine(PositEnv env, long pattern) {
+        return appendRow(new StringBuilder(), env, pattern, '\t').toString();
+    }
+
+    /**
+     * Appends a table row: the binary pattern, its sign, the regime k and
+     * exponent of its magnitude, the binary fraction, and its exact value.
+     * Zero and infinity have empty k, exponent and fraction.
+     *
+     * @param sb destination of the row, with no line end
+     * @param env environment of 2 to 64 bits
+     * @param pattern pattern right-aligned in a long, higher bits are ignored
+     * @param separator between the columns
+     * @return the destination
+     */
+    public static StringBuilder appendRow(StringBuilder sb, PositEnv env, long pattern, char separator) {
+        final int nBits = env.getBitSize();
+        final int maxEs = env.getMaxExponentSize();
+        final long infinity = 1L << (nBits - 1);
+        final long p = pattern & Bit.mask(nBits);
+        appendBinary(sb, p, nBits);
+        sb.append(separator).append((p & infinity) == 0L ? '+' : '-').append(separator);
+        if (p == 0L || p == infinity) {
+            sb.append(separator).append(separator);
+        } else {
+            final long magnitude = (p & infinity) == 0L ? p : Bit.twosComplement(p, nBits);
+            final int scale = PositDomain.getScale(magnitude, nBits, maxEs);
+            final int k = scale >> maxEs;
+            final int regimeBits = k >= 0 ? k + 2 : 1 - k;
+            final int fractionBits = Math.max(0, nBits - 1 - regimeBits - maxEs);
+            sb.append(k).append(separator).append(scale & ((1 << maxEs) - 1)).append(separator);
+            appendBinary(sb, magnitude, fractionBits);
+        }
+        sb.append(separator);
+        if (p == infinity) {
+            return sb.append("Infinity");
+        }
+        final BigDecimal exact = PositDomain.toBigDecimal(p, env).stripTrailingZeros();
+        return sb.append(exact.scale() > PLAIN_DIGITS || exact.precision() - exact.scale() > PLAIN_DIGITS
+                ? exact.round(MathContext.DECIMAL64).toString() : exact.toPlainString());
+    }
+
+    /** Appends the low count bits of the value as binary digits. */
+    private static void appendBinary(StringBuilder sb, long value, int count) {
+        for (int bit = count - 1; bit >= 0; bit--) {
+            sb.append((value >>> bit & 1L) == 0L ? '0' : '1');
+        }
+    }
+
+    /** Patterns of the indices [index, fence), each computed from its index. */
+    static final class PatternSpliterator implements Spliterator.OfLong {
+        /** Odd constant of SplitMix64, 2^64 divided by the golden ratio. */
+        private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+        private final Order order;
+        private final long mask;
+        private final long stride;
+        private final long seed;
+        private long index;
+        private final long fence;
+
+        PatternSpliterator(Order order, long mask, long stride, long seed, long index, long fence) {
+            this.order = order;
+            this.mask = mask;
+            this.stride = stride;
+            this.seed = seed;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        /** Returns the pattern at the given index. */
+        long pattern(long i) {
+            if (Order.RANDOM == order) {
+                // The SplitMix64 finalizer of the seeded index.
+                long z = seed + (i + 1L) * GOLDEN_GAMMA;
+                z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+                z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+                return (z ^ (z >>> 31)) & mask;
+            }
+            return i * stride & mask;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index < fence) {
+                action.accept(pattern(index++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            for (long i = index; i < fence; i++) {
+                action.accept(pattern(i));
+            }
+            index = fence;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            final long middle = index + ((fence - index) >>> 1);
+            if (middle <= index) {
+                return null;
+            }
+            final PatternSpliterator prefix = new PatternSpliterator(order, mask, stride, seed, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            final int characteristics = ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+            return Order.RANDOM == order ? characteristics : characteristics | DISTINCT;
+        }
+    }
+}
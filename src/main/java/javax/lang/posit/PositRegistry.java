@@ -0,0 +1,213 @@
+package javax.lang.posit;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * JMX view of the {@link PositEnv} registry and of the tables built by the
+ * contexts of registered environments, see {@link PositContext#getTable}.
+ * <p>
+ * Each table reports its estimated footprint, the time its builder took and,
+ * with -Dposit.metrics=true, the number of later lookups that found it, which
+ * is 0 otherwise so lookups stay free of shared counters. Operations build
+ * the tables of an environment ahead of use or drop tables to free memory on
+ * constrained nodes. Their formats are checked, 2 to 127 bits and a maximum
+ * exponent size of 0 to 127. Tables are built again on their next use, and users holding a table,
+ * such as a {@link Posit8Kernels}, keep it until they let go. Lookups that
+ * keep the table in a field, such as {@link PositContext#toDouble}, count only
+ * their first lookup.
+ * <p>
+ * The MBean is registered as {@value #OBJECT_NAME} by {@link #register()},
+ * and at startup with -Dposit.metrics=true.
+ *
+ * @see PositMetrics
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositRegistry implements PositRegistryMBean {
+    /** JMX name of the registry. */
+    public static final String OBJECT_NAME = "javax.lang.posit:type=PositRegistry";
+
+    private static final PositRegistry INSTANCE = new PositRegistry();
+
+    // Constructors
+    private PositRegistry() {
+    }
+
+    public static PositRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /** Registers the MBean with the platform MBean server, once. */
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered before.
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    // Attributes
+    @Override
+    public int getRegistrySize() {
+        return PositEnv.getRegistrySize();
+    }
+
+    @Override
+    public String[] getEnvironments() {
+        final List<String> names = new ArrayList<>();
+        for (PositEnv env : PositEnv.getRegisteredEnvs()) {
+            names.add(env.toString());
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+    @Override
+    public String[] getTables() {
+        final List<String> lines = new ArrayList<>();
+        for (PositEnv env : PositEnv.getRegisteredEnvs()) {
+            final PositContext context = env.getContextIfConstructed();
+            if (null == context) {
+                continue;
+            }
+            for (Map.Entry<String, PositContext.Table> entry : context.getTables().entrySet()) {
+                final PositContext.Table table = entry.getValue();
+                lines.add(env + ", table=" + entry.getKey() + ", bytes=" + sizeOf(table.value) + ", buildMillis="
+                        + table.buildNanos / 1e6 + ", hits=" + table.hits.sum());
+            }
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    @Override
+    public long getTableBytes() {
+        long bytes = 0L;
+        for (PositEnv env : PositEnv.getRegisteredEnvs()) {
+            final PositContext context = env.getContextIfConstructed();
+            if (null != context) {
+                for (PositContext.Table table : context.getTables().values()) {
+                    bytes += sizeOf(table.value);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // Operations
+    @Override
+    public int prewarm(int nBits, int maxEs) {
+        checkFormat(nBits, maxEs);
+        final PositEnv env = PositEnv.getPositEnv((byte) nBits, (byte) maxEs);
+        final PositContext context = env.getContext();
+        final int before = context.getTables().size();
+        if (nBits <= PositContext.DOUBLE_TABLE_BITS) {
+            context.toDouble(0L);
+        }
+        switch ((int) env.getContainerBitSize()) {
+        case 8:
+            Posit8.valueOf(env, 0L);
+            break;
+        case 16:
+            Posit16.valueOf(env, 0L);
+            break;
+        case 32:
+            Posit32.valueOf(env, 0L);
+            break;
+        default:
+            Posit64.valueOf(env, 0L);
+            break;
+        }
+        return context.getTables().size() - before;
+    }
+
+    @Override
+    public int evictTables(int nBits, int maxEs) {
+        final PositContext context = findContext(nBits, maxEs);
+        int evicted = 0;
+        if (null != context) {
+            for (String name : new ArrayList<>(context.getTables().keySet())) {
+                evicted += context.evictTable(name) ? 1 : 0;
+            }
+        }
+        return evicted;
+    }
+
+    @Override
+    public boolean evictTable(int nBits, int maxEs, String name) {
+        final PositContext context = findContext(nBits, maxEs);
+        return null != context && context.evictTable(name);
+    }
+
+    @Override
+    public int evictAllTables() {
+        int evicted = 0;
+        for (PositEnv env : PositEnv.getRegisteredEnvs()) {
+            evicted += evictTables(env.getBitSize(), env.getMaxExponentSize());
+        }
+        return evicted;
+    }
+
+    /** Returns the constructed context of a registered environment, or null. */
+    private static PositContext findContext(int nBits, int maxEs) {
+        checkFormat(nBits, maxEs);
+        for (PositEnv env : PositEnv.getRegisteredEnvs()) {
+            if (env.getBitSize() == nBits && env.getMaxExponentSize() == maxEs) {
+                return env.getContextIfConstructed();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks the format arguments of the operations before they are cast to bytes.
+     *
+     * @throws IllegalArgumentException
+     *             if nBits is not 2 to 127 or maxEs is not 0 to 127
+     */
+    private static void checkFormat(int nBits, int maxEs) {
+        if (nBits < 2 || nBits > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("nBits " + nBits + " is not 2 to " + Byte.MAX_VALUE);
+        }
+        if (maxEs < 0 || maxEs > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("maxEs " + maxEs + " is not 0 to " + Byte.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Returns the estimated bytes of a table: primitive arrays by element size,
+     * object arrays by reference plus a small object per element.
+     */
+    static long sizeOf(Object table) {
+        final long header = 16L;
+        if (table instanceof byte[]) {
+            return header + ((byte[]) table).length;
+        } else if (table instanceof short[]) {
+            return header + 2L * ((short[]) table).length;
+        } else if (table instanceof int[]) {
+            return header + 4L * ((int[]) table).length;
+        } else if (table instanceof long[]) {
+            return header + 8L * ((long[]) table).length;
+        } else if (table instanceof double[]) {
+            return header + 8L * ((double[]) table).length;
+        } else if (table instanceof Object[]) {
+            long bytes = header;
+            for (Object element : (Object[]) table) {
+                bytes += 4L + (null == element ? 0L : 32L);
+            }
+            return bytes;
+        }
+        return header;
+    }
+
+    @Override
+    public String toString() {
+        return "PositRegistry: environments=" + getRegistrySize() + ", tableBytes=" + getTableBytes();
+    }
+}
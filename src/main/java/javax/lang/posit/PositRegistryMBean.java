@@ -0,0 +1,58 @@
+package javax.lang.posit;
+
+/**
+ * Management interface of the environment registry and the context tables,
+ * see {@link PositRegistry}.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public interface PositRegistryMBean {
+    /** Returns the number of registered environments. */
+    int getRegistrySize();
+
+    /** Returns the registered environments. */
+    String[] getEnvironments();
+
+    /**
+     * Returns a line per built table: environment, name, bytes, build time and
+     * hits, which are counted only when metrics are enabled.
+     */
+    String[] getTables();
+
+    /** Returns the estimated bytes of all built tables. */
+    long getTableBytes();
+
+    /**
+     * Registers an environment and builds its tables of values.
+     *
+     * @return the number of tables built
+     * @throws IllegalArgumentException
+     *             if nBits is not 2 to 127 or maxEs is not 0 to 127
+     */
+    int prewarm(int nBits, int maxEs);
+
+    /**
+     * Drops the tables of a registered environment, to be built again on next use.
+     *
+     * @return the number of tables dropped
+     * @throws IllegalArgumentException
+     *             if nBits is not 2 to 127 or maxEs is not 0 to 127
+     */
+    int evictTables(int nBits, int maxEs);
+
+    /**
+     * Drops one table of a registered environment.
+     *
+     * @return true if the table was built
+     * @throws IllegalArgumentException
+     *             if nBits is not 2 to 127 or maxEs is not 0 to 127
+     */
+    boolean evictTable(int nBits, int maxEs, String name);
+
+    /**
+     * Drops the tables of all registered environments.
+     *
+     * @return the number of tables dropped
+     */
+    int evictAllTables();
+}
@@ -0,0 +1,182 @@
+package javax.lang.posit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The compact serialized form of a {@link Posit}, and bulk writers of posit
+ * collections.
+ * <p>
+ * A posit serializes through this proxy, which its writeReplace returns: the
+ * bit size as a short, the max exponent size as a byte, and the pattern in
+ * (nBits + 7) / 8 big endian bytes. A posit8 takes 4 bytes of data instead of
+ * the String and fields of default serialization. On reading, the proxy
+ * resolves to an equal {@link PositStringImpl}.
+ * <p>
+ * {@link #writePosits} writes a collection as runs of posits of one
+ * environment, a run header and then only the pattern bytes, so a posit8
+ * takes one byte per value.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositSerial implements Externalizable {
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    /** Largest serializable bit size. */
+    public static final int MAX_BITS = 0xFFFF;
+
+    private String bits;
+    private byte maxEs;
+
+    // Constructors
+    /** Constructs an empty proxy for deserialization, as Externalizable requires. */
+    public PositSerial() {
+    }
+
+    PositSerial(Posit posit) {
+        this.bits = posit.stringValue();
+        this.maxEs = posit.getMaxExponentSize();
+    }
+
+    // Externalizable
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeHeader(out, bits.length(), maxEs);
+        writePattern(out, bits);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        final int nBits = in.readUnsignedShort();
+        maxEs = in.readByte();
+        bits = readPattern(in, nBits);
+    }
+
+    /** Returns the posit of this proxy. */
+    private Object readResolve() throws ObjectStreamException {
+        try {
+            return new PositStringImpl(bits, maxEs);
+        } catch (NumberFormatException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+    }
+
+    // Bulk
+    /**
+     * Writes the count, then runs of posits of one bit size and max exponent
+     * size: the bit size, the max exponent size, the run length and the
+     * pattern bytes of the run.
+     *
+     * @throws IllegalArgumentException
+     *             if a posit has more than {@link #MAX_BITS} bits
+     */
+    public static void writePosits(DataOutput out, Collection<? extends Posit> posits) throws IOException {
+        final List<String> run = new ArrayList<>();
+        int nBits = -1;
+        byte maxEs = 0;
+        out.writeInt(posits.size());
+        for (Posit posit : posits) {
+            final String bits = posit.stringValue();
+            if (bits.length() != nBits || posit.getMaxExponentSize() != maxEs) {
+                writeRun(out, run, nBits, maxEs);
+                nBits = bits.length();
+                maxEs = posit.getMaxExponentSize();
+            }
+            run.add(bits);
+        }
+        writeRun(out, run, nBits, maxEs);
+    }
+
+    /**
+     * Reads posits written by {@link #writePosits}.
+     *
+     * @throws InvalidObjectException
+     *             if the runs do not add up to the count or a posit is malformed
+     */
+    public static List<Posit> readPosits(DataInput in) throws IOException {
+        final int count = in.readInt();
+        if (count < 0) {
+            throw new InvalidObjectException("count " + count + " is negative");
+        }
+        // Grown as posits are read, the count is not trusted for the capacity.
+        final List<Posit> posits = new ArrayList<>();
+        while (posits.size() < count) {
+            final int nBits = in.readUnsignedShort();
+            final byte maxEs = in.readByte();
+            final int length = in.readInt();
+            if (length < 1 || length > count - posits.size()) {
+                throw new InvalidObjectException("run of " + length + " after " + posits.size() + " of " + count);
+            }
+            for (int i = 0; i < length; i++) {
+                try {
+                    posits.add(new PositStringImpl(readPattern(in, nBits), maxEs));
+                } catch (NumberFormatException e) {
+                    throw new InvalidObjectException(e.getMessage());
+                }
+            }
+        }
+        return posits;
+    }
+
+    private static void writeRun(DataOutput out, List<String> run, int nBits, byte maxEs) throws IOException {
+        if (run.isEmpty()) {
+            return;
+        }
+        writeHeader(out, nBits, maxEs);
+        out.writeInt(run.size());
+        for (String bits : run) {
+            writePattern(out, bits);
+        }
+        run.clear();
+    }
+
+    private static void writeHeader(DataOutput out, int nBits, byte maxEs) throws IOException {
+        if (nBits > MAX_BITS) {
+            throw new IllegalArgumentException("nBits=" + nBits + " is above " + MAX_BITS);
+        }
+        out.writeShort(nBits);
+        out.writeByte(maxEs);
+    }
+
+    /** Writes a binary string as an unsigned integer in (length + 7) / 8 big endian bytes. */
+    private static void writePattern(DataOutput out, String bits) throws IOException {
+        final int nBytes = (bits.length() + 7) >>> 3;
+        // The first byte holds the leading length % 8 bits, or 8.
+        int end = bits.length() - ((nBytes - 1) << 3);
+        int start = 0;
+        for (int i = 0; i < nBytes; i++) {
+            int value = 0;
+            for (int j = start; j < end; j++) {
+                value = (value << 1) | (bits.charAt(j) - '0');
+            }
+            out.writeByte(value);
+            start = end;
+            end += 8;
+        }
+    }
+
+    /** Reads a binary string of nBits written by {@link #writePattern}. */
+    private static String readPattern(DataInput in, int nBits) throws IOException {
+        final StringBuilder bits = new StringBuilder(nBits);
+        final int nBytes = (nBits + 7) >>> 3;
+        int width = nBits - ((nBytes - 1) << 3);
+        for (int i = 0; i < nBytes; i++) {
+            final int value = in.readUnsignedByte();
+            for (int j = width - 1; j >= 0; j--) {
+                bits.append((char) ('0' + (value >>> j & 1)));
+            }
+            width = 8;
+        }
+        return bits.toString();
+    }
+}
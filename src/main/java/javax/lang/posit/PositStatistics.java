@@ -0,0 +1,229 @@
+package javax.lang.posit;
+
+import java.math.BigInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Exact statistics of posits: count, sum, sum of squares, mean, variance,
+ * minimum, maximum and an optional histogram of patterns.
+ * <p>
+ * The sum and sum of squares accumulate exactly in two {@link Quire}s of
+ * {@link PositEnv#getQuireSize()} bits, so the mean and variance are the exact
+ * values rounded once with the context rounding mode. Like
+ * {@link java.util.DoubleSummaryStatistics} an instance is not thread safe, but
+ * parallel streams give each thread its own instance and {@link #combine}
+ * merges them exactly at the end, see {@link PositStream#summaryStatistics()}.
+ * <p>
+ * The histogram counts patterns by their leading histogramBits bits. Posits
+ * order as their patterns, and the leading bits of a pattern are the posit of
+ * fewer bits it truncates to, so each bucket is a contiguous range of values.
+ * With histogramBits equal to the bit size each pattern has its own bucket.
+ * <p>
+ * An infinite posit makes the sum, mean and variance infinite. Statistics of
+ * no posits are infinite, the posit for "not a real".
+ *
+ * @see Quire
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositStatistics implements LongConsumer {
+    /** Largest histogram, 2^16 buckets. */
+    public static final int MAX_HISTOGRAM_BITS = 16;
+
+    private final PositContext context;
+    private final int nBits;
+    private final Quire sum;
+    private final Quire sumOfSquares;
+    private final long[] histogram;
+    private final int histogramShift;
+    private long count;
+    private long min;
+    private long max;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private PositStatistics() {
+        throw new AssertionError();
+    }
+
+    /** Constructs empty statistics with no histogram. */
+    public PositStatistics(PositContext context) {
+        this(context, 0);
+    }
+
+    /**
+     * Constructs empty statistics.
+     *
+     * @param context context of the posits and the rounding of results
+     * @param histogramBits leading pattern bits of the histogram buckets, 0 for no histogram
+     * @throws IllegalArgumentException
+     *             if histogramBits is negative or above {@link #MAX_HISTOGRAM_BITS}
+     */
+    public PositStatistics(PositContext context, int histogramBits) {
+        if (histogramBits < 0 || histogramBits > MAX_HISTOGRAM_BITS) {
+            throw new IllegalArgumentException("histogramBits=" + histogramBits + " is not 0 to "
+                    + MAX_HISTOGRAM_BITS);
+        }
+        this.context = context;
+        this.nBits = context.getBitSize();
+        this.sum = new Quire(context);
+        this.sumOfSquares = new Quire(context);
+        final int bits = Math.min(histogramBits, nBits);
+        this.histogram = bits == 0 ? null : new long[1 << bits];
+        this.histogramShift = nBits - bits;
+        this.min = context.getMaxPos();
+        this.max = context.getInfinity();
+    }
+
+    public PositContext getContext() {
+        return context;
+    }
+
+    /** Records a posit. */
+    @Override
+    public void accept(long pattern) {
+        final long p = pattern & Bit.mask(nBits);
+        sum.add(p);
+        sumOfSquares.addProduct(p, p);
+        if (null != histogram) {
+            histogram[(int) (p >>> histogramShift)]++;
+        }
+        if (count == 0L || context.compare(p, min) < 0) {
+            min = p;
+        }
+        if (count == 0L || context.compare(p, max) > 0) {
+            max = p;
+        }
+        count++;
+    }
+
+    /**
+     * Adds the posits recorded by other statistics of the same environment.
+     *
+     * @throws IllegalArgumentException
+     *             if the other statistics are of another environment or histogram
+     */
+    public void combine(PositStatistics other) {
+        if ((null == histogram) != (null == other.histogram)
+                || (null != histogram && histogram.length != other.histogram.length)) {
+            throw new IllegalArgumentException("cannot combine statistics with different histograms");
+        }
+        if (other.count == 0L) {
+            return;
+        }
+        sum.add(other.sum);
+        sumOfSquares.add(other.sumOfSquares);
+        if (null != histogram) {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+        if (count == 0L || context.compare(other.min, min) < 0) {
+            min = other.min;
+        }
+        if (count == 0L || context.compare(other.max, max) > 0) {
+            max = other.max;
+        }
+        count += other.count;
+    }
+
+    // Results
+    public long getCount() {
+        return count;
+    }
+    /** Returns the least posit, infinity if any is infinite or none is recorded. */
+    public long getMin() {
+        return count == 0L ? context.getInfinity() : min;
+    }
+    /** Returns the greatest posit, infinity if none is recorded. */
+    public long getMax() {
+        return count == 0L ? context.getInfinity() : max;
+    }
+
+    /** Returns the sum, rounded once. The sum of no posits is zero. */
+    public long getSum() {
+        return sum.toPattern();
+    }
+
+    /** Returns the exact sum in a new quire. */
+    public Quire getQuireSum() {
+        final Quire copy = new Quire(context);
+        copy.add(sum);
+        return copy;
+    }
+
+    /** Returns the sum of squares, rounded once. */
+    public long getSumOfSquares() {
+        return sumOfSquares.toPattern();
+    }
+
+    /** Returns the mean, rounded once. */
+    public long getMean() {
+        if (count == 0L) {
+            return context.getInfinity();
+        }
+        return sum.divideToPattern(count);
+    }
+
+    /** Returns the population variance, sum((x - mean)^2) / n, rounded once. */
+    public long getVariance() {
+        return getVariance(count);
+    }
+
+    /** Returns the sample variance, sum((x - mean)^2) / (n - 1), rounded once. Infinite for fewer than 2 posits. */
+    public long getSampleVariance() {
+        return count < 2L ? context.getInfinity() : getVariance(count - 1L);
+    }
+
+    /**
+     * Returns the histogram counts, bucket i counting the patterns whose leading
+     * histogramBits bits are i.
+     *
+     * @throws IllegalStateException
+     *             if these statistics have no histogram
+     */
+    public long[] getHistogram() {
+        if (null == histogram) {
+            throw new IllegalStateException("no histogram");
+        }
+        return histogram.clone();
+    }
+
+    /** Returns (n * sumOfSquares - sum^2) / (n * divisor), rounded once. */
+    private long getVariance(long divisor) {
+        if (count == 0L || sum.isInfinite()) {
+            return context.getInfinity();
+        }
+        // In units of the quire lsb, 2^lsbScale: sum = s1 * 2^lsbScale, sumOfSquares = s2 * 2^lsbScale.
+        // Variance = (n * s2 * 2^-lsbScale - s1^2) * 2^(2 lsbScale) / (n * divisor).
+        final int lsbScale = Quire.getLsbScale(nBits, context.getMaxExponentSize());
+        final BigInteger n = BigInteger.valueOf(count);
+        final BigInteger s1 = sum.toBigInteger();
+        final BigInteger s2 = sumOfSquares.toBigInteger();
+        final BigInteger numerator = n.multiply(s2).shiftLeft(-lsbScale).subtract(s1.multiply(s1));
+        return round(numerator, n.multiply(BigInteger.valueOf(divisor)), 2 * lsbScale);
+    }
+
+    /** Returns numerator / denominator * 2^scale rounded once, for a positive denominator. */
+    private long round(BigInteger numerator, BigInteger denominator, int scale) {
+        if (numerator.signum() == 0) {
+            return 0L;
+        }
+        final boolean negative = numerator.signum() < 0;
+        final BigInteger magnitude = numerator.abs();
+        // Shift so the quotient has at least 64 bits, the rest of the division is sticky.
+        final int shift = Math.max(0, 64 + denominator.bitLength() - magnitude.bitLength());
+        final BigInteger[] division = magnitude.shiftLeft(shift).divideAndRemainder(denominator);
+        final BigInteger quotient = division[0];
+        final int drop = quotient.bitLength() - 63;
+        final long significand = quotient.shiftRight(drop).longValue();
+        final boolean sticky = division[1].signum() != 0 || quotient.getLowestSetBit() < drop;
+        return PositDomain.encode(nBits, context.getMaxExponentSize(), negative, quotient.bitLength() - 1 - shift
+                + scale, significand, sticky, context.getRoundingMode());
+    }
+
+    @Override
+    public String toString() {
+        return "PositStatistics: count=" + count + ", sum=" + context.toDouble(getSum()) + ", mean="
+                + context.toDouble(getMean()) + ", variance=" + context.toDouble(getVariance()) + ", " + context;
+    }
+}
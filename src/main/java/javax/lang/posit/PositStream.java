@@ -0,0 +1,343 @@
+package javax.lang.posit;
+
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A sequence of posit patterns of one context supporting sequential and
+ * parallel aggregate operations, the posit analog of {@link DoubleStream}.
+ * <p>
+ * Elements are primitive patterns right-aligned in a long, carried by a
+ * {@link LongStream}, so pipelines do not box. Order, comparison and arithmetic
+ * are those of the context: infinity is less than every other posit, and sums
+ * accumulate exactly in a {@link Quire} and round once.
+ * <p>
+ * Streams over pattern arrays use a spliterator that reads the container array
+ * directly and splits by halving its index range.
+ *
+ * @see PositArrays
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositStream implements BaseStream<Long, PositStream> {
+    private final PositContext context;
+    private final LongStream patterns;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private PositStream() {
+        throw new AssertionError();
+    }
+
+    private PositStream(PositContext context, LongStream patterns) {
+        this.context = context;
+        this.patterns = patterns;
+    }
+
+    /** Returns a sequential stream of the patterns of an array of the environment container type. */
+    public static PositStream of(PositEnv env, Object array) {
+        return of(env.getContext(), array, 0, PositArrays.getLength(array));
+    }
+
+    /**
+     * Returns a sequential stream of array[from, to).
+     *
+     * @param context context of the posits and of arithmetic on them
+     * @param array byte[], short[], int[] or long[] of patterns
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the array
+     */
+    public static PositStream of(PositContext context, Object array, int from, int to) {
+        if (from < 0 || from > to || to > PositArrays.getLength(array)) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") of "
+                    + PositArrays.getLength(array));
+        }
+        final Spliterator.OfLong spliterator = new ArraySpliterator(array, Bit.mask(context.getBitSize()), from, to);
+        return new PositStream(context, StreamSupport.longStream(spliterator, false));
+    }
+
+    /** Returns a stream of the given patterns, masked to the context bit size. */
+    public static PositStream of(PositContext context, LongStream patterns) {
+        final long mask = Bit.mask(context.getBitSize());
+        return new PositStream(context, patterns.map(pattern -> pattern & mask));
+    }
+
+    public PositContext getContext() {
+        return context;
+    }
+
+    /** Returns the underlying stream of patterns. */
+    public LongStream patterns() {
+        return patterns;
+    }
+
+    // Intermediate operations
+    /** Returns a stream of the posits given by the operator, masked to the context bit size. */
+    public PositStream map(LongUnaryOperator mapper) {
+        final long mask = Bit.mask(context.getBitSize());
+        return new PositStream(context, patterns.map(pattern -> mapper.applyAsLong(pattern) & mask));
+    }
+
+    public PositStream filter(LongPredicate predicate) {
+        return new PositStream(context, patterns.filter(predicate));
+    }
+
+    /** Returns a stream of the posits in ascending order, infinity first. */
+    public PositStream sorted() {
+        // Shifted to the top of the long, posits order as signed longs.
+        final int shift = 64 - context.getBitSize();
+        return new PositStream(context,
+                patterns.map(pattern -> pattern << shift).sorted().map(key -> key >>> shift));
+    }
+
+    public PositStream distinct() {
+        return new PositStream(context, patterns.distinct());
+    }
+
+    public PositStream limit(long maxSize) {
+        return new PositStream(context, patterns.limit(maxSize));
+    }
+
+    public PositStream skip(long n) {
+        return new PositStream(context, patterns.skip(n));
+    }
+
+    public PositStream peek(LongConsumer action) {
+        return new PositStream(context, patterns.peek(action));
+    }
+
+    /** Returns the values nearest each posit as doubles, infinity as positive infinity. */
+    public DoubleStream asDoubleStream() {
+        return patterns.mapToDouble(context::toDouble);
+    }
+
+    // Terminal operations
+    public void forEach(LongConsumer action) {
+        patterns.forEach(action);
+    }
+
+    public void forEachOrdered(LongConsumer action) {
+        patterns.forEachOrdered(action);
+    }
+
+    public long count() {
+        return patterns.count();
+    }
+
+    /** Returns the patterns in a long[]. */
+    public long[] toPatterns() {
+        return patterns.toArray();
+    }
+
+    /** Returns the patterns in a new array of the environment container type. */
+    public Object toArray() {
+        final long[] values = patterns.toArray();
+        final Object array = PositArrays.newArray(context.getPositEnv(), values.length);
+        for (int i = 0; i < values.length; i++) {
+            PositArrays.setPattern(array, i, values[i]);
+        }
+        return array;
+    }
+
+    public long reduce(long identity, LongBinaryOperator op) {
+        return patterns.reduce(identity, op);
+    }
+
+    public OptionalLong reduce(LongBinaryOperator op) {
+        return patterns.reduce(op);
+    }
+
+    /** Returns the exact sum of the posits in a quire, which parallel streams combine exactly. */
+    public Quire quireSum() {
+        return patterns.collect(() -> new Quire(context), Quire::add, Quire::add);
+    }
+
+    /** Returns the sum of the posits, rounded once. The sum of an empty stream is zero. */
+    public long sum() {
+        return quireSum().toPattern();
+    }
+
+    /** Returns the exact statistics of the posits, see {@link PositStatistics}. */
+    public PositStatistics summaryStatistics() {
+        return summaryStatistics(0);
+    }
+
+    /** Returns the exact statistics and a histogram on the leading histogramBits pattern bits. */
+    public PositStatistics summaryStatistics(int histogramBits) {
+        return patterns.collect(() -> new PositStatistics(context, histogramBits), PositStatistics::accept,
+                PositStatistics::combine);
+    }
+
+    /** Returns the least posit, infinity if there is one, or empty for an empty stream. */
+    public OptionalLong min() {
+        return patterns.reduce((x, y) -> context.compare(x, y) <= 0 ? x : y);
+    }
+
+    /** Returns the greatest posit, or empty for an empty stream. */
+    public OptionalLong max() {
+        return patterns.reduce((x, y) -> context.compare(x, y) >= 0 ? x : y);
+    }
+
+    /**
+     * Returns the mean of the posits, or empty for an empty stream. The exact
+     * sum divided by the count is rounded once.
+     */
+    public OptionalLong average() {
+        final Average average = patterns.collect(() -> new Average(context), Average::accept, Average::combine);
+        return average.count == 0L ? OptionalLong.empty()
+                : OptionalLong.of(average.sum.divideToPattern(average.count));
+    }
+
+    // BaseStream
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return patterns.iterator();
+    }
+
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return patterns.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return patterns.isParallel();
+    }
+
+    @Override
+    public PositStream sequential() {
+        return new PositStream(context, patterns.sequential());
+    }
+
+    @Override
+    public PositStream parallel() {
+        return new PositStream(context, patterns.parallel());
+    }
+
+    @Override
+    public PositStream unordered() {
+        return new PositStream(context, patterns.unordered());
+    }
+
+    @Override
+    public PositStream onClose(Runnable closeHandler) {
+        return new PositStream(context, patterns.onClose(closeHandler));
+    }
+
+    @Override
+    public void close() {
+        patterns.close();
+    }
+
+    /** Exact sum and count of posits. */
+    static final class Average {
+        final Quire sum;
+        long count;
+
+        Average(PositContext context) {
+            this.sum = new Quire(context);
+        }
+
+        void accept(long pattern) {
+            sum.add(pattern);
+            count++;
+        }
+
+        void combine(Average other) {
+            sum.add(other.sum);
+            count += other.count;
+        }
+    }
+
+    /** Patterns of array[index, fence), read from the container array. */
+    static final class ArraySpliterator implements Spliterator.OfLong {
+        private final Object array;
+        private final long mask;
+        private int index;
+        private final int fence;
+
+        ArraySpliterator(Object array, long mask, int index, int fence) {
+            this.array = array;
+            this.mask = mask;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index < fence) {
+                action.accept(get(index++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            final int from = index;
+            index = fence;
+            // One type test, then a tight loop over the container.
+            if (array instanceof byte[]) {
+                final byte[] a = (byte[]) array;
+                for (int i = from; i < fence; i++) {
+                    action.accept(a[i] & mask);
+                }
+            } else if (array instanceof short[]) {
+                final short[] a = (short[]) array;
+                for (int i = from; i < fence; i++) {
+                    action.accept(a[i] & mask);
+                }
+            } else if (array instanceof int[]) {
+                final int[] a = (int[]) array;
+                for (int i = from; i < fence; i++) {
+                    action.accept(a[i] & mask);
+                }
+            } else {
+                final long[] a = (long[]) array;
+                for (int i = from; i < fence; i++) {
+                    action.accept(a[i] & mask);
+                }
+            }
+        }
+
+        private long get(int i) {
+            if (array instanceof byte[]) {
+                return ((byte[]) array)[i] & mask;
+            } else if (array instanceof short[]) {
+                return ((short[]) array)[i] & mask;
+            } else if (array instanceof int[]) {
+                return ((int[]) array)[i] & mask;
+            }
+            return ((long[]) array)[i] & mask;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            final int middle = (index + fence) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            final ArraySpliterator prefix = new ArraySpliterator(array, mask, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package javax.lang.posit;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.math.BigDecimal;
 import java.math.BigInteger;
 
 /**
@@ -22,6 +25,15 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
     /** consider making a class/static or factory method. */
     private byte maxExponentSize = 2;
 
+    // Decoded on first access, cleared by parse and setMaxExponentSize.
+    /** sign, regime, exponent, fraction with negatives twos complemented */
+    private transient String[] components;
+    private transient int regimeK;
+    /** power of 2 scale, k * 2^maxEs + e */
+    private transient int scale;
+    private transient boolean valueDecoded;
+    private transient double value;
+
     // Constructors
     /**
      * @see Posit#Posit()
@@ -45,50 +57,83 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
         parse(s);
     }
 
+    // Serialization
+    /** Serializes through the compact {@link PositSerial} proxy. */
+    private Object writeReplace() {
+        return new PositSerial(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("PositStringImpl is serialized by PositSerial");
+    }
+
     // Number interface
     @Override
     /**
+     * Truncates like {@code (byte) intValue()}, as {@link Double#byteValue()}.
+     *
      * @see Posit#byteValue()
      */
     public byte byteValue() {
-        // TODO Auto-generated method stub
-        return 0;
+        return (byte) intValue();
     }
 
     @Override
     /**
+     * Truncates like {@code (short) intValue()}, as {@link Double#shortValue()}.
+     *
      * @see Posit#shortValue()
      */
     public short shortValue() {
-        // TODO Auto-generated method stub
-        return 0;
+        return (short) intValue();
     }
 
     @Override
     /**
+     * Truncates toward zero and saturates at the int range, as {@link Double#intValue()}.
+     *
      * @see Posit#intValue()
      */
     public int intValue() {
-        // TODO Auto-generated method stub
-        return 0;
+        final long value = longValue();
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
     }
 
     @Override
     /**
+     * Truncates toward zero and saturates at the long range, as
+     * {@link Double#longValue()}. The integer part is taken from the decoded
+     * fields, so it is exact beyond the 53 bits of a double. Infinity is treated
+     * as {@link Double#POSITIVE_INFINITY}.
+     *
      * @see Posit#longValue()
      */
     public long longValue() {
-        // TODO Auto-generated method stub
-        return 0;
+        if (internal.length() == 0 || isZero()) {
+            return 0L;
+        }
+        if (isInfinite()) {
+            return Long.MAX_VALUE;
+        }
+        return PositDomain.toLong(!isPositive(), getScale(), getSignificand());
     }
 
     @Override
     /**
+     * Rounds the exact (Gustafson) value of the decoded fields once to a float.
+     * This is the value of {@link #toBigDecimal()}, not a rounding of
+     * {@link #doubleValue()}.
+     *
      * @see Posit#floatValue()
      */
     public float floatValue() {
-        // TODO Auto-generated method stub
-        return 0.0f;
+        if (internal.length() == 0 || isZero()) {
+            return 0.0f;
+        }
+        if (isInfinite()) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return PositDomain.toFloat(!isPositive(), getScale(), getSignificand());
     }
 
     @Override
@@ -124,7 +169,15 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
      * @return nearest double value (using reflection calculated fractions)
      */
     public double doubleValue() {
-        // Temp implementation Should be compacted, more native.
+        if (!valueDecoded) {
+            value = decodeDoubleValue();
+            valueDecoded = true;
+        }
+        return value;
+    }
+
+    /** Calculates the reflected double value, see {@link #doubleValue()}. */
+    private double decodeDoubleValue() {
         if (null == internal || internal.length() == 0) {
             return 0.0;
         }
@@ -138,7 +191,7 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
         double sign = positive ? 1.0 : -1.0;
         final BigInteger useed = getUseed(); // 2^2^maxEs
         // Use symmetry to adjust regime, exponent, fraction
-        boolean twos = null != internal && internal.length() > 1 && '0' == internal.charAt(1);
+        boolean twos = internal.length() > 1 && '0' == internal.charAt(1);
         final String [] components = PositDomain.getComponentsFlipReflection(internal, getMaxExponentSize());
         String regime = components[PositEnum.REGIME.v()];
         String exponent = components[PositEnum.EXPONENT.v()];
@@ -190,9 +243,8 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
         final boolean positive = isPositive();
         double sign = positive ? 1.0 : -1.0;
         final BigInteger useed = getUseed(); // 2^2^maxEs
-        final String [] components = PositDomain.getComponentsFlipNegative(internal, getMaxExponentSize());
-        String regime = components[PositEnum.REGIME.v()];
-        final int k = PositDomain.getRegimeK(regime); // run length exponent
+        final String [] components = getComponents();
+        final int k = getRegimeK(); // run length exponent
         double useedK = 1.0;
         if (k >= 0) {
             useedK = useed.pow(k).doubleValue();
@@ -213,6 +265,38 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
         return sign * useedK * twoe * fracMultiplier;
     }
 
+    @Override
+    /**
+     * Scales the integer 1f by 2^(scale - fs), with the cached powers of 2 of the
+     * PositEnv of this bit size and maximum exponent size if it is registered.
+     *
+     * @see Posit#toBigDecimal()
+     */
+    public BigDecimal toBigDecimal() {
+        if (internal.length() == 0 || isZero()) {
+            return BigDecimal.ZERO;
+        }
+        if (isInfinite()) {
+            throw new ArithmeticException("infinite posit " + internal + " has no BigDecimal value");
+        }
+        final String fraction = getComponents()[PositEnum.FRACTION.v()];
+        // 1.f as the integer 1f, then drop trailing zeros to keep the power in range.
+        BigInteger significand = BigInteger.ONE.shiftLeft(fraction.length());
+        if (fraction.length() > 0) {
+            significand = significand.or(new BigInteger(fraction, 2));
+        }
+        final int zeros = significand.getLowestSetBit();
+        significand = significand.shiftRight(zeros);
+        final int power = getScale() - fraction.length() + zeros;
+        // Look up without registering, converting a value leaves the REGISTRY as it is.
+        final PositEnv env = internal.length() <= Byte.MAX_VALUE
+                ? PositEnv.findPositEnv((byte) internal.length(), getMaxExponentSize())
+                : null;
+        final BigDecimal powerOfTwo = null != env ? env.getPowerOfTwo(power) : PositEnv.powerOfTwo(power);
+        final BigDecimal value = new BigDecimal(significand).multiply(powerOfTwo);
+        return isPositive() ? value : value.negate();
+    }
+
     @Override
     /**
      * @see Posit#stringValue()
@@ -235,6 +319,8 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
     public void parse(final String s) throws NumberFormatException {
         if (null == s) {
             internal = "";
+            components = null;
+            valueDecoded = false;
             return;
         }
         String local = s.trim();
@@ -247,6 +333,8 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
             }
         }
         internal = local;
+        components = null;
+        valueDecoded = false;
     }
 
     // Math interface
@@ -358,7 +446,7 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
      * @see Posit#getRegime()
      */
     public String getRegime() {
-        return PositDomain.getRegime(internal);
+        return getComponents()[PositEnum.REGIME.v()];
     }
 
     @Override
@@ -366,8 +454,8 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
      * @see Posit#getRegimeK()
      */
     public int getRegimeK() {
-        final String regime = PositDomain.getRegime(internal);
-        return PositDomain.getRegimeK(regime);
+        getComponents();
+        return regimeK;
     }
 
     @Override
@@ -383,7 +471,11 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
      * @see Posit#setMaxExponentSize()
      */
     public void setMaxExponentSize(byte maxExponentSize) {
-        this.maxExponentSize = maxExponentSize;
+        if (this.maxExponentSize != maxExponentSize) {
+            this.maxExponentSize = maxExponentSize;
+            components = null;
+            valueDecoded = false;
+        }
     }
 
     @Override
@@ -391,7 +483,7 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
      * @see Posit#getExponent()
      */
     public String getExponent() {
-        return PositDomain.getExponent(internal, getMaxExponentSize());
+        return getComponents()[PositEnum.EXPONENT.v()];
     }
 
     @Override
@@ -399,7 +491,7 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
      * @see Posit#getFraction()
      */
     public String getFraction() {
-        return PositDomain.getFraction(internal, getMaxExponentSize());
+        return getComponents()[PositEnum.FRACTION.v()];
     }
 
     @Override
@@ -414,6 +506,49 @@ public final class PositStringImpl extends Posit implements Comparable<Posit> {
         return fs;
     }
 
+    /**
+     * Returns the sign, regime, exponent, fraction components, decoding them on
+     * first access.
+     * <p>
+     * The components are shared, callers must not modify the array.
+     *
+     * @see PositDomain#getComponentsFlipNegative(String, int)
+     */
+    private String[] getComponents() {
+        String[] decoded = components;
+        if (null == decoded) {
+            decoded = PositDomain.getComponentsFlipNegative(internal, getMaxExponentSize());
+            regimeK = PositDomain.getRegimeK(decoded[PositEnum.REGIME.v()]);
+            scale = (regimeK << getMaxExponentSize())
+                    + (int) PositDomain.getExponentVal(decoded[PositEnum.EXPONENT.v()], getMaxExponentSize());
+            components = decoded;
+        }
+        return decoded;
+    }
+
+    /** Returns the power of 2 scale, k * 2^maxEs + e. */
+    private int getScale() {
+        getComponents();
+        return scale;
+    }
+
+    /**
+     * Returns the significand 1.f with the hidden bit at bit 62 and up to 62
+     * fraction bits. Any fraction bits beyond are ORed into bit 0 as a sticky bit.
+     */
+    private long getSignificand() {
+        final String fraction = getComponents()[PositEnum.FRACTION.v()];
+        final int length = Math.min(62, fraction.length());
+        long significand = PositDomain.HIDDEN_BIT;
+        if (length > 0) {
+            significand |= Long.parseUnsignedLong(fraction.substring(0, length), 2) << (62 - length);
+        }
+        if (fraction.indexOf('1', length) >= 0) {
+            significand |= 1L;
+        }
+        return significand;
+    }
+
     @Override
     /**
      * @see Posit#getUseed()
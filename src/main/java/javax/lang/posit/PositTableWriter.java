@@ -0,0 +1,196 @@
+package javax.lang.posit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams a value and component table of a range of patterns to a channel, as
+ * CSV text or fixed size binary records.
+ * <p>
+ * The range is cut into chunks of patterns. A batch of chunks is formatted in
+ * parallel, each into its own byte array, and the arrays are written in pattern
+ * order. Memory is bounded by parallelism * chunkPatterns rows regardless of the
+ * range, so all patterns of posit16 or ranges of posit32 stream like a small
+ * table. Rows are decoded from the pattern bits and appended to one builder per
+ * chunk.
+ * <p>
+ * CSV rows are those of {@link PositPatterns#appendRow}, separated by commas,
+ * with the header line {@link #CSV_HEADER}. Binary records are
+ * {@link #RECORD_BYTES} big endian bytes: the pattern as a long, the value as
+ * the nearest double, k and the exponent as ints (0 for zero and infinity).
+ *
+ * @see PositColumnReader
+ * @see PositPatterns
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class PositTableWriter {
+    /** Write to the console log. */
+    public static final Logger LOGGER = LoggerFactory.getLogger(PositTableWriter.class);
+
+    /** Default patterns per chunk. */
+    public static final int DEFAULT_CHUNK_PATTERNS = 1 << 14;
+    /** First line of CSV tables. */
+    public static final String CSV_HEADER = PositPatterns.COLUMNS + "\n";
+    /** Bytes per binary record. */
+    public static final int RECORD_BYTES = 24;
+
+    /** Table output formats. */
+    public enum Format {
+        CSV, BINARY
+    }
+
+    private final PositEnv env;
+    private final Format format;
+    private final int chunkPatterns;
+    private final int parallelism;
+    private final int nBits;
+    private final int maxEs;
+
+    // Constructors
+    /**
+     * Writes CSV tables in default chunks with the common pool parallelism.
+     *
+     * @param env environment of 2 to 64 bits
+     */
+    public PositTableWriter(PositEnv env) {
+        this(env, Format.CSV, DEFAULT_CHUNK_PATTERNS, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param env environment of 2 to 64 bits
+     * @param format CSV text or binary records
+     * @param chunkPatterns patterns formatted per task
+     * @param parallelism number of chunks formatted per batch
+     */
+    public PositTableWriter(PositEnv env, Format format, int chunkPatterns, int parallelism) {
+        if (env.getBitSize() < 2 || env.getBitSize() > 64) {
+            throw new IllegalArgumentException(env + " has no primitive pattern");
+        }
+        if (null == format || chunkPatterns < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("format=" + format + ", chunkPatterns=" + chunkPatterns
+                    + ", parallelism=" + parallelism);
+        }
+        this.env = env;
+        this.format = format;
+        this.chunkPatterns = chunkPatterns;
+        this.parallelism = parallelism;
+        this.nBits = env.getBitSize();
+        this.maxEs = env.getMaxExponentSize();
+    }
+
+    public PositEnv getPositEnv() {
+        return env;
+    }
+    public Format getFormat() {
+        return format;
+    }
+
+    /** Writes all patterns of an environment of fewer than 64 bits. */
+    public PositColumnReader.Stats write(WritableByteChannel channel) throws IOException {
+        if (nBits == 64) {
+            throw new IllegalArgumentException(env + " has too many patterns, write a range");
+        }
+        return write(0L, 1L << nBits, channel);
+    }
+
+    /**
+     * Writes the table of patterns from, from + 1, ... for count patterns.
+     * Patterns wrap around the pattern mask, so a range may cross infinity.
+     *
+     * @param from first pattern
+     * @param count number of patterns, at most the number of patterns of the environment
+     * @param channel destination, not closed
+     * @return rows, bytes and elapsed time of the write
+     * @throws IOException
+     *             if the channel fails
+     */
+    public PositColumnReader.Stats write(long from, long count, WritableByteChannel channel) throws IOException {
+        if (count < 0L || (nBits < 64 && count > 1L << nBits)) {
+            throw new IllegalArgumentException("count " + count + " is not a number of patterns of " + env);
+        }
+        final long start = System.nanoTime();
+        long bytes = 0L;
+        if (Format.CSV == format) {
+            bytes += writeFully(channel, ByteBuffer.wrap(CSV_HEADER.getBytes("US-ASCII")));
+        }
+        long done = 0L;
+        while (done < count) {
+            final List<ForkJoinTask<byte[]>> tasks = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism && done < count; i++) {
+                final long first = from + done;
+                final int rows = (int) Math.min(chunkPatterns, count - done);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> format(first, rows)));
+                done += rows;
+            }
+            for (ForkJoinTask<byte[]> task : tasks) {
+                try {
+                    bytes += writeFully(channel, ByteBuffer.wrap(task.get()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted writing " + env + " table", e);
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+            }
+        }
+        final PositColumnReader.Stats stats = new PositColumnReader.Stats(count, bytes, System.nanoTime() - start);
+        LOGGER.debug("Wrote {} of {}", stats, env);
+        return stats;
+    }
+
+    private static long writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+
+    /** Formats the rows of patterns first, first + 1, ... */
+    byte[] format(long first, int rows) {
+        final long mask = Bit.mask(nBits);
+        if (Format.BINARY == format) {
+            final ByteBuffer buffer = ByteBuffer.allocate(rows * RECORD_BYTES);
+            for (int row = 0; row < rows; row++) {
+                final long pattern = (first + row) & mask;
+                final long magnitude = getMagnitude(pattern);
+                buffer.putLong(pattern);
+                buffer.putDouble(PositDomain.toDouble(pattern, nBits, maxEs));
+                if (magnitude == 0L) {
+                    buffer.putInt(0).putInt(0);
+                } else {
+                    final int scale = PositDomain.getScale(magnitude, nBits, maxEs);
+                    buffer.putInt(scale >> maxEs).putInt(scale & ((1 << maxEs) - 1));
+                }
+            }
+            return buffer.array();
+        }
+        final StringBuilder sb = new StringBuilder(rows * (2 * nBits + 40));
+        for (int row = 0; row < rows; row++) {
+            PositPatterns.appendRow(sb, env, (first + row) & mask, ',').append('\n');
+        }
+        final byte[] bytes = new byte[sb.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) sb.charAt(i);
+        }
+        return bytes;
+    }
+
+    /** Returns the magnitude of a pattern, 0 for zero and infinity. */
+    private long getMagnitude(long pattern) {
+        final long signBit = 1L << (nBits - 1);
+        if (pattern == signBit) {
+            return 0L;
+        }
+        return (pattern & signBit) == 0L ? pattern : Bit.twosComplement(pattern, nBits);
+    }
+}
@@ -0,0 +1,324 @@
+package javax.lang.posit;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Base of the immutable posit value types {@link Posit8}, {@link Posit16},
+ * {@link Posit32} and {@link Posit64}, a pattern of a {@link PositEnv} held in
+ * the container type of the environment.
+ * <p>
+ * Values never change after construction, so they may be shared between
+ * threads and cached. The value types have no public constructors, their
+ * valueOf methods return shared instances from the caches of the environment
+ * context: every posit of up to 8 bits, and for wider posits the common
+ * values zero, one, minus one, infinity and plus or minus minPos and maxPos.
+ * The caches belong to the {@link PositEnv} instance, so values of two equal
+ * environments constructed apart are equal but not the same instance; use
+ * {@link PositEnv#getPositEnv(byte, byte)} to share them.
+ * The mutators of {@link Posit} throw {@link UnsupportedOperationException}.
+ * <p>
+ * Conversions and arithmetic are those of the {@link PositContext} of the
+ * environment, rounding once to the nearest posit, ties to even.
+ *
+ * @see PositContext
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+abstract class PositValue extends Posit {
+    /** Serialization version */
+    private static final long serialVersionUID = 1L;
+
+    /** Name of the context table of common values of posits wider than 8 bits. */
+    static final String COMMON_TABLE = "common values";
+
+    private final transient PositContext context;
+    private final long pattern;
+
+    // Constructors
+    PositValue(PositContext context, long pattern) {
+        this.context = context;
+        this.pattern = pattern & Bit.mask(context.getBitSize());
+    }
+
+    /**
+     * Returns the context of a posit environment in the given container.
+     *
+     * @throws IllegalArgumentException
+     *             if the environment has another container size
+     */
+    static PositContext getContext(PositEnv env, int containerBits) {
+        if (env.getContainerBitSize() != containerBits) {
+            throw new IllegalArgumentException(env + " is not in a " + containerBits + " bit container");
+        }
+        return env.getContext();
+    }
+
+    /**
+     * Returns the context of this value, checking that the other value is of
+     * the same environment.
+     *
+     * @throws IllegalArgumentException
+     *             if the other value is of another environment
+     */
+    PositContext getContext(PositValue other) {
+        if (!getPositEnv().equals(other.getPositEnv())) {
+            throw new IllegalArgumentException("cannot combine " + other.getPositEnv() + " with " + getPositEnv());
+        }
+        return context;
+    }
+
+    /** Returns the common values of a context, indexed like {@link #getCommonPatterns}. */
+    static PositValue[] getCommonValues(PositContext context, LongFunction<PositValue> factory) {
+        return context.getTable(COMMON_TABLE, () -> {
+            final long[] patterns = getCommonPatterns(context);
+            final PositValue[] values = new PositValue[patterns.length];
+            for (int i = 0; i < patterns.length; i++) {
+                values[i] = factory.apply(patterns[i]);
+            }
+            return values;
+        });
+    }
+
+    /** Returns zero, one, -1, infinity, minPos, -minPos, maxPos and -maxPos. */
+    static long[] getCommonPatterns(PositContext context) {
+        return new long[] { 0L, context.getOne(), context.negate(context.getOne()), context.getInfinity(),
+                context.getMinPos(), context.negate(context.getMinPos()), context.getMaxPos(),
+                context.negate(context.getMaxPos()) };
+    }
+
+    /** Returns the common value of this pattern, or null. */
+    static PositValue findCommon(PositValue[] common, long pattern) {
+        for (PositValue value : common) {
+            if (value.pattern == pattern) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public PositContext getContext() {
+        return context;
+    }
+    public PositEnv getPositEnv() {
+        return context.getPositEnv();
+    }
+    /** Returns the pattern, right-aligned in a long. */
+    public long getPattern() {
+        return pattern;
+    }
+
+    // Number interface
+    @Override
+    public byte byteValue() {
+        return (byte) intValue();
+    }
+
+    @Override
+    public short shortValue() {
+        return (short) intValue();
+    }
+
+    @Override
+    public int intValue() {
+        final long value = longValue();
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    @Override
+    public long longValue() {
+        return context.toLong(pattern);
+    }
+
+    @Override
+    public float floatValue() {
+        return context.toFloat(pattern);
+    }
+
+    @Override
+    public double doubleValue() {
+        return context.toDouble(pattern);
+    }
+
+    @Override
+    public double doubleValueGustafson() {
+        return context.toDouble(pattern);
+    }
+
+    @Override
+    public BigDecimal toBigDecimal() {
+        return context.toBigDecimal(pattern);
+    }
+
+    @Override
+    public String stringValue() {
+        final String digits = Long.toBinaryString(pattern);
+        final StringBuilder bits = new StringBuilder(context.getBitSize());
+        for (int i = digits.length(); i < context.getBitSize(); i++) {
+            bits.append('0');
+        }
+        return bits.append(digits).toString();
+    }
+
+    // Conversion
+    /** Value types are immutable. */
+    @Override
+    public void parse(String s) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    // Math interface
+    @Override
+    public boolean isInfinite() {
+        return context.isInfinite(pattern);
+    }
+
+    @Override
+    public boolean isZero() {
+        return context.isZero(pattern);
+    }
+
+    // Comparable interface
+    /** Orders as {@link PositContext#compare}, infinity first, across environments by value. */
+    @Override
+    public int compareTo(Posit other) {
+        if (other instanceof PositValue && getPositEnv().equals(((PositValue) other).getPositEnv())) {
+            return context.compare(pattern, ((PositValue) other).pattern);
+        }
+        if (isInfinite() || other.isInfinite()) {
+            return Boolean.compare(!isInfinite(), !other.isInfinite());
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    // Object methods
+    @Override
+    public int hashCode() {
+        return 31 * getPositEnv().hashCode() + Long.hashCode(pattern);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PositValue) {
+            final PositValue other = (PositValue) obj;
+            return pattern == other.pattern && getPositEnv().equals(other.getPositEnv());
+        }
+        return false;
+    }
+
+    // Posit domain interface
+    @Override
+    public int getBitSize() {
+        return context.getBitSize();
+    }
+
+    @Override
+    public boolean isPositive() {
+        return pattern >>> (context.getBitSize() - 1) == 0L;
+    }
+
+    @Override
+    public boolean isExact() {
+        return PositDomain.isExact(stringValue());
+    }
+
+    @Override
+    public String getRegime() {
+        return getComponents()[PositEnum.REGIME.v()];
+    }
+
+    @Override
+    public int getRegimeK() {
+        return PositDomain.getRegimeK(getRegime());
+    }
+
+    @Override
+    public byte getMaxExponentSize() {
+        return (byte) context.getMaxExponentSize();
+    }
+
+    /** Value types are immutable. */
+    @Override
+    public void setMaxExponentSize(byte maxExponentSize) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public String getExponent() {
+        return getComponents()[PositEnum.EXPONENT.v()];
+    }
+
+    @Override
+    public String getFraction() {
+        return getComponents()[PositEnum.FRACTION.v()];
+    }
+
+    @Override
+    public double getFractionMultiplier() {
+        final int fs = getBitSize() - 3 - getMaxExponentSize();
+        if (fs < 1) {
+            return 0;
+        }
+        return fs;
+    }
+
+    @Override
+    public BigInteger getUseed() {
+        return PositEnv.getUseed(getMaxExponentSize());
+    }
+
+    private String[] getComponents() {
+        return PositDomain.getComponentsFlipNegative(stringValue(), getMaxExponentSize());
+    }
+
+    // Serialization
+    /**
+     * Serializes the environment and pattern. A registered environment resolves
+     * to its cached instance, otherwise to one unregistered environment shared
+     * by every value of the format, so reading never adds to the registry and
+     * values read back share their context and flyweights.
+     */
+    Object writeReplace() {
+        return new Serial(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException(getClass().getSimpleName() + " is serialized by its proxy");
+    }
+
+    /** Serialized form of the value types. */
+    static final class Serial implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte nBits;
+        private final byte maxEs;
+        private final long pattern;
+
+        Serial(PositValue value) {
+            this.nBits = (byte) value.getBitSize();
+            this.maxEs = value.getMaxExponentSize();
+            this.pattern = value.pattern;
+        }
+
+        private Object readResolve() throws InvalidObjectException {
+            try {
+                final PositEnv env = PositEnv.resolvePositEnv(nBits, maxEs);
+                switch ((int) env.getContainerBitSize()) {
+                case 8:
+                    return Posit8.valueOf(env, pattern);
+                case 16:
+                    return Posit16.valueOf(env, pattern);
+                case 32:
+                    return Posit32.valueOf(env, pattern);
+                default:
+                    return Posit64.valueOf(env, pattern);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+        }
+    }
+}
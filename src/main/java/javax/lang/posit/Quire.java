@@ -0,0 +1,447 @@
+package javax.lang.posit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * An exact accumulator of posit sums and products.
+ * <p>
+ * In the paper "Posit Arithmetic" Gustafson calls this the quire: a fixed point
+ * two's complement number of {@link PositEnv#getQuireSize()} bits whose least
+ * significant bit is minPos^2. Every product of two posits of the environment
+ * is a multiple of minPos^2 and at most maxPos^2, so sums of products are
+ * exact, with 31 carry guard bits against overflow. Rounding happens once, in
+ * {@link #toPattern()}.
+ * <p>
+ * The quire is held in little endian long limbs. The static kernels work on a
+ * range of a larger limb array so that many quires can share one array.
+ * <p>
+ * {@link #writeTo} writes a compact binary form, the environment and only the
+ * significant limbs, so partial sums of other processes can be read back with
+ * {@link #readFrom} or added exactly with {@link #merge}.
+ *
+ * @see PositContext
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class Quire {
+    private final PositContext context;
+    private final int nBits;
+    private final int maxEs;
+    /** Power of 2 of limb bit 0, the scale of minPos^2. */
+    private final int lsbScale;
+    private final long[] limbs;
+    private final long[] scratch;
+    private boolean infinite;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private Quire() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Constructs a zero quire for the posits of the given context.
+     *
+     * @param context context of the posits, and the rounding of {@link #toPattern()}
+     */
+    public Quire(PositContext context) {
+        this.context = context;
+        this.nBits = context.getBitSize();
+        this.maxEs = context.getMaxExponentSize();
+        this.lsbScale = getLsbScale(nBits, maxEs);
+        this.limbs = new long[getLimbCount(context.getPositEnv())];
+        this.scratch = new long[limbs.length];
+    }
+
+    public PositContext getContext() {
+        return context;
+    }
+
+    /** Returns the size of this quire in bits. */
+    public int getBitSize() {
+        return limbs.length << 6;
+    }
+
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    public boolean isZero() {
+        if (infinite) {
+            return false;
+        }
+        for (long limb : limbs) {
+            if (limb != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Sets this quire to zero. */
+    public void clear() {
+        Arrays.fill(limbs, 0L);
+        infinite = false;
+    }
+
+    /** Adds the posit x exactly. */
+    public void add(long x) {
+        addProduct(x, context.getOne());
+    }
+
+    /** Subtracts the posit x exactly. */
+    public void subtract(long x) {
+        addProduct(context.negate(x), context.getOne());
+    }
+
+    /** Adds the product x * y exactly. An infinite operand makes the quire infinite. */
+    public void addProduct(long x, long y) {
+        final long a = getSignedSignificand(x, nBits, maxEs);
+        final long b = getSignedSignificand(y, nBits, maxEs);
+        if (a == INFINITE || b == INFINITE) {
+            infinite = true;
+        } else if (a != 0L && b != 0L) {
+            addProduct(limbs, 0, limbs.length, a, getScale(x, nBits, maxEs), b, getScale(y, nBits, maxEs), lsbScale);
+        }
+    }
+
+    /** Subtracts the product x * y exactly. */
+    public void subtractProduct(long x, long y) {
+        addProduct(context.negate(x), y);
+    }
+
+    /**
+     * Adds another quire exactly, as when combining partial sums.
+     *
+     * @throws IllegalArgumentException
+     *             if the other quire is of another environment
+     */
+    public void add(Quire other) {
+        if (!context.getPositEnv().equals(other.context.getPositEnv())) {
+            throw new IllegalArgumentException("cannot add " + other + " to " + this);
+        }
+        infinite |= other.infinite;
+        add(other.limbs);
+    }
+
+    /** Adds the limbs of a quire of the same size. */
+    void add(long[] addend) {
+        long carry = 0L;
+        for (int i = 0; i < limbs.length; i++) {
+            final long old = limbs[i];
+            final long sum = old + addend[i] + carry;
+            carry = Long.compareUnsigned(sum, old) < 0 || (carry != 0L && sum == old) ? 1L : 0L;
+            limbs[i] = sum;
+        }
+    }
+
+    // Serialization
+    /** Flag of the serialized form for an infinite quire. */
+    static final int FLAG_INFINITE = 1;
+    /** Flag of the serialized form for limbs above the written range of all ones. */
+    static final int FLAG_NEGATIVE = 2;
+
+    /**
+     * Writes this quire: bit size, max exponent size, flags, the range
+     * [from, to) of limbs that are not zero or sign fill, and those limbs.
+     * Limbs below the range are zero and limbs above it are sign fill.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        final boolean negative = limbs[limbs.length - 1] < 0L;
+        final long fill = negative ? -1L : 0L;
+        int from = 0;
+        while (from < limbs.length && limbs[from] == 0L) {
+            from++;
+        }
+        int to = limbs.length;
+        while (to > from && limbs[to - 1] == fill) {
+            to--;
+        }
+        out.writeByte(nBits);
+        out.writeByte(maxEs);
+        out.writeByte((infinite ? FLAG_INFINITE : 0) | (negative ? FLAG_NEGATIVE : 0));
+        out.writeShort(from);
+        out.writeShort(to);
+        for (int i = from; i < to; i++) {
+            out.writeLong(limbs[i]);
+        }
+    }
+
+    /**
+     * Reads a quire written by {@link #writeTo}.
+     *
+     * @param context context of the written quire, and the rounding of {@link #toPattern()}
+     * @throws IllegalArgumentException
+     *             if the quire was written for another environment
+     * @throws StreamCorruptedException
+     *             if the limb range is not within the quire
+     */
+    public static Quire readFrom(DataInput in, PositContext context) throws IOException {
+        final Quire quire = new Quire(context);
+        quire.merge(in);
+        return quire;
+    }
+
+    /**
+     * Reads a quire written by {@link #writeTo} and adds it exactly, as when
+     * combining the partial sums of other processes.
+     *
+     * @throws IllegalArgumentException
+     *             if the quire was written for another environment
+     * @throws StreamCorruptedException
+     *             if the limb range is not within the quire
+     */
+    public void merge(DataInput in) throws IOException {
+        final int bits = in.readUnsignedByte();
+        final int es = in.readUnsignedByte();
+        final int flags = in.readUnsignedByte();
+        final int from = in.readUnsignedShort();
+        final int to = in.readUnsignedShort();
+        if (bits != nBits || es != maxEs) {
+            throw new IllegalArgumentException("cannot merge quire of nBits=" + bits + ", es=" + es + " to " + this);
+        }
+        if (from > to || to > limbs.length) {
+            throw new StreamCorruptedException("limbs [" + from + ", " + to + ") of " + limbs.length);
+        }
+        final long[] addend = new long[limbs.length];
+        for (int i = from; i < to; i++) {
+            addend[i] = in.readLong();
+        }
+        if ((flags & FLAG_NEGATIVE) != 0) {
+            Arrays.fill(addend, to, addend.length, -1L);
+        }
+        infinite |= (flags & FLAG_INFINITE) != 0;
+        add(addend);
+    }
+
+    /** Returns the posit of this quire, rounded once with the context rounding mode. */
+    public long toPattern() {
+        if (infinite) {
+            return context.getInfinity();
+        }
+        return toPattern(limbs, 0, limbs.length, scratch, nBits, maxEs, lsbScale, context.getRoundingMode());
+    }
+
+    /**
+     * Returns this quire divided by a positive integer, rounded once with the
+     * context rounding mode, as for the mean of the accumulated posits.
+     *
+     * @throws IllegalArgumentException
+     *             if the divisor is not positive
+     */
+    public long divideToPattern(long divisor) {
+        if (divisor <= 0L) {
+            throw new IllegalArgumentException("divisor " + divisor + " is not positive");
+        }
+        if (infinite) {
+            return context.getInfinity();
+        }
+        // The magnitude shifted up one limb, so the quotient keeps 64 bits below minPos^2.
+        final long[] quotient = new long[limbs.length + 1];
+        System.arraycopy(limbs, 0, quotient, 1, limbs.length);
+        final boolean negative = limbs[limbs.length - 1] < 0L;
+        if (negative) {
+            Bit.twosComplement(quotient);
+        }
+        // Restoring division, one bit at a time from the top, the remainder stays below the divisor.
+        long remainder = 0L;
+        for (int i = quotient.length - 1; i >= 0; i--) {
+            final long dividend = quotient[i];
+            long digits = 0L;
+            for (int bit = 63; bit >= 0; bit--) {
+                remainder = (remainder << 1) | (dividend >>> bit & 1L);
+                if (Long.compareUnsigned(remainder, divisor) >= 0) {
+                    remainder -= divisor;
+                    digits |= 1L << bit;
+                }
+            }
+            quotient[i] = digits;
+        }
+        // A remainder is sticky, far below the rounding position.
+        quotient[0] |= remainder != 0L ? 1L : 0L;
+        if (negative) {
+            Bit.twosComplement(quotient);
+        }
+        return toPattern(quotient, 0, quotient.length, new long[quotient.length], nBits, maxEs, lsbScale - 64,
+                context.getRoundingMode());
+    }
+
+    /**
+     * Returns the exact value of this quire.
+     *
+     * @throws ArithmeticException
+     *             if the quire is infinite
+     */
+    public BigDecimal toBigDecimal() {
+        if (infinite) {
+            throw new ArithmeticException("infinite quire has no BigDecimal value");
+        }
+        return new BigDecimal(toBigInteger()).multiply(PositEnv.powerOfTwo(lsbScale));
+    }
+
+    /** Returns the two's complement value of the limbs, in units of minPos^2. */
+    BigInteger toBigInteger() {
+        final byte[] bytes = new byte[limbs.length << 3];
+        for (int i = 0; i < limbs.length; i++) {
+            final long limb = limbs[limbs.length - 1 - i];
+            for (int j = 0; j < 8; j++) {
+                bytes[(i << 3) + j] = (byte) (limb >>> (56 - (j << 3)));
+            }
+        }
+        return new BigInteger(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "Quire: bits=" + getBitSize() + ", " + context + (infinite ? ", infinite" : "");
+    }
+
+    // Kernels
+    // A posit operand is decoded to a signed significand, the significand 1.f
+    // with its hidden bit at bit 62 negated for negative posits, and a scale.
+
+    /** Signed significand of the infinity pattern, no real significand has this value. */
+    static final long INFINITE = Long.MIN_VALUE;
+
+    /** Returns the number of limbs of a quire of this environment. */
+    static int getLimbCount(PositEnv env) {
+        return (int) (env.getQuireSize() >>> 6);
+    }
+
+    /** Returns the power of 2 of quire bit 0, the scale of minPos^2. */
+    static int getLsbScale(int nBits, int maxEs) {
+        return -2 * (Math.max(0, nBits - 2) << maxEs);
+    }
+
+    /** Returns the signed significand of a pattern, 0 for zero and {@link #INFINITE} for infinity. */
+    static long getSignedSignificand(long pattern, int nBits, int maxEs) {
+        final long p = pattern & Bit.mask(nBits);
+        final long infinity = 1L << (nBits - 1);
+        if (p == 0L) {
+            return 0L;
+        }
+        if (p == infinity) {
+            return INFINITE;
+        }
+        if ((p & infinity) == 0L) {
+            return PositDomain.getSignificand(p, nBits, maxEs);
+        }
+        return -PositDomain.getSignificand(Bit.twosComplement(p, nBits), nBits, maxEs);
+    }
+
+    /** Returns the scale of a pattern that is not zero or infinity. */
+    static int getScale(long pattern, int nBits, int maxEs) {
+        final long p = pattern & Bit.mask(nBits);
+        final long magnitude = (p & (1L << (nBits - 1))) == 0L ? p : Bit.twosComplement(p, nBits);
+        return PositDomain.getScale(magnitude, nBits, maxEs);
+    }
+
+    /**
+     * Adds the product of two nonzero signed significands to the quire in
+     * limbs[from, from + count).
+     */
+    static void addProduct(long[] limbs, int from, int count, long a, int scaleA, long b, int scaleB,
+            int lsbScale) {
+        final long magnitudeA = a < 0L ? -a : a;
+        final long magnitudeB = b < 0L ? -b : b;
+        long hi = Bit.unsignedMultiplyHigh(magnitudeA, magnitudeB);
+        long lo = magnitudeA * magnitudeB;
+        // The product has 124 fraction bits. Bits below the quire are zero, shift them out.
+        int offset = scaleA + scaleB - 124 - lsbScale;
+        if (offset < 0) {
+            final int shift = -offset;
+            if (shift >= 64) {
+                lo = hi >>> (shift - 64);
+                hi = 0L;
+            } else {
+                lo = (lo >>> shift) | (hi << (64 - shift));
+                hi >>>= shift;
+            }
+            offset = 0;
+        }
+        final int word = offset >>> 6;
+        final int bit = offset & 63;
+        final long w0 = lo << bit;
+        final long w1 = bit == 0 ? hi : (hi << bit) | (lo >>> (64 - bit));
+        final long w2 = bit == 0 ? 0L : hi >>> (64 - bit);
+        if ((a ^ b) >= 0L) {
+            long carry = 0L;
+            for (int i = word; i < count; i++) {
+                final int d = i - word;
+                final long w = d == 0 ? w0 : d == 1 ? w1 : d == 2 ? w2 : 0L;
+                if (d > 2 && carry == 0L) {
+                    break;
+                }
+                final long old = limbs[from + i];
+                final long sum = old + w + carry;
+                carry = Long.compareUnsigned(sum, old) < 0 || (carry != 0L && sum == old) ? 1L : 0L;
+                limbs[from + i] = sum;
+            }
+        } else {
+            long borrow = 0L;
+            for (int i = word; i < count; i++) {
+                final int d = i - word;
+                final long w = d == 0 ? w0 : d == 1 ? w1 : d == 2 ? w2 : 0L;
+                if (d > 2 && borrow == 0L) {
+                    break;
+                }
+                final long old = limbs[from + i];
+                final long difference = old - w - borrow;
+                borrow = Long.compareUnsigned(old, w) < 0 || (borrow != 0L && old == w) ? 1L : 0L;
+                limbs[from + i] = difference;
+            }
+        }
+    }
+
+    /**
+     * Rounds the quire in limbs[from, from + count) to a pattern.
+     *
+     * @param scratch work array of count limbs
+     */
+    static long toPattern(long[] limbs, int from, int count, long[] scratch, int nBits, int maxEs, int lsbScale,
+            RoundingMode mode) {
+        final boolean negative = limbs[from + count - 1] < 0L;
+        long[] magnitude = limbs;
+        int base = from;
+        if (negative) {
+            System.arraycopy(limbs, from, scratch, 0, count);
+            Bit.twosComplement(scratch);
+            magnitude = scratch;
+            base = 0;
+        }
+        int top = count - 1;
+        while (top >= 0 && magnitude[base + top] == 0L) {
+            top--;
+        }
+        if (top < 0) {
+            return 0L;
+        }
+        final int msb = (top << 6) + 63 - Long.numberOfLeadingZeros(magnitude[base + top]);
+        // Take the 63 bits from the leading one down as the significand, the rest is sticky.
+        final int low = msb - 62;
+        long significand;
+        boolean sticky = false;
+        if (low <= 0) {
+            significand = magnitude[base] << -low;
+        } else {
+            final int word = low >>> 6;
+            final int bit = low & 63;
+            significand = magnitude[base + word] >>> bit;
+            if (bit != 0 && word + 1 < count) {
+                significand |= magnitude[base + word + 1] << (64 - bit);
+            }
+            significand &= Long.MAX_VALUE;
+            sticky = bit != 0 && magnitude[base + word] << (64 - bit) != 0L;
+            for (int i = 0; i < word && !sticky; i++) {
+                sticky = magnitude[base + i] != 0L;
+            }
+        }
+        return PositDomain.encode(nBits, maxEs, negative, msb + lsbScale, significand, sticky, mode);
+    }
+}
@@ -0,0 +1,217 @@
+package javax.lang.posit;
+
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+/**
+ * Stochastic rounding for the posits of one environment, as used to train with
+ * low precision gradients.
+ * <p>
+ * An inexact result rounds up in magnitude with probability equal to its distance
+ * from the posit below, as a fraction of the gap to the posit above. The expected
+ * result is then the exact result, so small updates are not lost to rounding. As
+ * with all posits, results saturate at minPos and maxPos.
+ * <p>
+ * Posit patterns of fewer bits are prefixes of the 64 bit patterns with the same
+ * maximum exponent size. Each result is computed once in 64 bits rounding toward
+ * zero, and the low 64 - nBits bits are the fraction of a unit in the last place
+ * that decides the rounding. Random bits come from a {@link SplittableRandom}
+ * passed in by the caller, so runs are reproducible per seed and each thread can
+ * use its own split. Bits beyond the 64 bit result are ignored, which biases the
+ * rounding by less than 2^-32 units in the last place.
+ * <p>
+ * The distance is measured between patterns. Within the fraction field this is
+ * the distance between values. Where rounding cuts into the exponent field, near
+ * minPos and maxPos, the gap spans several binades and the distance is measured
+ * in binades.
+ *
+ * @see PositContext
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public final class StochasticContext {
+    /** Largest bit size, leaving at least 32 random bits per rounding. */
+    public static final int MAX_BITS = 32;
+
+    private final PositEnv env;
+    private final int nBits;
+    private final long mask;
+    private final long infinity;
+    /** Shift from patterns to 64 bit patterns. */
+    private final int shift;
+    /** 64 bit arithmetic of the same exponent size, rounding toward zero. */
+    private final PositContext wide;
+
+    // Constructors
+    @SuppressWarnings("unused")
+    private StochasticContext() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Constructs stochastic rounding for the posits of the environment.
+     *
+     * @param env environment of 2 to {@link #MAX_BITS} bits
+     * @throws IllegalArgumentException
+     *             if the environment is too wide or its exponents do not fit an int
+     */
+    public StochasticContext(PositEnv env) {
+        this.nBits = env.getBitSize();
+        if (nBits < 2 || nBits > MAX_BITS) {
+            throw new IllegalArgumentException("nBits=" + nBits + " is not 2 to " + MAX_BITS + " bits");
+        }
+        this.env = env;
+        this.mask = Bit.mask(nBits);
+        this.infinity = 1L << (nBits - 1);
+        this.shift = 64 - nBits;
+        this.wide = new PositContext(new PositEnv((byte) 64, (byte) env.getMaxExponentSize()), RoundingMode.DOWN);
+    }
+
+    public PositEnv getPositEnv() {
+        return env;
+    }
+    public int getBitSize() {
+        return nBits;
+    }
+    public int getMaxExponentSize() {
+        return env.getMaxExponentSize();
+    }
+
+    // Conversions
+    /** Returns the pattern of the given double rounded stochastically, NaN and infinities become infinity. */
+    public long fromDouble(double value, SplittableRandom random) {
+        return round(wide.fromDouble(value), random);
+    }
+
+    /**
+     * Rounds a 64 bit pattern of the same maximum exponent size stochastically
+     * to a pattern of this environment.
+     */
+    public long round(long pattern64, SplittableRandom random) {
+        if (pattern64 == 0L) {
+            return 0L;
+        }
+        if (pattern64 == Long.MIN_VALUE) {
+            return infinity;
+        }
+        final boolean negative = pattern64 < 0L;
+        final long magnitude = negative ? -pattern64 : pattern64;
+        long body = magnitude >>> shift;
+        final long rem = magnitude << nBits >>> nBits;
+        // Round up when the random fraction of a unit carries with the remainder.
+        if (rem != 0L && rem + (random.nextLong() >>> nBits) >>> shift != 0L) {
+            body++;
+        }
+        // Saturate, never round to zero or infinity.
+        if (body == 0L) {
+            body = 1L;
+        } else if (body == infinity) {
+            body = infinity - 1L;
+        }
+        return negative ? -body & mask : body;
+    }
+
+    // Arithmetic
+    /** Returns x + y, rounded stochastically. */
+    public long add(long x, long y, SplittableRandom random) {
+        return round(wide.add(widen(x), widen(y)), random);
+    }
+
+    /** Returns x - y, rounded stochastically. */
+    public long subtract(long x, long y, SplittableRandom random) {
+        return round(wide.subtract(widen(x), widen(y)), random);
+    }
+
+    /** Returns x * y, rounded stochastically. */
+    public long multiply(long x, long y, SplittableRandom random) {
+        return round(wide.multiply(widen(x), widen(y)), random);
+    }
+
+    /** Returns x / y, rounded stochastically. Division by zero returns infinity. */
+    public long divide(long x, long y, SplittableRandom random) {
+        return round(wide.divide(widen(x), widen(y)), random);
+    }
+
+    /** Returns x * y + z, rounded stochastically once. */
+    public long fma(long x, long y, long z, SplittableRandom random) {
+        return round(wide.fma(widen(x), widen(y), widen(z)), random);
+    }
+
+    // Array forms
+    // Results may be one of the inputs. Random bits are drawn in index order,
+    // one draw per inexact result, so a seed reproduces the whole array.
+
+    /**
+     * Sets result[i] to values[i] rounded stochastically.
+     *
+     * @throws IllegalArgumentException
+     *             if the array lengths differ
+     */
+    public void fromDouble(double[] values, long[] result, SplittableRandom random) {
+        if (values.length != result.length) {
+            throw new IllegalArgumentException("array lengths differ " + values.length + "," + result.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            result[i] = round(wide.fromDouble(values[i]), random);
+        }
+    }
+
+    /**
+     * Sets result[i] = x[i] + y[i], rounded stochastically.
+     *
+     * @throws IllegalArgumentException
+     *             if the array lengths differ
+     */
+    public void add(long[] x, long[] y, long[] result, SplittableRandom random) {
+        if (x.length != y.length || x.length != result.length) {
+            throw new IllegalArgumentException("array lengths differ " + x.length + "," + y.length + ","
+                    + result.length);
+        }
+        for (int i = 0; i < x.length; i++) {
+            result[i] = round(wide.add(widen(x[i]), widen(y[i])), random);
+        }
+    }
+
+    /**
+     * Sets result[i] = x[i] * y[i], rounded stochastically.
+     *
+     * @throws IllegalArgumentException
+     *             if the array lengths differ
+     */
+    public void multiply(long[] x, long[] y, long[] result, SplittableRandom random) {
+        if (x.length != y.length || x.length != result.length) {
+            throw new IllegalArgumentException("array lengths differ " + x.length + "," + y.length + ","
+                    + result.length);
+        }
+        for (int i = 0; i < x.length; i++) {
+            result[i] = round(wide.multiply(widen(x[i]), widen(y[i])), random);
+        }
+    }
+
+    /**
+     * Sets y[i] = alpha * x[i] + y[i], each rounded stochastically once, as in a
+     * gradient update.
+     *
+     * @throws IllegalArgumentException
+     *             if the array lengths differ
+     */
+    public void axpy(long alpha, long[] x, long[] y, SplittableRandom random) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("array lengths differ " + x.length + "," + y.length);
+        }
+        final long wideAlpha = widen(alpha);
+        for (int i = 0; i < x.length; i++) {
+            y[i] = round(wide.fma(wideAlpha, widen(x[i]), widen(y[i])), random);
+        }
+    }
+
+    /** Returns the 64 bit pattern of the same value, the pattern followed by zeros. */
+    private long widen(long pattern) {
+        return pattern << shift;
+    }
+
+    // Object methods
+    @Override
+    public String toString() {
+        return "StochasticContext: bits=" + nBits + ", maxEs=" + env.getMaxExponentSize();
+    }
+}
@@ -0,0 +1,116 @@
+package javax.lang.posit;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events of the posit library, used only when
+ * {@link PositMetrics#EVENTS} is true, so this class and jdk.jfr are not
+ * loaded otherwise.
+ * <p>
+ * This is the only class compiled for Java 11, from src/main/java11, and
+ * {@link PositMetrics} loads it by name. On Java 8 it fails to load and the
+ * counters run without events.
+ * <p>
+ * A periodic event records the {@link PositMetrics} counters once a second.
+ * Duration events record the builds of context tables and the construction
+ * of environments missing from the registry, the slow paths behind the
+ * first use of a format.
+ *
+ * @see PositMetrics
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+final class PositEvents implements PositMetrics.Recorder {
+    /** Registers the periodic counters event. */
+    PositEvents() {
+        FlightRecorder.addPeriodicEvent(CountersEvent.class, () -> {
+            final CountersEvent event = new CountersEvent();
+            event.conversions = PositMetrics.get(PositMetrics.Counter.CONVERSION);
+            event.operations = PositMetrics.get(PositMetrics.Counter.OPERATION);
+            event.roundings = PositMetrics.get(PositMetrics.Counter.ROUNDING);
+            event.saturations = PositMetrics.get(PositMetrics.Counter.SATURATION);
+            event.nars = PositMetrics.get(PositMetrics.Counter.NAR);
+            event.registryMisses = PositMetrics.get(PositMetrics.Counter.REGISTRY_MISS);
+            event.commit();
+        });
+    }
+
+    /** Builds a context table in a {@link TableBuildEvent}. */
+    @Override
+    public <T> T buildTable(PositContext context, String name, Supplier<T> builder) {
+        final TableBuildEvent event = new TableBuildEvent();
+        event.begin();
+        final T table = builder.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.context = context.toString();
+            event.table = name;
+            event.commit();
+        }
+        return table;
+    }
+
+    /** Records the construction of an environment missing from the registry. */
+    @Override
+    public PositEnv constructEnv(byte nBits, byte maxEs) {
+        final EnvCreatedEvent event = new EnvCreatedEvent();
+        event.begin();
+        final PositEnv env = new PositEnv(nBits, maxEs);
+        event.end();
+        if (event.shouldCommit()) {
+            event.nBits = nBits;
+            event.maxEs = maxEs;
+            event.commit();
+        }
+        return env;
+    }
+
+    @Name("javax.lang.posit.Counters")
+    @Label("Posit Counters")
+    @Category("Posit")
+    @Description("Counts of posit conversions, operations, roundings, saturations and NaRs")
+    @Period("1 s")
+    @StackTrace(false)
+    static final class CountersEvent extends Event {
+        @Label("Conversions")
+        long conversions;
+        @Label("Operations")
+        long operations;
+        @Label("Roundings")
+        long roundings;
+        @Label("Saturations")
+        long saturations;
+        @Label("NaRs")
+        long nars;
+        @Label("Registry Misses")
+        long registryMisses;
+    }
+
+    @Name("javax.lang.posit.TableBuild")
+    @Label("Posit Table Build")
+    @Category("Posit")
+    static final class TableBuildEvent extends Event {
+        @Label("Context")
+        String context;
+        @Label("Table")
+        String table;
+    }
+
+    @Name("javax.lang.posit.EnvCreated")
+    @Label("Posit Environment Created")
+    @Category("Posit")
+    static final class EnvCreatedEvent extends Event {
+        @Label("Bits")
+        int nBits;
+        @Label("Max Exponent Size")
+        int maxEs;
+    }
+}
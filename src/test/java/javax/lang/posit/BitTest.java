@@ -1,6 +1,11 @@
 package javax.lang.posit;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
 
 import org.junit.Test;
 
@@ -71,4 +76,81 @@ public class BitTest {
 
     }
 
+    @Test
+    public void primitiveTwosComplement() {
+        // Matches the String implementation for each width.
+        for (int i = 2; i < BINARY_TEST_CASES.length; i++) {
+            final String input = BINARY_TEST_CASES[i];
+            final int nBits = input.length();
+            final int value = Integer.parseInt(input, 2);
+            final int expected = Integer.parseInt(EXPECTED[i], 2);
+            assertEquals("int twos " + input, expected, Bit.twosComplement(value, nBits));
+            assertEquals("long twos " + input, (long) expected, Bit.twosComplement((long) value, nBits));
+        }
+        assertEquals(1L, Bit.twosComplement(-1L, 64));
+        final long[] limbs = { 1L, 0L };
+        Bit.twosComplement(limbs);
+        assertArrayEquals(new long[] { -1L, -1L }, limbs);
+        Bit.twosComplement(limbs);
+        assertArrayEquals(new long[] { 1L, 0L }, limbs);
+    }
+
+    @Test
+    public void leadingRun() {
+        assertEquals(1, Bit.leadingRun(0b0100, 4));
+        assertEquals(3, Bit.leadingRun(0b0001, 4));
+        assertEquals(4, Bit.leadingRun(0b0000, 4));
+        assertEquals(2, Bit.leadingRun(0b1101, 4));
+        assertEquals(4, Bit.leadingRun(0b1111, 4));
+        assertEquals(3, Bit.leadingRun(0b0001L, 4));
+        assertEquals(32, Bit.leadingRun(-1, 32));
+        assertEquals(64, Bit.leadingRun(0L, 64));
+        assertEquals(63, Bit.leadingRun(1L, 64));
+        // Runs across limbs.
+        assertEquals(70, Bit.leadingRun(new long[] { 1L << 57, 0L }, 128));
+        assertEquals(4, Bit.leadingRun(new long[] { 0L, 0b10L }, 70));
+        assertEquals(2, Bit.leadingRun(new long[] { -1L >>> 1, 0b11L }, 66));
+        assertEquals(66, Bit.leadingRun(new long[] { -1L, 0b11L }, 66));
+        assertEquals(128, Bit.leadingRun(new long[] { -1L, -1L }, 128));
+    }
+
+    @Test
+    public void fieldsAndShifts() {
+        assertEquals(0b101, Bit.bits(0b1011000, 4, 3));
+        assertEquals(0, Bit.bits(0b1011000, 3, 0));
+        assertEquals(0b101L, Bit.bits(0b1011000L, 4, 3));
+        assertEquals(-1L, Bit.bits(-1L, 0, 64));
+        assertEquals(0b1011L, Bit.bits(new long[] { 3L << 62, 0b10L }, 62, 4));
+        assertEquals(0b11L, Bit.bits(new long[] { 0L, 0b11L }, 64, 2));
+        assertEquals(1L << 62, Bit.pow2(62));
+        assertEquals(1L << 40, Bit.pow(2L, 40L));
+        assertEquals(1594323L, Bit.pow(3L, 13L));
+        try {
+            Bit.pow2(63);
+            fail("2^63 does not fit");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("63"));
+        }
+        final long[] limbs = { 0b1011L, 0L };
+        Bit.shiftLeft(limbs, 62);
+        assertArrayEquals(new long[] { 3L << 62, 0b10L }, limbs);
+        Bit.shiftLeft(limbs, 64);
+        assertArrayEquals(new long[] { 0L, 3L << 62 }, limbs);
+        Bit.shiftRight(limbs, 126);
+        assertArrayEquals(new long[] { 0b11L, 0L }, limbs);
+    }
+
+    @Test
+    public void unsignedMultiplyHigh() {
+        final long[] values = { 0L, 1L, 3L, 0xFFFFFFFFL, 1L << 62, (1L << 63) - 1, -1L, 0x123456789ABCDEFL, Long.MIN_VALUE };
+        final BigInteger two64 = BigInteger.ONE.shiftLeft(64);
+        for (long x : values) {
+            for (long y : values) {
+                final BigInteger product = new BigInteger(Long.toUnsignedString(x)).multiply(new BigInteger(Long.toUnsignedString(y)));
+                assertEquals(x + "*" + y, product.shiftRight(64).longValue(), Bit.unsignedMultiplyHigh(x, y));
+                assertEquals(product.mod(two64).longValue(), x * y);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,77 @@
+package javax.lang.posit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the posit8 dot product against a float32 dot product of
+ * the same values.
+ * <p>
+ * Run as {@link PositContextBenchmark}, with Posit8KernelsBenchmark as the
+ * benchmark name.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Posit8KernelsBenchmark {
+    @Param({ "0", "1" })
+    public int maxEs;
+
+    @Param({ "65536" })
+    public int length;
+
+    private Posit8Kernels kernels;
+    private byte[] x;
+    private byte[] y;
+    private float[] fx;
+    private float[] fy;
+
+    @Setup
+    public void setup() {
+        final PositEnv env = new PositEnv((byte) 8, (byte) maxEs);
+        final PositContext context = env.getContext();
+        kernels = new Posit8Kernels(env, context);
+        final Random random = new Random(299792458L);
+        x = new byte[length];
+        y = new byte[length];
+        fx = new float[length];
+        fy = new float[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = (byte) context.fromDouble(random.nextGaussian());
+            y[i] = (byte) context.fromDouble(random.nextGaussian());
+            fx[i] = context.toFloat(x[i]);
+            fy[i] = context.toFloat(y[i]);
+        }
+    }
+
+    @Benchmark
+    public long posit8Dot() {
+        return kernels.dot(x, 0, y, 0, length);
+    }
+
+    @Benchmark
+    public float float32Dot() {
+        float sum = 0.0f;
+        for (int i = 0; i < length; i++) {
+            sum += fx[i] * fy[i];
+        }
+        return sum;
+    }
+}
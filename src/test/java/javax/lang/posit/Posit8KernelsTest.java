@@ -0,0 +1,125 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class Posit8KernelsTest {
+
+    /** Returns random posit8 patterns near one, without infinity. */
+    private static byte[] randomPosits(PositContext context, Random random, int length) {
+        final byte[] posits = new byte[length];
+        for (int i = 0; i < length; i++) {
+            posits[i] = (byte) context.fromDouble(random.nextGaussian());
+        }
+        return posits;
+    }
+
+    /** Returns the dot product through a quire, rounded to the output context. */
+    private static long quireDot(PositContext input, PositContext output, byte[] x, int xFrom, byte[] y, int yFrom,
+            int length) {
+        final Quire quire = new Quire(input);
+        for (int i = 0; i < length; i++) {
+            quire.addProduct(x[xFrom + i], y[yFrom + i]);
+        }
+        if (quire.isInfinite()) {
+            return output.getInfinity();
+        }
+        return PositContextTest.round(output, quire.toBigDecimal());
+    }
+
+    @Test
+    public void dot() {
+        final Random random = new Random(96485332L);
+        for (int maxEs = 0; maxEs <= 1; maxEs++) {
+            final PositEnv env = new PositEnv((byte) 8, (byte) maxEs);
+            final PositContext input = env.getContext();
+            for (PositContext output : new PositContext[] { input, new PositEnv((byte) 16, (byte) 1).getContext() }) {
+                final Posit8Kernels kernels = new Posit8Kernels(env, output);
+                // Long enough to spill the es1 accumulator.
+                for (int length : new int[] { 0, 1, 7, 100, 20000 }) {
+                    final byte[] x = randomPosits(input, random, length);
+                    final byte[] y = randomPosits(input, random, length);
+                    assertEquals(env + " " + output + " length " + length, quireDot(input, output, x, 0, y, 0, length),
+                            kernels.dot(x, 0, y, 0, length));
+                }
+                // Batched against one vector.
+                final byte[] matrix = randomPosits(input, random, 5 * 33);
+                final byte[] vector = randomPosits(input, random, 33);
+                final Object out = PositArrays.newArray(output.getPositEnv(), 5);
+                kernels.dot(matrix, vector, 5, 33, out);
+                for (int r = 0; r < 5; r++) {
+                    assertEquals(quireDot(input, output, matrix, r * 33, vector, 0, 33),
+                            PositArrays.getPattern(output.getPositEnv(), out, r));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void convolve() {
+        final Random random = new Random(8314462L);
+        final PositEnv env = new PositEnv((byte) 8, (byte) 1);
+        final PositContext input = env.getContext();
+        final PositContext output = new PositEnv((byte) 16, (byte) 1).getContext();
+        final Posit8Kernels kernels = new Posit8Kernels(env, output);
+
+        final byte[] signal = randomPosits(input, random, 50);
+        final byte[] kernel = randomPosits(input, random, 5);
+        final short[] out = new short[46];
+        kernels.convolve(signal, 50, kernel, 5, out);
+        for (int i = 0; i < out.length; i++) {
+            assertEquals(quireDot(input, output, signal, i, kernel, 0, 5), PositArrays.getPattern(output.getPositEnv(), out, i));
+        }
+
+        final int height = 12;
+        final int width = 9;
+        final byte[] image = randomPosits(input, random, height * width);
+        final byte[] filter = randomPosits(input, random, 3 * 4);
+        final short[] feature = new short[(height - 2) * (width - 3)];
+        kernels.convolve(image, height, width, filter, 3, 4, feature);
+        final Quire quire = new Quire(input);
+        for (int r = 0; r < height - 2; r++) {
+            for (int c = 0; c < width - 3; c++) {
+                quire.clear();
+                for (int kr = 0; kr < 3; kr++) {
+                    for (int kc = 0; kc < 4; kc++) {
+                        quire.addProduct(image[(r + kr) * width + c + kc], filter[kr * 4 + kc]);
+                    }
+                }
+                assertEquals(PositContextTest.round(output, quire.toBigDecimal()), PositArrays.getPattern(output.getPositEnv(), feature, r * (width - 3) + c));
+            }
+        }
+        try {
+            kernels.convolve(signal, 50, kernel, 51, out);
+            fail("kernel longer than input");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("kernel"));
+        }
+    }
+
+    @Test
+    public void infinityAndEnvironments() {
+        final PositEnv env = new PositEnv((byte) 8, (byte) 0);
+        final Posit8Kernels kernels = new Posit8Kernels(env, env.getContext());
+        final byte[] x = { 0x40, (byte) 0x80, 0x40 };
+        final byte[] y = { 0x40, 0, 0x40 };
+        assertEquals(0x80L, kernels.dot(x, 0, y, 0, 3));
+        assertEquals(0x40L, kernels.dot(x, 2, y, 2, 1));
+        try {
+            new Posit8Kernels(new PositEnv((byte) 8, (byte) 2), env.getContext());
+            fail("posit8 es2 products do not fit a long");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("long"));
+        }
+    }
+}
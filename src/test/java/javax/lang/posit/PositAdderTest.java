@@ -0,0 +1,186 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositAdderTest {
+
+    @Test
+    public void concurrent() throws InterruptedException {
+        final int[][] envs = { { 8, 0 }, { 16, 1 }, { 32, 2 }, { 64, 3 } };
+        for (int[] bitsEs : envs) {
+            final PositEnv env = new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]);
+            final PositContext context = env.getContext();
+            final int threads = 8;
+            final int length = 5000;
+            final long[][] xs = new long[threads][length];
+            final long[][] ys = new long[threads][length];
+            final Random random = new Random(bitsEs[0]);
+            final Quire expected = new Quire(context);
+            for (int t = 0; t < threads; t++) {
+                for (int i = 0; i < length; i++) {
+                    xs[t][i] = finite(context, random.nextLong());
+                    ys[t][i] = finite(context, random.nextLong());
+                    expected.addProduct(xs[t][i], ys[t][i]);
+                    expected.subtract(xs[t][i]);
+                }
+            }
+            // Fewer cells than threads, so threads also contend within a cell.
+            final PositAdder adder = new PositAdder(context, 3);
+            assertEquals(4, adder.getStripeCount());
+            final CountDownLatch start = new CountDownLatch(1);
+            final Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                final long[] x = xs[t];
+                final long[] y = ys[t];
+                workers[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < length; i++) {
+                        adder.addProduct(x[i], y[i]);
+                        adder.subtract(x[i]);
+                    }
+                });
+                workers[t].start();
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            final BigDecimal exact = expected.toBigDecimal();
+            assertEquals(env.toString(), 0, exact.compareTo(adder.quireSum().toBigDecimal()));
+            assertEquals(env.toString(), PositContextTest.round(context, exact), adder.sum());
+            assertEquals(expected.toPattern(), adder.sumThenReset());
+            assertEquals(0L, adder.sum());
+        }
+    }
+
+    @Test
+    public void sumThenReset() throws InterruptedException {
+        // Integer partial sums are exact posits of 64 bits.
+        final PositContext context = new PositEnv((byte) 64, (byte) 3).getContext();
+        final PositAdder adder = new PositAdder(context, 2);
+        final long one = context.getOne();
+        final int threads = 4;
+        final int length = 20000;
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < length; i++) {
+                    adder.add(one);
+                }
+            });
+            workers[t].start();
+        }
+        // Sums moved out while writers run lose or repeat no add.
+        final Quire total = new Quire(context);
+        for (int i = 0; i < 100; i++) {
+            total.add(adder.sumThenReset());
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        total.add(adder.quireSum());
+        assertEquals(0, BigDecimal.valueOf(threads * length).compareTo(total.toBigDecimal()));
+    }
+
+    @Test
+    public void mixedSigns() throws InterruptedException {
+        // Adding minPos to -minPos carries through every limb, a reader must never see it half done.
+        final PositContext context16 = new PositEnv((byte) 16, (byte) 1).getContext();
+        mixedSigns(context16, context16.getMinPos());
+        // Adding one to -one carries through the upper limbs, small integer sums are exact.
+        final PositContext context32 = new PositEnv((byte) 32, (byte) 2).getContext();
+        final Quire total = mixedSigns(context32, context32.getOne());
+        assertTrue(total.toBigDecimal().toString(), total.isZero());
+    }
+
+    /**
+     * Runs writers that subtract and add the unit while sums are read and moved
+     * out, and returns the total moved out and left.
+     */
+    private static Quire mixedSigns(PositContext context, long unit) throws InterruptedException {
+        final PositAdder adder = new PositAdder(context, 1);
+        final int threads = 4;
+        final Quire bound = new Quire(context);
+        for (int t = 0; t < threads; t++) {
+            bound.add(unit);
+        }
+        final long high = bound.toPattern();
+        final long low = context.negate(high);
+        final AtomicBoolean done = new AtomicBoolean();
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                while (!done.get()) {
+                    adder.subtract(unit);
+                    adder.add(unit);
+                }
+            });
+            workers[t].start();
+        }
+        // Every sum of whole adds is within threads units of zero.
+        final Quire total = new Quire(context);
+        for (int i = 0; i < 1000; i++) {
+            final long sum = adder.sum();
+            assertTrue("sum " + context.toDouble(sum), context.compare(low, sum) <= 0 && context.compare(sum, high) <= 0);
+            final long moved = adder.sumThenReset();
+            assertTrue("moved " + context.toDouble(moved),
+                    context.compare(low, moved) <= 0 && context.compare(moved, high) <= 0);
+            total.add(moved);
+        }
+        done.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        total.add(adder.quireSum());
+        return total;
+    }
+
+    @Test
+    public void specialValues() {
+        final PositContext context = new PositEnv((byte) 16, (byte) 1).getContext();
+        final PositAdder adder = new PositAdder(context);
+        assertEquals(0L, adder.sum());
+        adder.add(context.getMaxPos());
+        adder.subtract(context.getMaxPos());
+        adder.add(context.getMinPos());
+        assertEquals(context.getMinPos(), adder.sum());
+        adder.add(context.getInfinity());
+        assertTrue(adder.isInfinite());
+        assertEquals(context.getInfinity(), adder.sumThenReset());
+        assertFalse(adder.isInfinite());
+        adder.add(context.getOne());
+        adder.reset();
+        assertEquals(0L, adder.sum());
+        try {
+            new PositAdder(context, 0);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("stripes=0"));
+        }
+    }
+
+    /** Returns a pattern of the context that is not infinity. */
+    private static long finite(PositContext context, long bits) {
+        final long pattern = bits & Bit.mask(context.getBitSize());
+        return context.isInfinite(pattern) ? 0L : pattern;
+    }
+}
@@ -0,0 +1,109 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositCodecTest {
+
+    @Test
+    public void roundTrip() {
+        final Random random = new Random(47L);
+        final int[][] envs = { { 5, 0 }, { 8, 0 }, { 16, 1 }, { 32, 2 }, { 64, 3 } };
+        for (int[] bitsEs : envs) {
+            final PositEnv env = new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]);
+            final PositContext context = env.getContext();
+            final int length = 3001;
+            final Object smooth = PositArrays.newArray(env, length);
+            final Object noise = PositArrays.newArray(env, length);
+            for (int i = 0; i < length; i++) {
+                // A sine crossing zero, and random patterns including infinity.
+                PositArrays.setPattern(smooth, i, context.fromDouble(Math.sin(i / 100.0)));
+                PositArrays.setPattern(noise, i, random.nextLong());
+            }
+            for (Object array : new Object[] { smooth, noise }) {
+                final PositCodec codec = new PositCodec(env, 1 + random.nextInt(500));
+                // Appended in two calls, decoded in one.
+                final ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxEncodedSize(1000)
+                        + codec.getMaxEncodedSize(length - 1000));
+                codec.encode(array, 0, 1000, buffer);
+                codec.encode(array, 1000, length, buffer);
+                buffer.flip();
+                final Object decoded = PositArrays.newArray(env, length);
+                assertEquals(length, codec.decode(buffer, decoded, 0));
+                assertArrayEquals(env.toString(), toPatterns(env, array), toPatterns(env, decoded));
+            }
+        }
+    }
+
+    @Test
+    public void compresses() {
+        final PositEnv env = new PositEnv((byte) 32, (byte) 2);
+        final PositContext context = env.getContext();
+        final int[] samples = new int[10000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (int) context.fromDouble(20.0 + Math.sin(i / 500.0));
+        }
+        final PositCodec codec = new PositCodec(env);
+        final ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxEncodedSize(samples.length));
+        codec.encode(samples, 0, samples.length, buffer);
+        assertTrue("bytes " + buffer.position(), buffer.position() < samples.length * 4 / 2);
+
+        // Constant runs take the header and the first pattern per block.
+        buffer.clear();
+        codec.encode(new int[1024], 0, 1024, buffer);
+        assertEquals(4 * (3 + 4), buffer.position());
+    }
+
+    @Test
+    public void malformed() {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        final PositCodec codec = new PositCodec(env, 16);
+        final ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxEncodedSize(100));
+        final short[] patterns = new short[100];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = (short) (i * i);
+        }
+        codec.encode(patterns, 0, patterns.length, buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+        try {
+            codec.decode(buffer, new short[100], 0);
+            fail("expected BufferUnderflowException");
+        } catch (BufferUnderflowException e) {
+            // truncated last block
+        }
+        try {
+            codec.decode(ByteBuffer.wrap(new byte[] { 0, 17, 4 }), new short[100], 0);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("block of 17"));
+        }
+        try {
+            new PositCodec(env, 0);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("blockSize=0"));
+        }
+    }
+
+    private static long[] toPatterns(PositEnv env, Object array) {
+        final long[] patterns = new long[PositArrays.getLength(array)];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = PositArrays.getPattern(env, array, i);
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,119 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositColumnReaderTest {
+    public static final String[] NUMBERS = { "0", "1", "-1", "1.5", "-0.25", "3.14159", "1e3", "2.5E-3", "+7",
+            "123456789012345678901234", "0.1", "1e-30", "-1e30", "6.02214076e23", "0.000001", ".5", "5." };
+
+    @Test
+    public void parseDouble() {
+        for (String number : NUMBERS) {
+            final byte[] bytes = (" " + number + " ").getBytes(StandardCharsets.US_ASCII);
+            assertEquals(number, Double.parseDouble(number), PositColumnReader.parseDouble(bytes, 0, bytes.length),
+                    0.0);
+        }
+        try {
+            final byte[] bytes = "1.2.3".getBytes(StandardCharsets.US_ASCII);
+            PositColumnReader.parseDouble(bytes, 0, bytes.length);
+            fail("1.2.3 should not parse");
+        } catch (NumberFormatException e) {
+            assertTrue(e.getMessage().length() > 0);
+        }
+    }
+
+    @Test
+    public void readColumns() throws IOException {
+        final int ROWS = 5000;
+        final Path path = Files.createTempFile("posit", ".csv");
+        try {
+            final StringBuilder sb = new StringBuilder("x,y,label\r\n");
+            for (int i = 0; i < ROWS; i++) {
+                sb.append(i * 0.5).append(',').append(NUMBERS[i % NUMBERS.length]).append(",row").append(i);
+                sb.append(i % 7 == 0 ? "\r\n" : "\n");
+                if (i % 100 == 0) {
+                    sb.append("\n");
+                }
+            }
+            Files.write(path, sb.toString().getBytes(StandardCharsets.US_ASCII));
+
+            final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+            final List<PositColumnReader.Block> blocks = new ArrayList<>();
+            final PositColumnReader reader = new PositColumnReader(env, 2, ',', true, 512, 3);
+            final PositColumnReader.Stats stats = reader.read(path, blocks::add);
+            assertEquals(ROWS, stats.getRows());
+            assertTrue(blocks.size() > 10);
+
+            long row = 0;
+            for (PositColumnReader.Block block : blocks) {
+                assertEquals(row, block.getFirstRow());
+                assertEquals(2, block.getColumns());
+                assertTrue(block.getColumn(0) instanceof short[]);
+                for (int i = 0; i < block.getRows(); i++, row++) {
+                    assertEquals(PositDomain.toPattern(row * 0.5, 16, 1), block.getPattern(0, i));
+                    final double expected = Double.parseDouble(NUMBERS[(int) (row % NUMBERS.length)]);
+                    assertEquals(PositDomain.toPattern(expected, 16, 1), block.getPattern(1, i));
+                }
+            }
+            assertEquals(ROWS, row);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void readWhitespace() throws IOException {
+        final Path path = Files.createTempFile("posit", ".txt");
+        try {
+            Files.write(path, "  1 \t 2\n3 4   \n\n5\t6".getBytes(StandardCharsets.US_ASCII));
+            final PositEnv env = new PositEnv((byte) 8, (byte) 0);
+            final List<PositColumnReader.Block> blocks = new ArrayList<>();
+            new PositColumnReader(env, 2, ' ', false, 64, 2).read(path, blocks::add);
+            assertEquals(1, blocks.size());
+            assertEquals(3, blocks.get(0).getRows());
+            assertEquals(PositDomain.toPattern(6.0, 8, 0), blocks.get(0).getPattern(1, 2));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void readErrors() throws IOException {
+        final Path path = Files.createTempFile("posit", ".csv");
+        try {
+            final PositEnv env = new PositEnv((byte) 32, (byte) 2);
+            Files.write(path, "1,2\n3\n".getBytes(StandardCharsets.US_ASCII));
+            try {
+                new PositColumnReader(env, 2).read(path, block -> { });
+                fail("missing field");
+            } catch (NumberFormatException e) {
+                assertTrue(e.getMessage().contains("missing field"));
+            }
+            Files.write(path, "1,2,3,4,5,6,7,8,9\n".getBytes(StandardCharsets.US_ASCII));
+            try {
+                new PositColumnReader(env, 1, ',', false, 8, 1).read(path, block -> { });
+                fail("long line");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("chunk size"));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
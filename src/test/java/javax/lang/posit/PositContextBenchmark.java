@@ -0,0 +1,96 @@
+package javax.lang.posit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the context arithmetic of the standard formats, each
+ * operation over arrays of patterns near one.
+ * <p>
+ * Run after mvn test-compile with
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main PositContextBenchmark
+ * </pre>
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositContextBenchmark {
+    /** Patterns per invocation. */
+    static final int LENGTH = 1024;
+
+    @Param({ "8,0", "16,1", "32,2" })
+    public String format;
+
+    private PositContext context;
+    private final long[] x = new long[LENGTH];
+    private final long[] y = new long[LENGTH];
+    private final long[] z = new long[LENGTH];
+
+    @Setup
+    public void setup() {
+        final String[] bitsEs = format.split(",");
+        final PositEnv env = new PositEnv(Byte.parseByte(bitsEs[0]), Byte.parseByte(bitsEs[1]));
+        context = env.getContext();
+        final Random random = new Random(LENGTH);
+        for (int i = 0; i < LENGTH; i++) {
+            x[i] = context.fromDouble(random.nextGaussian());
+            y[i] = context.fromDouble(random.nextGaussian());
+            z[i] = context.fromDouble(random.nextGaussian());
+        }
+    }
+
+    @Benchmark
+    public long add() {
+        long sum = 0L;
+        for (int i = 0; i < LENGTH; i++) {
+            sum += context.add(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long multiply() {
+        long sum = 0L;
+        for (int i = 0; i < LENGTH; i++) {
+            sum += context.multiply(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long divide() {
+        long sum = 0L;
+        for (int i = 0; i < LENGTH; i++) {
+            sum += context.divide(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long fma() {
+        long sum = 0L;
+        for (int i = 0; i < LENGTH; i++) {
+            sum += context.fma(x[i], y[i], z[i]);
+        }
+        return sum;
+    }
+}
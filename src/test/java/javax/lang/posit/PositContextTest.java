@@ -0,0 +1,319 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositContextTest {
+
+    @Test
+    public void arithmeticExhaustive() {
+        // Small posits are exact in doubles, and rounding a correctly rounded double is safe.
+        for (int maxEs = 0; maxEs <= 3; maxEs++) {
+            final PositContext context = new PositContext(new PositEnv((byte) 8, (byte) maxEs));
+            for (long x = 0; x < 256; x++) {
+                for (long y = 0; y < 256; y++) {
+                    assertArithmetic(context, x, y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void arithmeticRandom() {
+        final Random random = new Random(2718281828L);
+        final int[][] envs = { { 16, 1 }, { 16, 2 }, { 24, 2 }, { 12, 0 } };
+        for (int[] bitsEs : envs) {
+            final PositContext context = new PositContext(new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]));
+            for (int i = 0; i < 100000; i++) {
+                assertArithmetic(context, random.nextLong(), random.nextLong());
+            }
+        }
+    }
+
+    private static void assertArithmetic(PositContext context, long x, long y) {
+        final int nBits = context.getBitSize();
+        final int maxEs = context.getMaxExponentSize();
+        final double a = context.toDouble(x);
+        final double b = context.toDouble(y);
+        final String message = context + " x=" + a + " y=" + b;
+        assertEquals(message + " add", PositDomain.toPattern(a + b, nBits, maxEs), context.add(x, y));
+        assertEquals(message + " subtract", PositDomain.toPattern(a - b, nBits, maxEs), context.subtract(x, y));
+        assertEquals(message + " multiply", PositDomain.toPattern(a * b, nBits, maxEs), context.multiply(x, y));
+        final double quotient = b == 0.0 || Double.isInfinite(b) ? Double.NaN : a / b;
+        assertEquals(message + " divide", PositDomain.toPattern(quotient, nBits, maxEs), context.divide(x, y));
+    }
+
+    @Test
+    public void arithmetic64() {
+        // Rounded exact values, beyond double precision.
+        final Random random = new Random(31415926L);
+        for (int maxEs = 0; maxEs <= 3; maxEs++) {
+            final PositContext context = new PositContext(new PositEnv((byte) 64, (byte) maxEs));
+            for (int i = 0; i < 2000; i++) {
+                // Keep values near one, where products and quotients carry full fractions.
+                final long x = context.fromDouble(Math.scalb(random.nextDouble() + 0.5, random.nextInt(9) - 4))
+                        ^ random.nextInt(1 << 20);
+                final long y = context.fromDouble(Math.scalb(random.nextDouble() - 0.5, random.nextInt(9) - 4))
+                        ^ random.nextInt(1 << 20);
+                final BigDecimal a = context.toBigDecimal(x);
+                final BigDecimal b = context.toBigDecimal(y);
+                assertRounded(context, a.add(b), BigDecimal.ONE, context.add(x, y));
+                assertRounded(context, a.subtract(b), BigDecimal.ONE, context.subtract(x, y));
+                assertRounded(context, a.multiply(b), BigDecimal.ONE, context.multiply(x, y));
+                assertRounded(context, a, b, context.divide(x, y));
+            }
+        }
+    }
+
+    /** Asserts result is numerator / denominator rounded to nearest even pattern. */
+    private static void assertRounded(PositContext context, BigDecimal numerator, BigDecimal denominator, long result) {
+        assertEquals(context + " " + numerator + "/" + denominator, round(context, numerator, denominator), result);
+    }
+
+    /** Returns the exact value rounded to nearest even pattern. */
+    static long round(PositContext context, BigDecimal exact) {
+        return round(context, exact, BigDecimal.ONE);
+    }
+
+    /**
+     * Returns numerator / denominator rounded to nearest even pattern.
+     * Posits round on the bit string, the tie point between two neighbours is the
+     * posit of one more bit between them. With truncated exponent bits this is
+     * not the midpoint of their values.
+     */
+    static long round(PositContext context, BigDecimal numerator, BigDecimal denominator) {
+        if (numerator.signum() == 0) {
+            return 0L;
+        }
+        final boolean negative = numerator.signum() != denominator.signum();
+        final BigDecimal magnitude = numerator.abs();
+        final BigDecimal divisor = denominator.abs();
+        // Bisect for low <= magnitude < high, infinity standing for beyond maxPos.
+        long low = 0L;
+        long high = context.getInfinity();
+        while (Long.compareUnsigned(high - low, 1L) > 0) {
+            final long middle = (low + high) >>> 1;
+            if (context.toBigDecimal(middle).multiply(divisor).compareTo(magnitude) <= 0) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        long expected;
+        if (low == 0L) {
+            expected = context.getMinPos();
+        } else if (high == context.getInfinity()
+                || context.toBigDecimal(low).multiply(divisor).compareTo(magnitude) == 0) {
+            expected = low;
+        } else {
+            final int tieBits = context.getBitSize() + 1;
+            final BigDecimal tie;
+            if (tieBits <= 64) {
+                tie = PositDomain.toBigDecimal(2L * low + 1L, new PositEnv((byte) tieBits, (byte) context.getMaxExponentSize()));
+            } else {
+                final String tiePattern = String.format("%" + tieBits + "s", Long.toBinaryString(2L * low + 1L)).replace(' ', '0');
+                tie = new PositStringImpl(tiePattern, context.getMaxExponentSize()).toBigDecimal();
+            }
+            final int compare = magnitude.compareTo(tie.multiply(divisor));
+            expected = compare < 0 ? low : compare > 0 ? high : (low & 1L) == 0L ? low : high;
+        }
+        return negative ? context.negate(expected) : expected;
+    }
+
+    @Test
+    public void specialValues() {
+        final PositContext context = new PositContext(new PositEnv((byte) 16, (byte) 1));
+        final long inf = context.getInfinity();
+        final long one = context.getOne();
+        assertEquals(1.0, context.toDouble(one), 0.0);
+        assertEquals(inf, context.add(inf, one));
+        assertEquals(inf, context.multiply(0L, inf));
+        assertEquals(inf, context.divide(one, 0L));
+        assertEquals(0L, context.divide(0L, one));
+        assertEquals(0L, context.subtract(one, one));
+        assertEquals(inf, context.negate(inf));
+        assertEquals(0L, context.negate(0L));
+        assertEquals(one, context.abs(context.negate(one)));
+        assertTrue(context.isNegative(context.negate(one)));
+        assertTrue(!context.isNegative(inf));
+        // Saturation at maxPos and minPos.
+        assertEquals(context.getMaxPos(), context.multiply(context.getMaxPos(), context.getMaxPos()));
+        assertEquals(context.getMinPos(), context.divide(context.getMinPos(), context.getMaxPos()));
+        // Ordering with infinity below everything.
+        assertTrue(context.compare(inf, context.negate(context.getMaxPos())) < 0);
+        assertTrue(context.compare(context.negate(one), 0L) < 0);
+        assertTrue(context.compare(one, context.getMaxPos()) < 0);
+        assertEquals(0, context.compare(one, one | 0xFFFF0000L));
+    }
+
+    @Test
+    public void conversions() {
+        final PositContext context = new PositContext(new PositEnv((byte) 32, (byte) 2));
+        final long[] values = { 0, 1, -1, 7, 1000, -123456, 1L << 40, (1L << 53) + 1, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long value : values) {
+            assertEquals(Long.toString(value), context.fromDouble(value), context.fromLong(value));
+        }
+        final PositContext wide = new PositContext(new PositEnv((byte) 64, (byte) 0));
+        assertEquals(1000001L, wide.toLong(wide.fromLong(1000001L)));
+        assertEquals(1L << 62, wide.toLong(wide.fromLong(Long.MAX_VALUE)));
+        assertEquals(0.15625f, context.toFloat(context.fromDouble(0.15625)), 0.0f);
+        assertEquals(0, new BigDecimal("-2.5").compareTo(context.toBigDecimal(context.fromDouble(-2.5))));
+        // Table and computed decoding agree.
+        final PositContext small = new PositContext(new PositEnv((byte) 10, (byte) 1));
+        for (long pattern = 0; pattern < 1024; pattern++) {
+            assertEquals(PositDomain.toDouble(pattern, 10, 1), small.toDouble(pattern), 0.0);
+        }
+    }
+
+    @Test
+    public void roundingModes() {
+        final PositEnv env = new PositEnv((byte) 8, (byte) 0);
+        final PositContext floor = new PositContext(env, RoundingMode.FLOOR);
+        final PositContext ceiling = new PositContext(env, RoundingMode.CEILING);
+        final PositContext down = new PositContext(env, RoundingMode.DOWN);
+        final PositContext up = new PositContext(env, RoundingMode.UP);
+        final Random random = new Random(1618033L);
+        for (int i = 0; i < 10000; i++) {
+            final double value = (random.nextDouble() - 0.5) * 100.0;
+            final long low = floor.fromDouble(value);
+            final long high = ceiling.fromDouble(value);
+            // Except where saturating at minPos.
+            assertTrue(value + " floor", floor.toDouble(low) <= value || low == floor.getMinPos());
+            assertTrue(value + " ceiling", ceiling.toDouble(high) >= value || high == ceiling.negate(1L));
+            assertTrue(value + " adjacent", high == low || ((high - low) & 0xFF) == 1L);
+            assertEquals(value + " down", value < 0 ? high : low, down.fromDouble(value));
+            assertEquals(value + " up", value < 0 ? low : high, up.fromDouble(value));
+        }
+        // Posits never round to zero, even toward zero.
+        assertEquals(1L, down.fromDouble(1e-9));
+        // A third is not exact.
+        final PositContext exact = new PositContext(env, RoundingMode.UNNECESSARY);
+        assertEquals(exact.fromDouble(0.75), exact.add(exact.fromDouble(0.5), exact.fromDouble(0.25)));
+        try {
+            exact.divide(exact.getOne(), exact.fromLong(3));
+            fail("1/3 should round");
+        } catch (ArithmeticException e) {
+            assertTrue(e.getMessage().contains("Rounding"));
+        }
+    }
+
+    @Test
+    public void contextAndTables() {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        final PositContext context = env.getContext();
+        assertSame(context, env.getContext());
+        assertEquals(new PositContext(env), context);
+        assertEquals(RoundingMode.HALF_EVEN, context.getRoundingMode());
+        final int[] table = context.getTable("squares", () -> new int[] { 0, 1, 4, 9 });
+        assertSame(table, context.getTable("squares", () -> new int[0]));
+        try {
+            new PositContext(new PositEnv((byte) 65, (byte) 2));
+            fail("65 bits has no primitive pattern");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("65"));
+        }
+    }
+
+    @Test
+    public void fmaExhaustive() {
+        // Products of posit8 es0 are exact in doubles, and so is the sum.
+        final PositContext context = new PositContext(new PositEnv((byte) 8, (byte) 0));
+        for (long x = 0; x < 256; x++) {
+            for (long y = 0; y < 256; y++) {
+                for (long z = 0; z < 256; z++) {
+                    final double a = context.toDouble(x);
+                    final double b = context.toDouble(y);
+                    final double c = context.toDouble(z);
+                    final long expected = Double.isInfinite(a) || Double.isInfinite(b) || Double.isInfinite(c)
+                            ? context.getInfinity() : context.fromDouble(a * b + c);
+                    if (expected != context.fma(x, y, z)) {
+                        fail("fma " + a + "*" + b + "+" + c + " expected " + expected + " was " + context.fma(x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fmaRandom() {
+        final Random random = new Random(577215664L);
+        final int[][] envs = { { 16, 1 }, { 16, 2 }, { 12, 3 } };
+        for (int[] bitsEs : envs) {
+            final PositContext context = new PositContext(new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]));
+            for (int i = 0; i < 50000; i++) {
+                final long x = random.nextLong();
+                final long y = random.nextLong();
+                final long z = random.nextLong();
+                if (context.isInfinite(x) || context.isInfinite(y) || context.isInfinite(z)) {
+                    continue;
+                }
+                // A double reference would round twice here, compare with the exact value.
+                final BigDecimal exact = context.toBigDecimal(x).multiply(context.toBigDecimal(y))
+                        .add(context.toBigDecimal(z));
+                final long result = context.fma(x, y, z);
+                assertRounded(context, exact, BigDecimal.ONE, result);
+            }
+        }
+        // Wide formats against the exact value, including cancellation of a product near -z.
+        for (int maxEs = 0; maxEs <= 3; maxEs++) {
+            final PositContext context = new PositContext(new PositEnv((byte) 64, (byte) maxEs));
+            for (int i = 0; i < 3000; i++) {
+                final long x = context.fromDouble(Math.scalb(random.nextDouble() + 0.5, random.nextInt(41) - 20))
+                        ^ random.nextInt(1 << 20);
+                final long y = context.fromDouble(Math.scalb(random.nextDouble() - 0.5, random.nextInt(41) - 20))
+                        ^ random.nextInt(1 << 20);
+                long z = context.fromDouble(Math.scalb(random.nextDouble() - 0.5, random.nextInt(41) - 20));
+                if (i % 3 == 0) {
+                    z = context.negate(context.multiply(x, y)) ^ random.nextInt(4);
+                }
+                final BigDecimal exact = context.toBigDecimal(x).multiply(context.toBigDecimal(y))
+                        .add(context.toBigDecimal(z));
+                final long result = context.fma(x, y, z);
+                assertRounded(context, exact, BigDecimal.ONE, result);
+            }
+        }
+    }
+
+    @Test
+    public void arrayForms() {
+        final PositContext context = new PositEnv((byte) 32, (byte) 2).getContext();
+        final double[] values = { 0.5, -1.25, 3.0, 1e-3, 1e6, -7.75 };
+        final long[] x = new long[values.length];
+        final long[] y = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            x[i] = context.fromDouble(values[i]);
+            y[i] = context.fromDouble(values.length - i);
+        }
+        final long alpha = context.fromDouble(-2.0);
+        final long[] expected = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            expected[i] = context.fma(alpha, x[i], y[i]);
+        }
+        final long[] sums = new long[values.length];
+        context.mulAdd(x, x, y, sums);
+        context.axpy(alpha, x, y);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(expected[i], y[i]);
+            assertEquals(context.fromDouble(values[i] * values[i] + (values.length - i)), sums[i]);
+        }
+        try {
+            context.axpy(alpha, x, new long[1]);
+            fail("lengths differ");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("lengths"));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import org.junit.Before;
 import org.junit.Test;
@@ -1344,6 +1345,131 @@ public class PositDomainTest {
         assertTrue(equals(p.doubleValue(), 0.000003553926944732666, COMPARE_PRECISION));        
     }
 
+    /**
+     * Primitive patterns decode to the Gustafson value of the String implementation,
+     * and every pattern encodes back to itself.
+     */
+    @Test
+    public void patternRoundTrip() {
+        for (int nBits = 2; nBits <= 12; nBits++) {
+            for (int maxEs = 0; maxEs <= 3; maxEs++) {
+                for (long pattern = 0; pattern < 1L << nBits; pattern++) {
+                    final String instance = String.format("%" + nBits + "s", Long.toBinaryString(pattern)).replace(" ", "0");
+                    final double expected = new PositStringImpl(instance, maxEs).doubleValueGustafson();
+                    final double returned = PositDomain.toDouble(pattern, nBits, maxEs);
+                    assertEquals("toDouble " + instance + " es" + maxEs, expected, returned, 0.0);
+                    if (!Double.isInfinite(returned)) {
+                        assertEquals("toPattern " + instance + " es" + maxEs, pattern,
+                                PositDomain.toPattern(returned, nBits, maxEs));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void patternRounding() {
+        // 5 bit es1 around 1.0: 0 10 0 0=1.0, 0 10 0 1=1.5, 0 10 1 0=2.0
+        assertEquals(0b01000, PositDomain.toPattern(1.25, 5, 1)); // tie to even
+        assertEquals(0b01001, PositDomain.toPattern(1.2500001, 5, 1));
+        assertEquals(0b01010, PositDomain.toPattern(1.75, 5, 1)); // tie to even
+        assertEquals(0b11000, PositDomain.toPattern(-1.0, 5, 1));
+        // Saturate, never round to zero or infinity.
+        assertEquals(0b01111, PositDomain.toPattern(1e300, 5, 1));
+        assertEquals(0b00001, PositDomain.toPattern(Double.MIN_VALUE, 5, 1));
+        assertEquals(0b11111, PositDomain.toPattern(-Double.MIN_VALUE, 5, 1));
+        assertEquals(0b10000, PositDomain.toPattern(Double.NaN, 5, 1));
+        assertEquals(0L, PositDomain.toPattern(-0.0, 5, 1));
+        // Paper example, 16 bit es3.
+        assertEquals(0b0000110111011101, PositDomain.toPattern(477.0 / 134217728.0, 16, 3));
+        assertEquals(477.0 / 134217728.0, PositDomain.toDouble(0b0000110111011101, 16, 3), 0.0);
+        // 32 and 64 bit.
+        assertEquals(Math.PI, PositDomain.toDouble(PositDomain.toPattern(Math.PI, 64, 2), 64, 2), 0.0);
+        assertEquals((float) Math.PI, PositDomain.toDouble(PositDomain.toPattern(Math.PI, 32, 2), 32, 2), 1e-7);
+        assertEquals(-1.0, PositDomain.toDouble(PositDomain.toPattern(-1.0, 64, 3), 64, 3), 0.0);
+    }
+
+    @Test
+    public void patternBigDecimal() {
+        final int registered = PositEnv.getRegistrySize();
+        // Exact for every pattern of small environments, where doubles are exact too.
+        for (int nBits = 2; nBits <= 10; nBits++) {
+            for (int maxEs = 0; maxEs <= 3; maxEs++) {
+                final PositEnv env = new PositEnv((byte) nBits, (byte) maxEs);
+                for (long pattern = 0; pattern < 1L << nBits; pattern++) {
+                    if (pattern == 1L << (nBits - 1)) {
+                        continue;
+                    }
+                    final String instance = String.format("%" + nBits + "s", Long.toBinaryString(pattern)).replace(" ", "0");
+                    final BigDecimal expected = new BigDecimal(PositDomain.toDouble(pattern, nBits, maxEs));
+                    assertEquals("pattern " + instance + " es" + maxEs, 0,
+                            expected.compareTo(PositDomain.toBigDecimal(pattern, env)));
+                    assertEquals("String " + instance + " es" + maxEs, 0,
+                            expected.compareTo(new PositStringImpl(instance, maxEs).toBigDecimal()));
+                }
+            }
+        }
+        // Beyond double precision, 64 bit es0 1 + 2^-61 and -(maxPos - 1).
+        final PositEnv env = new PositEnv((byte) 64, (byte) 0);
+        final BigDecimal onePlus = BigDecimal.ONE.add(PositEnv.powerOfTwo(-61));
+        assertEquals(0, onePlus.compareTo(PositDomain.toBigDecimal(0x4000000000000001L, env)));
+        final String instance = "0" + "10" + String.format("%61s", "1").replace(" ", "0");
+        assertEquals(0, onePlus.compareTo(new PositStringImpl(instance, 0).toBigDecimal()));
+        assertEquals(0, PositEnv.powerOfTwo(-62).compareTo(PositDomain.toBigDecimal(1L, env)));
+        assertEquals(0, PositEnv.powerOfTwo(62).negate().compareTo(PositDomain.toBigDecimal(0x8000000000000001L, env)));
+        // 80 bit String, beyond primitives: 1 + 2^-77.
+        final String wide = "0" + "10" + String.format("%77s", "1").replace(" ", "0");
+        assertEquals(0, BigDecimal.ONE.add(PositEnv.powerOfTwo(-77)).compareTo(new PositStringImpl(wide, 0).toBigDecimal()));
+        // Converting values does not register environments.
+        assertEquals(registered, PositEnv.getRegistrySize());
+    }
+
+    @Test
+    public void patternNarrowing() {
+        // Small environments are exact in a double, so the double casts are references.
+        for (int nBits = 2; nBits <= 12; nBits++) {
+            for (int maxEs = 0; maxEs <= 3; maxEs++) {
+                for (long pattern = 0; pattern < 1L << nBits; pattern++) {
+                    final String instance = String.format("%" + nBits + "s", Long.toBinaryString(pattern)).replace(" ", "0");
+                    final double value = PositDomain.toDouble(pattern, nBits, maxEs);
+                    final String message = instance + " es" + maxEs;
+                    assertEquals(message, (long) value, PositDomain.toLong(pattern, nBits, maxEs));
+                    assertEquals(message, (float) value, PositDomain.toFloat(pattern, nBits, maxEs), 0.0f);
+                    final Posit posit = new PositStringImpl(instance, maxEs);
+                    assertEquals(message, (long) value, posit.longValue());
+                    assertEquals(message, (int) value, posit.intValue());
+                    assertEquals(message, Double.valueOf(value).shortValue(), posit.shortValue());
+                    assertEquals(message, Double.valueOf(value).byteValue(), posit.byteValue());
+                    assertEquals(message, (float) value, posit.floatValue(), 0.0f);
+                }
+            }
+        }
+        // 64 bit saturation and truncation toward zero.
+        assertEquals(Long.MAX_VALUE, PositDomain.toLong(0x7fffffffffffffffL, 64, 2));
+        assertEquals(Long.MIN_VALUE, PositDomain.toLong(0x8000000000000001L, 64, 2));
+        assertEquals(1L << 62, PositDomain.toLong(0x7fffffffffffffffL, 64, 0));
+        assertEquals(-1L, PositDomain.toLong(PositDomain.toPattern(-1.75, 64, 1), 64, 1));
+        assertEquals(Float.POSITIVE_INFINITY, PositDomain.toFloat(0x7fffffffffffffffL, 64, 2), 0.0f);
+        // Rounds once: 1 + 2^-24 + 2^-61 is above the float tie and rounds up.
+        final long above = 0x4000000000000000L | 1L << 37 | 1L;
+        assertEquals(1.0f + 0x1p-23f, PositDomain.toFloat(above, 64, 0), 0.0f);
+        assertEquals(1.0f, PositDomain.toFloat(above & ~1L, 64, 0), 0.0f);
+        // Float subnormals round to the nearest multiple of 2^-149.
+        for (double value : new double[] { 0x1p-149, 0x1.8p-149, 0x1.4p-140, 0x1.7p-130, 0x1p-150, 0x1.0001p-150 }) {
+            assertEquals(Double.toString(value), (float) value,
+                    PositDomain.toFloat(PositDomain.toPattern(value, 64, 3), 64, 3), 0.0f);
+        }
+        // 128 bit String integer part beyond 53 bits: 2^60 + 2^50 + 1 + 2^-1 + 2^-5.
+        final String regime = String.format("%61s", "").replace(' ', '1') + "0";
+        final char[] fraction = String.format("%65s", "").replace(' ', '0').toCharArray();
+        for (int power : new int[] { 50, 0, -1, -5 }) {
+            fraction[59 - power] = '1';
+        }
+        final Posit wide = new PositStringImpl("0" + regime + new String(fraction), 0);
+        assertEquals(wide.toBigDecimal().toBigInteger().longValueExact(), wide.longValue());
+        assertEquals((1L << 60) + (1L << 50) + 1L, wide.longValue());
+    }
+
     // Scalar product a.b = sum a1b1+a2b2+...+anbn
     // [1,3,-5].[4,-2,-2] = 1.4 + 3.-2 + (-5.-1)=3
     //
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -96,4 +97,50 @@ public class PositEnvTest {
         assertEquals( Integer.toHexString(pi2.hashCode()), Integer.toHexString(pi3.hashCode()) );
     }
 
+    @Test
+    public void quireSize() {
+        // Standard sizes from "Posit Arithmetic", page 83.
+        assertEquals( 64L, PositEnv.getQuireSize( (byte) 8, (byte) 0 ));
+        assertEquals( 256L, PositEnv.getQuireSize( (byte) 16, (byte) 1 ));
+        assertEquals( 512L, PositEnv.getQuireSize( (byte) 32, (byte) 2 ));
+        assertEquals( 2048L, PositEnv.getQuireSize( (byte) 64, (byte) 3 ));
+        // Other exponent sizes must still hold maxPos^2.
+        assertEquals( 1024L, PositEnv.getQuireSize( (byte) 32, (byte) 3 ));
+        assertEquals( 64L, PositEnv.getQuireSize( (byte) 2, (byte) 0 ));
+        assertEquals( 32L, new PositEnv( (byte) 32, (byte) 2 ).getQuireExtra());
+    }
+
+    @Test
+    public void convert() {
+        final Random random = new Random( 1234567L );
+        final int[][] pairs = { {16, 1, 8, 0}, {16, 1, 8, 1}, {8, 0, 16, 1}, {16, 2, 16, 1},
+                {12, 3, 10, 0}, {32, 2, 16, 1}, {64, 3, 32, 2}, {64, 0, 16, 2}, {16, 1, 64, 3} };
+        for (int[] pair : pairs) {
+            final PositEnv source = new PositEnv( (byte) pair[0], (byte) pair[1] );
+            final PositEnv target = new PositEnv( (byte) pair[2], (byte) pair[3] );
+            final PositContext from = source.getContext();
+            final PositContext to = target.getContext();
+            final int count = pair[0] <= 12 ? 1 << pair[0] : 4000;
+            final Object patterns = PositArrays.newArray( source, count );
+            for (int i = 0; i < count; i++) {
+                PositArrays.setPattern( patterns, i, pair[0] <= 12 ? i : random.nextLong() );
+            }
+            final Object converted = PositArrays.newArray( target, count );
+            source.convert( patterns, target, converted );
+            for (int i = 0; i < count; i++) {
+                final long pattern = PositArrays.getPattern( source, patterns, i );
+                final long expected = from.isInfinite( pattern ) ? to.getInfinity()
+                        : PositContextTest.round( to, from.toBigDecimal( pattern ) );
+                final String message = source + " to " + target + " pattern " + Long.toHexString( pattern );
+                assertEquals( message, expected, source.convert( pattern, target ));
+                assertEquals( message, expected, PositArrays.getPattern( target, converted, i ));
+            }
+        }
+        // Widening is exact, posit16 es1 round trips through posit32 es2.
+        final PositEnv p16 = new PositEnv( (byte) 16, (byte) 1 );
+        final PositEnv p32 = new PositEnv( (byte) 32, (byte) 2 );
+        for (long pattern = 0; pattern < 1 << 16; pattern++) {
+            assertEquals( pattern, p32.convert( p16.convert( pattern, p32 ), p16 ));
+        }
+    }
 }
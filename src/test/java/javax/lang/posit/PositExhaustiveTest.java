@@ -0,0 +1,277 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Exhaustive test of conversions and arithmetic against exact BigDecimal values.
+ * <p>
+ * Every pattern of every environment of up to 16 bits is checked, as are all
+ * pairs of patterns of environments of up to 8 bits. Set the system property
+ * posit.exhaustive=true to check all pairs up to 12 bits, which takes minutes.
+ * Patterns are split among fork-join tasks, and the check rate is printed.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositExhaustiveTest {
+    /** Largest bit size whose patterns are checked. */
+    static final int PATTERN_BITS = 16;
+    /** Largest bit size whose pairs are checked, unless running the full harness. */
+    static final int PAIR_BITS = Boolean.getBoolean("posit.exhaustive") ? 12 : 8;
+    /** Exponent sizes checked for each bit size. */
+    static final int MAX_ES = 3;
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    @Test
+    public void patterns() {
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final AtomicLong checks = new AtomicLong();
+        final long start = System.nanoTime();
+        for (int nBits = 2; nBits <= PATTERN_BITS; nBits++) {
+            for (int es = 0; es <= MAX_ES; es++) {
+                final Reference reference = new Reference(new PositEnv((byte) nBits, (byte) es));
+                ForkJoinPool.commonPool().invoke(new Patterns(reference, 0, 1 << nBits, failure, checks));
+                assertNull(failure.get());
+            }
+        }
+        report("patterns", checks.get(), start);
+    }
+
+    @Test
+    public void pairs() {
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final AtomicLong checks = new AtomicLong();
+        final long start = System.nanoTime();
+        for (int nBits = 2; nBits <= PAIR_BITS; nBits++) {
+            for (int es = 0; es <= MAX_ES; es++) {
+                final Reference reference = new Reference(new PositEnv((byte) nBits, (byte) es));
+                ForkJoinPool.commonPool().invoke(new Pairs(reference, 0, 1 << nBits, failure, checks));
+                assertNull(failure.get());
+            }
+        }
+        report("pairs", checks.get(), start);
+    }
+
+    @Test
+    public void reference() {
+        // The reference agrees with the hand checked cases of PositContextTest.
+        final Reference reference = new Reference(new PositEnv((byte) 8, (byte) 1));
+        for (long pattern = 0; pattern < 256; pattern++) {
+            if (pattern != reference.context.getInfinity()) {
+                final BigDecimal exact = reference.context.toBigDecimal(pattern);
+                assertEquals(pattern, reference.round(exact, BigDecimal.ONE));
+                assertEquals(PositContextTest.round(reference.context, exact.add(new BigDecimal("0.0078125"))),
+                        reference.round(exact.add(new BigDecimal("0.0078125")), BigDecimal.ONE));
+            }
+        }
+    }
+
+    private static void report(String name, long checks, long start) {
+        final long nanos = Math.max(1L, System.nanoTime() - start);
+        System.out.println("exhaustive " + name + " up to " + (name.equals("pairs") ? PAIR_BITS : PATTERN_BITS)
+                + " bits: " + checks + " checks in " + nanos / 1000000L + " ms, " + (long) (checks * 1e9 / nanos)
+                + " checks/s");
+    }
+
+    /** Exact values of the positive posits of an environment and the ties between them. */
+    static final class Reference {
+        final PositContext context;
+        final int nBits;
+        final int maxEs;
+        /** Value of each positive pattern, 1 to maxPos. */
+        final BigDecimal[] values;
+        /** Tie between each positive pattern and the next, the value of the posit of one more bit. */
+        final BigDecimal[] ties;
+
+        Reference(PositEnv env) {
+            this.context = new PositContext(env, RoundingMode.HALF_EVEN);
+            this.nBits = env.getBitSize();
+            this.maxEs = env.getMaxExponentSize();
+            final int count = 1 << (nBits - 1);
+            values = new BigDecimal[count];
+            ties = new BigDecimal[count];
+            final PositEnv tieEnv = new PositEnv((byte) (nBits + 1), (byte) maxEs);
+            for (int pattern = 1; pattern < count; pattern++) {
+                values[pattern] = PositDomain.toBigDecimal(pattern, env);
+                ties[pattern] = PositDomain.toBigDecimal(2L * pattern + 1L, tieEnv);
+            }
+        }
+
+        /** Returns the pattern nearest numerator / denominator, ties to the even pattern. */
+        long round(BigDecimal numerator, BigDecimal denominator) {
+            if (numerator.signum() == 0) {
+                return 0L;
+            }
+            final boolean negative = numerator.signum() != denominator.signum();
+            final BigDecimal magnitude = numerator.abs();
+            final BigDecimal divisor = denominator.abs();
+            final boolean unit = divisor.compareTo(BigDecimal.ONE) == 0;
+            // Largest positive pattern at most the magnitude, 0 below minPos.
+            int low = 0;
+            int high = values.length;
+            while (high - low > 1) {
+                final int middle = (low + high) >>> 1;
+                final BigDecimal value = unit ? values[middle] : values[middle].multiply(divisor);
+                if (value.compareTo(magnitude) <= 0) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            long expected;
+            if (low == 0) {
+                expected = 1L;
+            } else if (high == values.length) {
+                expected = low;
+            } else {
+                final BigDecimal tie = unit ? ties[low] : ties[low].multiply(divisor);
+                final int compare = magnitude.compareTo(tie);
+                expected = compare < 0 ? low : compare > 0 ? high : (low & 1) == 0 ? low : high;
+            }
+            return negative ? context.negate(expected) : expected;
+        }
+
+        /** Returns the exact value of a pattern that is not infinity. */
+        BigDecimal value(long pattern) {
+            final long p = pattern & Bit.mask(nBits);
+            if (p == 0L) {
+                return BigDecimal.ZERO;
+            }
+            return context.isNegative(p) ? values[(int) context.negate(p)].negate() : values[(int) p];
+        }
+    }
+
+    /** Checks the conversions of patterns [from, to). */
+    @SuppressWarnings("serial")
+    static final class Patterns extends RecursiveAction {
+        private final Reference reference;
+        private final int from;
+        private final int to;
+        private final AtomicReference<String> failure;
+        private final AtomicLong checks;
+
+        Patterns(Reference reference, int from, int to, AtomicReference<String> failure, AtomicLong checks) {
+            this.reference = reference;
+            this.from = from;
+            this.to = to;
+            this.failure = failure;
+            this.checks = checks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 4096) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Patterns(reference, from, middle, failure, checks),
+                        new Patterns(reference, middle, to, failure, checks));
+                return;
+            }
+            final PositContext context = reference.context;
+            final int nBits = reference.nBits;
+            final int maxEs = reference.maxEs;
+            for (long pattern = from; pattern < to && null == failure.get(); pattern++) {
+                if (context.isInfinite(pattern)) {
+                    check(PositDomain.toDouble(pattern, nBits, maxEs) == Double.POSITIVE_INFINITY, pattern, "toDouble");
+                    check(context.fromDouble(Double.NaN) == pattern, pattern, "fromDouble");
+                    continue;
+                }
+                final BigDecimal exact = reference.value(pattern);
+                // Posits of up to 16 bits and es up to 3 are exact in a float.
+                final double value = context.toDouble(pattern);
+                check(new BigDecimal(value).compareTo(exact) == 0, pattern, "toDouble");
+                check(PositDomain.toDouble(pattern, nBits, maxEs) == value, pattern, "PositDomain.toDouble");
+                check(new BigDecimal(context.toFloat(pattern)).compareTo(exact) == 0, pattern, "toFloat");
+                check(context.toBigDecimal(pattern).compareTo(exact) == 0, pattern, "toBigDecimal");
+                // Truncated, saturating at the long range.
+                final BigDecimal truncated = exact.setScale(0, RoundingMode.DOWN).max(LONG_MIN).min(LONG_MAX);
+                final long whole = truncated.longValue();
+                check(context.toLong(pattern) == whole, pattern, "toLong");
+                check(context.fromDouble(value) == pattern, pattern, "fromDouble");
+                check(PositDomain.toPattern(value, nBits, maxEs) == pattern, pattern, "PositDomain.toPattern");
+                check(context.negate(pattern) == reference.round(exact.negate(), BigDecimal.ONE), pattern, "negate");
+                check(context.fromLong(whole) == reference.round(BigDecimal.valueOf(whole), BigDecimal.ONE), pattern,
+                        "fromLong");
+                checks.addAndGet(9);
+            }
+        }
+
+        private void check(boolean condition, long pattern, String path) {
+            if (!condition) {
+                failure.compareAndSet(null, reference.context + " " + path + " pattern=" + pattern);
+            }
+        }
+    }
+
+    /** Checks the arithmetic of all pairs with the first pattern in [from, to). */
+    @SuppressWarnings("serial")
+    static final class Pairs extends RecursiveAction {
+        private final Reference reference;
+        private final int from;
+        private final int to;
+        private final AtomicReference<String> failure;
+        private final AtomicLong checks;
+
+        Pairs(Reference reference, int from, int to, AtomicReference<String> failure, AtomicLong checks) {
+            this.reference = reference;
+            this.from = from;
+            this.to = to;
+            this.failure = failure;
+            this.checks = checks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 4) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Pairs(reference, from, middle, failure, checks),
+                        new Pairs(reference, middle, to, failure, checks));
+                return;
+            }
+            final PositContext context = reference.context;
+            final long count = 1L << reference.nBits;
+            long done = 0L;
+            for (long x = from; x < to && null == failure.get(); x++) {
+                for (long y = 0; y < count; y++) {
+                    if (context.isInfinite(x) || context.isInfinite(y)) {
+                        final long infinity = context.getInfinity();
+                        check(context.add(x, y) == infinity && context.multiply(x, y) == infinity
+                                && context.divide(x, y) == infinity && context.fma(x, y, x) == infinity, x, y, "infinity");
+                        continue;
+                    }
+                    final BigDecimal a = reference.value(x);
+                    final BigDecimal b = reference.value(y);
+                    final BigDecimal product = a.multiply(b);
+                    check(context.add(x, y) == reference.round(a.add(b), BigDecimal.ONE), x, y, "add");
+                    check(context.subtract(x, y) == reference.round(a.subtract(b), BigDecimal.ONE), x, y, "subtract");
+                    check(context.multiply(x, y) == reference.round(product, BigDecimal.ONE), x, y, "multiply");
+                    check(context.fma(x, y, x) == reference.round(product.add(a), BigDecimal.ONE), x, y, "fma");
+                    if (b.signum() == 0) {
+                        check(context.divide(x, y) == context.getInfinity(), x, y, "divide");
+                    } else {
+                        check(context.divide(x, y) == reference.round(a, b), x, y, "divide");
+                    }
+                    check(context.compare(x, y) == Integer.signum(a.compareTo(b)), x, y, "compare");
+                    done += 6;
+                }
+            }
+            checks.addAndGet(done);
+        }
+
+        private void check(boolean condition, long x, long y, String path) {
+            if (!condition) {
+                failure.compareAndSet(null, reference.context + " " + path + " x=" + x + " y=" + y);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import javax.lang.posit.PositHalfFloats.Format;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositHalfFloatsTest {
+
+    @Test
+    public void toDouble() {
+        assertEquals(1.0, PositHalfFloats.toDouble((short) 0x3C00, Format.FLOAT16), 0.0);
+        assertEquals(-2.0, PositHalfFloats.toDouble((short) 0xC000, Format.FLOAT16), 0.0);
+        assertEquals(65504.0, PositHalfFloats.toDouble((short) 0x7BFF, Format.FLOAT16), 0.0);
+        assertEquals(Math.scalb(1.0, -24), PositHalfFloats.toDouble((short) 0x0001, Format.FLOAT16), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, PositHalfFloats.toDouble((short) 0x7C00, Format.FLOAT16), 0.0);
+        assertTrue(Double.isNaN(PositHalfFloats.toDouble(Format.FLOAT16.getNaN(), Format.FLOAT16)));
+        assertEquals(1.0, PositHalfFloats.toDouble((short) 0x3F80, Format.BFLOAT16), 0.0);
+        assertEquals(3.140625, PositHalfFloats.toDouble((short) 0x4049, Format.BFLOAT16), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, PositHalfFloats.toDouble((short) 0xFF80, Format.BFLOAT16), 0.0);
+        assertTrue(Double.isNaN(PositHalfFloats.toDouble(Format.BFLOAT16.getNaN(), Format.BFLOAT16)));
+        // Every 16 bit float is exact in a float.
+        for (int bits = 0; bits < 1 << 16; bits++) {
+            final double value = PositHalfFloats.toDouble((short) bits, Format.BFLOAT16);
+            if (!Double.isNaN(value)) {
+                assertEquals(Float.intBitsToFloat(bits << 16), value, 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void toPatternExhaustive() {
+        for (Format format : Format.values()) {
+            for (int nBits : new int[] { 8, 16 }) {
+                for (int es = 0; es <= 3; es++) {
+                    final PositContext context = new PositContext(new PositEnv((byte) nBits, (byte) es));
+                    for (int bits = 0; bits < 1 << 16; bits++) {
+                        final double value = PositHalfFloats.toDouble((short) bits, format);
+                        assertEquals(format + " " + context + " bits=" + Integer.toHexString(bits),
+                                context.fromDouble(value),
+                                PositHalfFloats.toPattern((short) bits, format, context.getPositEnv()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fromPatternExhaustive() {
+        for (Format format : Format.values()) {
+            final double[] grid = getGrid(format);
+            for (int nBits : new int[] { 8, 16 }) {
+                for (int es = 0; es <= 3; es++) {
+                    final PositContext context = new PositContext(new PositEnv((byte) nBits, (byte) es));
+                    assertEquals(format.getNaN(),
+                            PositHalfFloats.fromPattern(context.getInfinity(), context.getPositEnv(), format));
+                    for (long pattern = 0; pattern < 1L << nBits; pattern++) {
+                        if (context.isInfinite(pattern)) {
+                            continue;
+                        }
+                        final double value = context.toDouble(pattern);
+                        final int expected = nearest(grid, Math.abs(value)) | (value < 0.0 ? 0x8000 : 0);
+                        assertEquals(format + " " + context + " pattern=" + pattern, (short) expected,
+                                PositHalfFloats.fromPattern(pattern, context.getPositEnv(), format));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bulk() {
+        final Random random = new Random(299792458L);
+        final short[] floats = new short[5000];
+        for (int i = 0; i < floats.length; i++) {
+            floats[i] = (short) random.nextInt();
+        }
+        final int[][] envs = { { 8, 0 }, { 8, 2 }, { 16, 1 }, { 16, 3 }, { 12, 1 }, { 32, 2 } };
+        for (Format format : Format.values()) {
+            for (int[] bitsEs : envs) {
+                final PositEnv env = new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]);
+                final Object patterns = PositArrays.newArray(env, floats.length);
+                PositHalfFloats.toPatterns(floats, format, env, patterns);
+                final short[] back = new short[floats.length];
+                PositHalfFloats.fromPatterns(patterns, env, format, back);
+                for (int i = 0; i < floats.length; i++) {
+                    final long pattern = PositArrays.getPattern(env, patterns, i);
+                    assertEquals(env + " " + format, PositHalfFloats.toPattern(floats[i], format, env), pattern);
+                    assertEquals(env + " " + format, PositHalfFloats.fromPattern(pattern, env, format), back[i]);
+                }
+            }
+        }
+
+        // Tables are built once per environment and format.
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        PositHalfFloats.toPatterns(floats, Format.FLOAT16, env, new short[floats.length]);
+        final short[] table = env.getContext().getTable("FLOAT16 to posit", () -> null);
+        PositHalfFloats.toPatterns(floats, Format.FLOAT16, env, new short[floats.length]);
+        assertSame(table, env.getContext().getTable("FLOAT16 to posit", () -> null));
+
+        try {
+            PositHalfFloats.toPatterns(floats, Format.FLOAT16, env, new short[1]);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("shorter"));
+        }
+    }
+
+    /** Returns the values of the nonnegative finite floats, then infinity as the next power of 2. */
+    private static double[] getGrid(Format format) {
+        final int infinity = ((1 << format.getExponentBits()) - 1) << format.getFractionBits();
+        final double[] grid = new double[infinity + 1];
+        for (int bits = 0; bits < infinity; bits++) {
+            grid[bits] = PositHalfFloats.toDouble((short) bits, format);
+        }
+        grid[infinity] = 2.0 * grid[infinity - (1 << format.getFractionBits())];
+        return grid;
+    }
+
+    /** Returns the bits of the grid value nearest to the nonnegative value, ties to even. */
+    private static int nearest(double[] grid, double value) {
+        if (value >= grid[grid.length - 1]) {
+            return grid.length - 1;
+        }
+        int low = 0;
+        int high = grid.length - 1;
+        while (high - low > 1) {
+            final int middle = (low + high) >>> 1;
+            if (grid[middle] <= value) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        final double below = value - grid[low];
+        final double above = grid[high] - value;
+        if (below < above || (below == above && (low & 1) == 0)) {
+            return low;
+        }
+        return high;
+    }
+}
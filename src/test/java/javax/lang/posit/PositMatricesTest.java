@@ -0,0 +1,75 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositMatricesTest {
+
+    @Test
+    public void multiply() {
+        // Dimensions cross the row, column and depth blocks.
+        final int m = 37;
+        final int n = 70;
+        final int k = 300;
+        final Random random = new Random(602214076L);
+        final int[][] envs = { { 16, 1 }, { 32, 2 }, { 8, 0 } };
+        for (int[] bitsEs : envs) {
+            final PositEnv env = new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]);
+            final PositContext context = new PositContext(env);
+            final Object a = PositArrays.newArray(env, m * k);
+            final Object b = PositArrays.newArray(env, k * n);
+            for (int i = 0; i < m * k; i++) {
+                PositArrays.setPattern(a, i, context.fromDouble(random.nextGaussian()));
+            }
+            for (int i = 0; i < k * n; i++) {
+                PositArrays.setPattern(b, i, i % 11 == 0 ? 0L : context.fromDouble(random.nextGaussian()));
+            }
+            final Object c = PositArrays.newArray(env, m * n);
+            PositMatrices.multiply(context, a, b, c, m, n, k);
+
+            final Quire quire = new Quire(context);
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < n; j++) {
+                    quire.clear();
+                    for (int p = 0; p < k; p++) {
+                        quire.addProduct(PositArrays.getPattern(env, a, i * k + p), PositArrays.getPattern(env, b, p * n + j));
+                    }
+                    assertEquals(env + " c[" + i + "][" + j + "]", quire.toPattern(), PositArrays.getPattern(env, c, i * n + j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void infinities() {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        final PositContext context = new PositContext(env);
+        final long one = context.getOne();
+        final long inf = context.getInfinity();
+        // [1 inf; 0 1] x [0 1; inf 1]
+        final short[] a = { (short) one, (short) inf, 0, (short) one };
+        final short[] b = { 0, (short) one, (short) inf, (short) one };
+        final short[] c = new short[4];
+        PositMatrices.multiply(context, a, b, c, 2, 2, 2);
+        assertEquals(inf, PositArrays.getPattern(env, c, 0));
+        assertEquals(inf, PositArrays.getPattern(env, c, 1));
+        assertEquals(inf, PositArrays.getPattern(env, c, 2));
+        assertEquals(one, PositArrays.getPattern(env, c, 3));
+        try {
+            PositMatrices.multiply(context, a, b, c, 2, 2, 3);
+            fail("arrays too short");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("too short"));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositMetricsTest {
+    /** Seconds to wait for the child JVM. */
+    private static final long CHILD_SECONDS = 60L;
+
+    @Test
+    public void disabled() {
+        final PositContext context = new PositEnv((byte) 16, (byte) 1).getContext();
+        context.divide(context.fromDouble(1.0), 0L);
+        assertFalse(PositMetrics.getInstance().isEnabled());
+        for (PositMetrics.Counter counter : PositMetrics.Counter.values()) {
+            assertEquals(0L, PositMetrics.get(counter));
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName()));
+    }
+
+    @Test
+    public void enabled() throws IOException, InterruptedException {
+        // The flag is read once, so the enabled counters run in their own JVM.
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(java, "-Dposit.metrics=true", "-cp",
+                System.getProperty("java.class.path"), Enabled.class.getName()).inheritIO().start();
+        if (!process.waitFor(CHILD_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            fail("child JVM still running after " + CHILD_SECONDS + " s");
+        }
+        assertEquals(0, process.exitValue());
+    }
+
+    /** Child process of {@link #enabled()}, exits with 1 on a wrong count. */
+    public static final class Enabled {
+        public static void main(String[] args) throws Exception {
+            final Recording recording = new Recording();
+            recording.enable("javax.lang.posit.TableBuild");
+            recording.enable("javax.lang.posit.EnvCreated");
+            recording.start();
+
+            final PositContext context = PositEnv.getPositEnv((byte) 16, (byte) 1).getContext();
+            PositEnv.getPositEnv((byte) 16, (byte) 1);
+            final long one = context.fromDouble(1.0);
+            final long third = context.divide(one, context.fromDouble(3.0));
+            context.add(third, one);
+            context.multiply(context.getMaxPos(), context.getMaxPos());
+            context.divide(one, 0L);
+            // A conversion, but not a NaR, since NaN is not a real operand.
+            context.fromDouble(Double.NaN);
+            context.getTable("test table", () -> new long[16]);
+            context.getTable("test table", () -> new long[16]);
+            recording.stop();
+            check("Table hits", 1L, context.getTables().get("test table").hits.sum());
+
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            check("Conversions", 3L, server.getAttribute(objectName(), "Conversions"));
+            check("Operations", 4L, server.getAttribute(objectName(), "Operations"));
+            check("Roundings", 2L, server.getAttribute(objectName(), "Roundings"));
+            check("Saturations", 1L, server.getAttribute(objectName(), "Saturations"));
+            check("NaRs", 1L, server.getAttribute(objectName(), "NaRs"));
+            check("RegistryMisses", 1L, server.getAttribute(objectName(), "RegistryMisses"));
+            server.invoke(objectName(), "reset", null, null);
+            check("Operations", 0L, PositMetrics.getInstance().getOperations());
+
+            final Path path = Files.createTempFile("posit", ".jfr");
+            recording.dump(path);
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+            Files.delete(path);
+            check("TableBuild events", 1L, events.stream().filter(event -> isType(event, "TableBuild"))
+                    .filter(event -> "test table".equals(event.getString("table"))).count());
+            check("EnvCreated events", 1L, events.stream().filter(event -> isType(event, "EnvCreated")).count());
+        }
+
+        private static boolean isType(RecordedEvent event, String name) {
+            return event.getEventType().getName().equals("javax.lang.posit." + name);
+        }
+
+        private static void check(String name, long expected, Object actual) {
+            if (!Long.valueOf(expected).equals(actual)) {
+                System.err.println(name + " expected " + expected + " but was " + actual);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static ObjectName objectName() {
+        try {
+            return new ObjectName(PositMetrics.OBJECT_NAME);
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
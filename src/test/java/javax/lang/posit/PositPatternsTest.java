@@ -0,0 +1,136 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import javax.lang.posit.PositPatterns.Order;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositPatternsTest {
+
+    @Test
+    public void orders() {
+        final PositEnv env = new PositEnv((byte) 12, (byte) 1);
+        final long[] all = PositPatterns.stream(env).toArray();
+        assertEquals(4096, all.length);
+        for (int i = 0; i < all.length; i++) {
+            assertEquals(i, all[i]);
+        }
+
+        final long[] strided = PositPatterns.stream(env, Order.STRIDED, 100, 0L, false).toArray();
+        assertEquals(100, strided.length);
+        assertEquals(100, PositPatterns.stream(env, Order.STRIDED, 100, 0L, false).distinct().count());
+        assertEquals(40, strided[1]);
+        assertEquals(99 * 40, strided[99]);
+
+        final long[] random = PositPatterns.stream(env, Order.RANDOM, 10000, 7L, false).toArray();
+        assertEquals(10000, random.length);
+        final int[] counts = new int[16];
+        for (long pattern : random) {
+            assertTrue(pattern >= 0 && pattern < 4096);
+            counts[(int) (pattern >>> 8)]++;
+        }
+        for (int count : counts) {
+            assertEquals(10000 / 16, count, 100);
+        }
+        assertEquals(0, PositPatterns.stream(env, Order.RANDOM, 0, 7L, false).count());
+
+        // 64 bit patterns use the whole long.
+        final PositEnv env64 = new PositEnv((byte) 64, (byte) 3);
+        final long[] spread = PositPatterns.stream(env64, Order.STRIDED, 4, 0L, false).toArray();
+        assertEquals(0L, spread[0]);
+        assertEquals(Long.divideUnsigned(-1L, 4L), spread[1]);
+        assertTrue(spread[3] < 0L);
+        assertTrue(PositPatterns.stream(env64, Order.RANDOM, 1000, 1L, false).anyMatch(p -> p < 0L));
+    }
+
+    @Test
+    public void parallel() {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 2);
+        for (Order order : Order.values()) {
+            final long[] sequential = PositPatterns.stream(env, order, 50000, 42L, false).toArray();
+            final long[] parallel = PositPatterns.stream(env, order, 50000, 42L, true).toArray();
+            assertArrayEquals(order.toString(), sequential, parallel);
+        }
+
+        final Spliterator.OfLong spliterator = PositPatterns.spliterator(env, Order.SEQUENTIAL, 1000, 0L);
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.DISTINCT));
+        final Spliterator.OfLong prefix = spliterator.trySplit();
+        assertEquals(500, prefix.estimateSize());
+        assertEquals(500, spliterator.estimateSize());
+        final long[] first = new long[1];
+        spliterator.tryAdvance((long pattern) -> first[0] = pattern);
+        assertEquals(500, first[0]);
+        final Spliterator.OfLong single = PositPatterns.spliterator(env, Order.SEQUENTIAL, 1, 0L);
+        assertNull(single.trySplit());
+    }
+
+    @Test
+    public void table() throws Exception {
+        final PositEnv env = new PositEnv((byte) 5, (byte) 1);
+        final StringWriter text = new StringWriter();
+        Demo.writePatterns(env, Order.SEQUENTIAL, 100, 0L, text);
+        final String[] lines = text.toString().split("\n");
+        assertEquals(33, lines.length);
+        assertEquals("pattern\tsign\tk\texponent\tfraction\tvalue", lines[0]);
+        // The rows of PositTableWriter, tab separated.
+        assertEquals("01011\t+\t0\t1\t1\t3", lines[12]);
+        assertTrue(lines[1], lines[1].startsWith("00000\t") && lines[1].endsWith("\t0"));
+        assertTrue(lines[2], lines[2].startsWith("00001\t") && lines[2].endsWith("\t0.015625"));
+        assertTrue(lines[9], lines[9].startsWith("01000\t") && lines[9].endsWith("\t1"));
+        assertTrue(lines[16], lines[16].startsWith("01111\t") && lines[16].endsWith("\t64"));
+        assertTrue(lines[17], lines[17].startsWith("10000\t") && lines[17].endsWith("\tInfinity"));
+        assertTrue(lines[32], lines[32].startsWith("11111\t") && lines[32].endsWith("\t-0.015625"));
+
+        // Huge magnitudes are scientific.
+        final PositEnv wide = new PositEnv((byte) 64, (byte) 4);
+        final String line = PositPatterns.toTableLine(wide, Long.MAX_VALUE);
+        assertTrue(line, line.endsWith("\t4.185580496821357E+298"));
+        final String parallelTable = PositPatterns.stream(env, Order.RANDOM, 64, 3L, true)
+                .mapToObj(pattern -> PositPatterns.toTableLine(env, pattern)).collect(Collectors.joining("\n"));
+        assertEquals(64, parallelTable.split("\n").length);
+    }
+
+    @Test
+    public void writeErrors() {
+        // A full disk or broken pipe is reported, also through a PrintWriter that hides it.
+        final PositEnv env = new PositEnv((byte) 5, (byte) 1);
+        final Writer broken = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("broken pipe");
+            }
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("broken pipe");
+            }
+            @Override
+            public void close() {
+            }
+        };
+        for (Writer out : new Writer[] { broken, new PrintWriter(broken) }) {
+            try {
+                Demo.writePatterns(env, Order.SEQUENTIAL, 100, 0L, out);
+                fail("expected IOException");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+}
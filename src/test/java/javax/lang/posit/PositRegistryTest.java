@@ -0,0 +1,109 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositRegistryTest {
+
+    @Test
+    public void tables() {
+        final PositRegistry registry = PositRegistry.getInstance();
+        final PositEnv env = PositEnv.getPositEnv((byte) 10, (byte) 1);
+        final PositContext context = env.getContext();
+        assertTrue(Arrays.asList(registry.getEnvironments()).contains(env.toString()));
+        assertEquals(PositEnv.getRegistrySize(), registry.getRegistrySize());
+
+        // The toDouble table of 1024 doubles and the common Posit16 values.
+        assertEquals(2, registry.prewarm(10, 1));
+        assertEquals(0, registry.prewarm(10, 1));
+        final long bytes = registry.getTableBytes();
+        assertTrue("bytes " + bytes, bytes >= 16 + 8 * 1024);
+        final Posit16 one = Posit16.valueOf(env, 1.0);
+        assertSame(one, Posit16.valueOf(env, 1.0));
+        // Hits are counted only with -Dposit.metrics=true, see PositMetricsTest.
+        final String line = find(registry.getTables(), PositValue.COMMON_TABLE);
+        assertTrue(line, line.contains("hits=0"));
+        assertTrue(line, line.contains("bytes=" + (16 + 8 * (4 + 32))));
+
+        // Evicted tables are built again on next use.
+        final double value = context.toDouble(context.getOne());
+        assertTrue(registry.evictTable(10, 1, "toDouble"));
+        assertFalse(registry.evictTable(10, 1, "toDouble"));
+        assertEquals(value, context.toDouble(context.getOne()), 0.0);
+        assertEquals(2, registry.evictTables(10, 1));
+        assertNotSame(one, Posit16.valueOf(env, 1.0));
+        assertEquals(0, registry.evictTables(11, 1));
+        assertTrue(registry.evictAllTables() >= 1);
+        assertEquals(0, registry.evictTables(10, 1));
+    }
+
+    @Test
+    public void badFormats() {
+        // Formats out of byte range are not cast to a registered format.
+        final PositRegistry registry = PositRegistry.getInstance();
+        final int registered = PositEnv.getRegistrySize();
+        final int[][] formats = { { 264, 1 }, { 1, 1 }, { 8, -1 }, { 8, 128 } };
+        for (int[] format : formats) {
+            try {
+                registry.prewarm(format[0], format[1]);
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(" is not "));
+            }
+            try {
+                registry.evictTables(format[0], format[1]);
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(" is not "));
+            }
+            try {
+                registry.evictTable(format[0], format[1], "toDouble");
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(" is not "));
+            }
+        }
+        assertEquals(registered, PositEnv.getRegistrySize());
+    }
+
+    @Test
+    public void mbean() throws JMException {
+        PositRegistry.register();
+        PositRegistry.register();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(PositRegistry.OBJECT_NAME);
+        assertEquals(1, server.invoke(name, "prewarm", new Object[] { 16, 1 },
+                new String[] { "int", "int" }));
+        assertTrue((Long) server.getAttribute(name, "TableBytes") > 0L);
+        final String[] tables = (String[]) server.getAttribute(name, "Tables");
+        assertTrue(Arrays.stream(tables).anyMatch(line -> line.startsWith(PositEnv.getPositEnv((byte) 16, (byte) 1)
+                + ", table=" + PositValue.COMMON_TABLE)));
+    }
+
+    private static String find(String[] lines, String table) {
+        for (String line : lines) {
+            if (line.contains("table=" + table)) {
+                return line;
+            }
+        }
+        throw new AssertionError("no table " + table + " in " + Arrays.toString(lines));
+    }
+}
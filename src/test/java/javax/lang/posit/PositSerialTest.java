@@ -0,0 +1,109 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositSerialTest {
+
+    @Test
+    public void objectStreams() throws IOException, ClassNotFoundException {
+        final String[] patterns = { "", "0", "1", "01", "10110", "01000000", "100000000", "0111111111111111",
+                "01011101110111011101110111011101110111011101" };
+        for (String pattern : patterns) {
+            for (int es = 0; es < 4; es++) {
+                final PositStringImpl posit = new PositStringImpl(pattern, es);
+                final Posit copy = (Posit) deserialize(serialize(posit));
+                assertEquals(posit, copy);
+                assertEquals(es, copy.getMaxExponentSize());
+                assertEquals(posit.getExponent(), copy.getExponent());
+            }
+        }
+        // The proxy class descriptor replaces those of PositStringImpl, Posit and Number.
+        assertTrue(serialize(new PositStringImpl("01000000", 0)).length < 100);
+        // After the first, each posit8 in an object stream is its handles and 4 bytes of data.
+        final List<Posit> posits = randomPosits(1000, 8, new Random(8L));
+        final byte[] bytes = serialize(new ArrayList<>(posits));
+        assertTrue("bytes " + bytes.length, bytes.length < 1000 * 14);
+        assertEquals(posits, deserialize(bytes));
+    }
+
+    @Test
+    public void bulk() throws IOException {
+        final Random random = new Random(46L);
+        final List<Posit> posits = randomPosits(1000, 8, random);
+        posits.addAll(randomPosits(10, 16, random));
+        posits.add(new PositStringImpl("101", 0));
+        posits.addAll(randomPosits(500, 8, random));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PositSerial.writePosits(new DataOutputStream(bytes), posits);
+        // A header per run, then one byte per posit8.
+        assertEquals(4 + 4 * 7 + 1500 + 10 * 2 + 1, bytes.size());
+        final List<Posit> copy = PositSerial.readPosits(new DataInputStream(new ByteArrayInputStream(bytes
+                .toByteArray())));
+        assertEquals(posits, copy);
+        for (int i = 0; i < posits.size(); i++) {
+            assertEquals(posits.get(i).getMaxExponentSize(), copy.get(i).getMaxExponentSize());
+        }
+    }
+
+    @Test
+    public void corrupt() throws IOException {
+        // A huge count in a short stream ends the stream, it does not allocate the count.
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(Integer.MAX_VALUE);
+        out.writeShort(8);
+        out.writeByte(0);
+        out.writeInt(2);
+        out.writeByte(0x40);
+        try {
+            PositSerial.readPosits(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            fail("expected EOFException");
+        } catch (EOFException e) {
+            // Ends within the run.
+        }
+    }
+
+    private static List<Posit> randomPosits(int count, int nBits, Random random) {
+        final List<Posit> posits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final String bits = Long.toBinaryString(random.nextLong() & Bit.mask(nBits) | 1L << nBits);
+            posits.add(new PositStringImpl(bits.substring(1), nBits == 8 ? 0 : 1));
+        }
+        return posits;
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
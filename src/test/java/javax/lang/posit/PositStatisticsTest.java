@@ -0,0 +1,121 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositStatisticsTest {
+
+    @Test
+    public void exact() {
+        final Random random = new Random(57721L);
+        final int[][] envs = { { 8, 0 }, { 16, 1 }, { 32, 2 }, { 64, 3 } };
+        for (int[] bitsEs : envs) {
+            final PositEnv env = new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]);
+            final PositContext context = env.getContext();
+            final int length = 3000;
+            final Object array = PositArrays.newArray(env, length);
+            BigDecimal sum = BigDecimal.ZERO;
+            BigDecimal sumOfSquares = BigDecimal.ZERO;
+            for (int i = 0; i < length; i++) {
+                // Values near 100, where rounded running sums lose the variance.
+                final long pattern = context.fromDouble(100.0 + random.nextGaussian());
+                PositArrays.setPattern(array, i, pattern);
+                final BigDecimal value = context.toBigDecimal(pattern);
+                sum = sum.add(value);
+                sumOfSquares = sumOfSquares.add(value.multiply(value));
+            }
+            final BigDecimal n = BigDecimal.valueOf(length);
+            final BigDecimal deviations = sumOfSquares.multiply(n).subtract(sum.multiply(sum));
+
+            final PositStatistics statistics = PositStream.of(env, array).parallel().summaryStatistics();
+            assertEquals(length, statistics.getCount());
+            assertEquals(env.toString(), PositContextTest.round(context, sum), statistics.getSum());
+            assertEquals(0, sum.compareTo(statistics.getQuireSum().toBigDecimal()));
+            assertEquals(PositContextTest.round(context, sumOfSquares), statistics.getSumOfSquares());
+            assertEquals(PositContextTest.round(context, sum, n), statistics.getMean());
+            assertEquals(env.toString(), PositContextTest.round(context, deviations, n.multiply(n)),
+                    statistics.getVariance());
+            assertEquals(PositContextTest.round(context, deviations, n.multiply(n.subtract(BigDecimal.ONE))),
+                    statistics.getSampleVariance());
+            assertEquals(PositStream.of(env, array).min().getAsLong(), statistics.getMin());
+            assertEquals(PositStream.of(env, array).max().getAsLong(), statistics.getMax());
+
+            // The same statistics sequentially.
+            final PositStatistics sequential = new PositStatistics(context);
+            for (int i = 0; i < length; i++) {
+                sequential.accept(PositArrays.getPattern(env, array, i));
+            }
+            assertEquals(statistics.getVariance(), sequential.getVariance());
+        }
+    }
+
+    @Test
+    public void histogram() {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        final PositContext context = env.getContext();
+        final Random random = new Random(2L);
+        final short[] array = new short[20000];
+        final long[] expected = new long[1 << 16];
+        final long[] coarse = new long[1 << 4];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (short) context.fromDouble(random.nextGaussian());
+            expected[array[i] & 0xFFFF]++;
+            coarse[(array[i] & 0xFFFF) >>> 12]++;
+        }
+        assertArrayEquals(expected, PositStream.of(env, array).parallel().summaryStatistics(16).getHistogram());
+        assertArrayEquals(coarse, PositStream.of(env, array).parallel().summaryStatistics(4).getHistogram());
+        // Histograms of narrow posits have a bucket per pattern.
+        final PositEnv env8 = new PositEnv((byte) 8, (byte) 0);
+        assertEquals(256, new PositStatistics(env8.getContext(), 16).getHistogram().length);
+
+        try {
+            new PositStatistics(context).getHistogram();
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("no histogram"));
+        }
+        try {
+            new PositStatistics(context, 4).combine(new PositStatistics(context, 5));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("different histograms"));
+        }
+    }
+
+    @Test
+    public void specialValues() {
+        final PositContext context = new PositEnv((byte) 16, (byte) 1).getContext();
+        final PositStatistics empty = new PositStatistics(context);
+        assertEquals(0L, empty.getSum());
+        assertEquals(context.getInfinity(), empty.getMean());
+        assertEquals(context.getInfinity(), empty.getVariance());
+        assertEquals(context.getInfinity(), empty.getMin());
+
+        final PositStatistics one = new PositStatistics(context);
+        one.accept(context.fromLong(5));
+        assertEquals(context.fromLong(5), one.getMean());
+        assertEquals(0L, one.getVariance());
+        assertEquals(context.getInfinity(), one.getSampleVariance());
+        one.combine(empty);
+        assertEquals(1, one.getCount());
+
+        one.accept(context.getInfinity());
+        assertEquals(context.getInfinity(), one.getSum());
+        assertEquals(context.getInfinity(), one.getMean());
+        assertEquals(context.getInfinity(), one.getVariance());
+        assertEquals(context.getInfinity(), one.getMin());
+        assertEquals(context.fromLong(5), one.getMax());
+    }
+}
@@ -0,0 +1,96 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositStreamTest {
+
+    @Test
+    public void sums() {
+        final Random random = new Random(1729L);
+        final int[][] envs = { { 8, 0 }, { 16, 1 }, { 32, 2 }, { 64, 3 } };
+        for (int[] bitsEs : envs) {
+            final PositEnv env = new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]);
+            final PositContext context = env.getContext();
+            final Object array = PositArrays.newArray(env, 10000);
+            BigDecimal exact = BigDecimal.ZERO;
+            for (int i = 0; i < 10000; i++) {
+                long pattern = random.nextLong() & Bit.mask(env.getBitSize());
+                if (context.isInfinite(pattern)) {
+                    pattern = 0L;
+                }
+                PositArrays.setPattern(array, i, pattern);
+                exact = exact.add(context.toBigDecimal(pattern));
+            }
+            final long expected = PositContextTest.round(context, exact);
+            assertEquals(env.toString(), expected, PositStream.of(env, array).sum());
+            assertEquals(env.toString(), expected, PositStream.of(env, array).parallel().sum());
+            assertEquals(0, exact.compareTo(PositStream.of(env, array).parallel().quireSum().toBigDecimal()));
+            assertEquals(context.negate(expected), PositStream.of(env, array).parallel().map(context::negate).sum());
+            assertEquals(10000, PositStream.of(env, array).parallel().count());
+        }
+    }
+
+    @Test
+    public void ordering() {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        final PositContext context = env.getContext();
+        final Random random = new Random(137L);
+        final short[] array = new short[5000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (short) random.nextInt();
+        }
+        array[17] = (short) context.getInfinity();
+        final long[] sorted = PositStream.of(env, array).sorted().toPatterns();
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(context.compare(sorted[i - 1], sorted[i]) <= 0);
+        }
+        assertArrayEquals(sorted, PositStream.of(env, array).parallel().sorted().toPatterns());
+        assertEquals(context.getInfinity(), sorted[0]);
+        assertEquals(context.getInfinity(), PositStream.of(env, array).parallel().min().getAsLong());
+        assertEquals(sorted[sorted.length - 1], PositStream.of(env, array).parallel().max().getAsLong());
+        assertEquals(context.getInfinity(), PositStream.of(env, array).sum());
+
+        // Filters and container arrays.
+        final short[] finite = (short[]) PositStream.of(env, array).parallel()
+                .filter(pattern -> !context.isInfinite(pattern)).toArray();
+        assertEquals(array.length - 1, finite.length);
+        assertEquals(array[0], finite[0]);
+        assertEquals(array[18], finite[17]);
+        assertEquals(sorted[1], PositStream.of(env, finite).min().getAsLong());
+        assertEquals(3, PositStream.of(context, array, 10, 13).count());
+    }
+
+    @Test
+    public void average() {
+        final PositEnv env = new PositEnv((byte) 8, (byte) 0);
+        final PositContext context = env.getContext();
+        assertFalse(PositStream.of(env, new byte[0]).average().isPresent());
+        assertFalse(PositStream.of(env, new byte[0]).min().isPresent());
+        assertEquals(0L, PositStream.of(env, new byte[0]).sum());
+        final PositStream stream = PositStream.of(context, LongStream.of(1, 2, 3, 4, 5).map(context::fromLong));
+        assertEquals(context.fromLong(3), stream.average().getAsLong());
+        // The exact sum divided by the count rounds once.
+        final long[] values = { context.fromLong(64), context.fromLong(36), context.getOne() };
+        assertEquals(PositContextTest.round(context, new BigDecimal(101), new BigDecimal(3)),
+                PositStream.of(context, LongStream.of(values)).parallel().average().getAsLong());
+        assertEquals(context.fromLong(-3), PositStream.of(context, LongStream.of(1, 2, 3, 4, 5)
+                .map(context::fromLong).map(context::negate)).average().getAsLong());
+        final double[] doubles = PositStream.of(context, LongStream.of(context.fromLong(2), context.getInfinity()))
+                .asDoubleStream().toArray();
+        assertArrayEquals(new double[] { 2.0, Double.POSITIVE_INFINITY }, doubles, 0.0);
+    }
+}
@@ -0,0 +1,102 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.lang.posit.PositTableWriter.Format;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositTableWriterTest {
+
+    @Test
+    public void csv() throws Exception {
+        final PositEnv env = new PositEnv((byte) 5, (byte) 1);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PositColumnReader.Stats stats = new PositTableWriter(env, Format.CSV, 7, 3)
+                .write(Channels.newChannel(out));
+        assertEquals(32, stats.getRows());
+        assertEquals(out.size(), stats.getBytes());
+        final String[] lines = new String(out.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        assertEquals(33, lines.length);
+        assertEquals(PositTableWriter.CSV_HEADER, lines[0] + "\n");
+        assertEquals("00000,+,,,,0", lines[1]);
+        assertEquals("00001,+,-3,0,,0.015625", lines[2]);
+        assertEquals("01000,+,0,0,0,1", lines[9]);
+        assertEquals("01011,+,0,1,1,3", lines[12]);
+        assertEquals("10000,-,,,,Infinity", lines[17]);
+        assertEquals("11000,-,0,0,0,-1", lines[25]);
+
+        // Posit32 ranges, crossing infinity.
+        final PositEnv env32 = new PositEnv((byte) 32, (byte) 2);
+        final ByteArrayOutputStream range = new ByteArrayOutputStream();
+        new PositTableWriter(env32, Format.CSV, 5, 2).write(0x7FFFFFF0L, 32, Channels.newChannel(range));
+        final String[] rows = new String(range.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        assertEquals(33, rows.length);
+        assertTrue(rows[1], rows[1].startsWith("01111111111111111111111111110000,+,"));
+        assertEquals("10000000000000000000000000000000,-,,,,Infinity", rows[17]);
+        assertTrue(rows[32], rows[32].startsWith("10000000000000000000000000001111,-,"));
+    }
+
+    @Test
+    public void binary() throws Exception {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        final PositContext context = env.getContext();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PositTableWriter(env, Format.BINARY, 1000, 4).write(Channels.newChannel(out));
+        final byte[] bytes = out.toByteArray();
+        assertEquals(65536 * PositTableWriter.RECORD_BYTES, bytes.length);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (long pattern = 0; pattern < 65536; pattern++) {
+            assertEquals(pattern, buffer.getLong());
+            assertEquals(context.toDouble(pattern), buffer.getDouble(), 0.0);
+            final int k = buffer.getInt();
+            final int exponent = buffer.getInt();
+            if (!context.isZero(pattern) && !context.isInfinite(pattern)) {
+                final double magnitude = Math.abs(context.toDouble(pattern));
+                assertEquals(Math.getExponent(magnitude), 2 * k + exponent);
+            }
+        }
+
+        // Chunking and parallelism do not change the table.
+        final ByteArrayOutputStream single = new ByteArrayOutputStream();
+        new PositTableWriter(env, Format.BINARY, 1 << 16, 1).write(Channels.newChannel(single));
+        assertArrayEquals(bytes, single.toByteArray());
+    }
+
+    @Test
+    public void commandLine() throws Exception {
+        final Path file = Files.createTempFile("posit", ".csv");
+        try {
+            Demo.parseOptions(new String[] { "--table", "csv", "--bits", "8", "--es", "0", "--from", "64",
+                    "--count", "3", "--output", file.toString() });
+            final String text = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII);
+            assertEquals(PositTableWriter.CSV_HEADER + "01000000,+,0,0,00000,1\n01000001,+,0,0,00001,1.03125\n"
+                    + "01000010,+,0,0,00010,1.0625\n", text);
+        } finally {
+            Files.delete(file);
+        }
+
+        try {
+            new PositTableWriter(new PositEnv((byte) 64, (byte) 2))
+                    .write(Channels.newChannel(new ByteArrayOutputStream()));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("write a range"));
+        }
+    }
+}
@@ -138,6 +138,26 @@ public class PositTest {
 				PositDomainTest.COMPARE_PRECISION);
 	}
 
+	@Test
+	public void decodeInvalidation() {
+		// Decoded components and values are cached until parse or setMaxExponentSize.
+		final Posit posit = new PositStringImpl("01011", 1);
+		assertEquals("1", posit.getExponent());
+		assertEquals("1", posit.getFraction());
+		assertEquals(3.0, posit.doubleValue(), PositDomainTest.COMPARE_PRECISION);
+		posit.setMaxExponentSize((byte) 2);
+		assertEquals("11", posit.getExponent());
+		assertEquals("", posit.getFraction());
+		assertEquals(8.0, posit.doubleValue(), PositDomainTest.COMPARE_PRECISION);
+		posit.parse("0110");
+		assertEquals("110", posit.getRegime());
+		assertEquals(1, posit.getRegimeK());
+		assertEquals(16.0, posit.doubleValue(), PositDomainTest.COMPARE_PRECISION);
+		posit.parse(null);
+		assertEquals(0.0, posit.doubleValue(), PositDomainTest.COMPARE_PRECISION);
+		assertEquals("", posit.getRegime());
+	}
+
 	/**
 	 * Spits out information about java.util.BitSet BitSet is so weird, not
 	 * reporting its set size, but rather size based on the machine implementation
@@ -0,0 +1,142 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class PositValueTest {
+
+    @Test
+    public void flyweights() {
+        final PositEnv env = new PositEnv((byte) 8, (byte) 0);
+        final PositContext context = env.getContext();
+        for (int pattern = 0; pattern < 256; pattern++) {
+            final Posit8 posit = Posit8.valueOf(env, pattern);
+            assertSame(posit, Posit8.valueOf(env, pattern | 0x100));
+            assertEquals((byte) pattern, posit.patternValue());
+            assertEquals(new PositStringImpl(posit.stringValue(), 0).getRegime(), posit.getRegime());
+            assertEquals(context.toDouble(pattern), posit.doubleValue(), 0.0);
+        }
+        final Posit8 one = Posit8.valueOf(env, 1.0);
+        assertSame(Posit8.valueOf(env, 3.0), one.add(one).add(one));
+        assertSame(Posit8.valueOf(env, 0.0), one.subtract(one));
+
+        final PositEnv env16 = new PositEnv((byte) 16, (byte) 1);
+        final PositContext context16 = env16.getContext();
+        assertSame(Posit16.valueOf(env16, 1.0), Posit16.valueOf(env16, context16.getOne()));
+        assertSame(Posit16.valueOf(env16, 0L), Posit16.valueOf(env16, 1.0).subtract(Posit16.valueOf(env16, 1.0)));
+        assertSame(Posit16.valueOf(env16, context16.getMaxPos()), Posit16.valueOf(env16, 1e300));
+        assertNotSame(Posit16.valueOf(env16, 3.0), Posit16.valueOf(env16, 3.0));
+        assertEquals(Posit16.valueOf(env16, 3.0), Posit16.valueOf(env16, 3.0));
+        final Posit64 maxPos = Posit64.valueOf(new PositEnv((byte) 64, (byte) 3), Double.MAX_VALUE);
+        assertSame(maxPos, maxPos.negate().negate());
+    }
+
+    @Test
+    public void values() {
+        final PositEnv env = new PositEnv((byte) 32, (byte) 2);
+        final PositContext context = env.getContext();
+        final Posit32 x = Posit32.valueOf(env, 2.5);
+        final Posit32 y = Posit32.valueOf(env, -0.75);
+        assertEquals(context.fromDouble(1.75), x.add(y).getPattern());
+        assertEquals(context.fromDouble(3.25), x.subtract(y).getPattern());
+        assertEquals(context.fromDouble(-1.875), x.multiply(y).getPattern());
+        assertEquals(context.divide(x.getPattern(), y.getPattern()), x.divide(y).getPattern());
+        assertEquals(2, x.intValue());
+        assertEquals(0, new BigDecimal("-0.75").compareTo(y.toBigDecimal()));
+        assertFalse(y.isPositive());
+        assertTrue(y.compareTo(x) < 0);
+        assertTrue(Posit32.valueOf(env, Double.NaN).isInfinite());
+        assertTrue(Posit32.valueOf(env, Double.NaN).compareTo(y) < 0);
+        // Across environments posits compare by value.
+        assertEquals(0, x.compareTo(Posit16.valueOf(new PositEnv((byte) 16, (byte) 1), 2.5)));
+        assertEquals(Integer.class, x.getImplementation());
+        assertEquals(32, x.stringValue().length());
+
+        try {
+            x.setMaxExponentSize((byte) 1);
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            assertTrue(e.getMessage().contains("immutable"));
+        }
+        try {
+            x.parse("0101");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            assertTrue(e.getMessage().contains("immutable"));
+        }
+        try {
+            x.add(Posit32.valueOf(new PositEnv((byte) 32, (byte) 3), 1.0));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("cannot combine"));
+        }
+        try {
+            Posit16.valueOf(env, 0L);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("16 bit container"));
+        }
+    }
+
+    @Test
+    public void serialize() throws IOException, ClassNotFoundException {
+        final PositEnv env8 = PositEnv.getPositEnv((byte) 8, (byte) 1);
+        final Posit8 posit8 = Posit8.valueOf(env8, 0x5AL);
+        assertSame(posit8, copy(posit8));
+        final Posit64 posit64 = Posit64.valueOf(PositEnv.getPositEnv((byte) 64, (byte) 3), Math.PI);
+        assertEquals(posit64, copy(posit64));
+        // Values of unregistered environments read back without registering one.
+        final int registered = PositEnv.getRegistrySize();
+        final Posit16 posit16 = Posit16.valueOf(new PositEnv((byte) 12, (byte) 2), -0.75);
+        assertEquals(posit16, copy(posit16));
+        assertEquals(registered, PositEnv.getRegistrySize());
+    }
+
+    @Test
+    public void serializeList() throws IOException, ClassNotFoundException {
+        // Values of an unregistered format read back share one context and its flyweights.
+        final PositEnv env = new PositEnv((byte) 8, (byte) 2);
+        final List<Posit8> values = Arrays.asList(Posit8.valueOf(env, 0x12L), Posit8.valueOf(env, 0x34L),
+                Posit8.valueOf(env, 0x12L));
+        final int registered = PositEnv.getRegistrySize();
+        @SuppressWarnings("unchecked")
+        final List<Posit8> copies = (List<Posit8>) copy(new ArrayList<>(values));
+        assertEquals(values, copies);
+        assertNotSame(env.getContext(), copies.get(0).getContext());
+        assertSame(copies.get(0).getContext(), copies.get(1).getContext());
+        assertSame(copies.get(0), copies.get(2));
+        assertSame(copies.get(1), copy(values.get(1)));
+        assertEquals(registered, PositEnv.getRegistrySize());
+    }
+
+    private static Object copy(Object object) throws IOException, ClassNotFoundException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+}
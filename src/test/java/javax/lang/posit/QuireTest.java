@@ -0,0 +1,259 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class QuireTest {
+    /** Seconds to wait for a child JVM. */
+    private static final long CHILD_SECONDS = 60L;
+
+    @Test
+    public void exactSums() {
+        final Random random = new Random(662607015L);
+        final int[][] envs = { { 8, 0 }, { 16, 1 }, { 32, 2 }, { 64, 3 }, { 12, 4 } };
+        for (int[] bitsEs : envs) {
+            final PositContext context = new PositContext(new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]));
+            final Quire quire = new Quire(context);
+            assertEquals(context.getPositEnv().getQuireSize(), quire.getBitSize());
+            BigDecimal exact = BigDecimal.ZERO;
+            for (int i = 0; i < 2000; i++) {
+                final long x = random.nextLong();
+                final long y = random.nextLong();
+                if (context.isInfinite(x) || context.isInfinite(y)) {
+                    continue;
+                }
+                if (i % 5 == 0) {
+                    quire.subtractProduct(x, y);
+                    exact = exact.subtract(context.toBigDecimal(x).multiply(context.toBigDecimal(y)));
+                } else {
+                    quire.addProduct(x, y);
+                    exact = exact.add(context.toBigDecimal(x).multiply(context.toBigDecimal(y)));
+                }
+                assertEquals(context + " term " + i, 0, exact.compareTo(quire.toBigDecimal()));
+            }
+        }
+    }
+
+    @Test
+    public void roundsOnce() {
+        // Posit8 es0 products and their sums are exact in a double.
+        final PositContext context = new PositContext(new PositEnv((byte) 8, (byte) 0));
+        final Quire quire = new Quire(context);
+        final Random random = new Random(1380649L);
+        for (int trial = 0; trial < 1000; trial++) {
+            quire.clear();
+            double sum = 0.0;
+            final int terms = 1 + random.nextInt(50);
+            for (int i = 0; i < terms; i++) {
+                final long x = random.nextInt(256);
+                final long y = random.nextInt(256);
+                if (context.isInfinite(x) || context.isInfinite(y)) {
+                    continue;
+                }
+                quire.addProduct(x, y);
+                sum += context.toDouble(x) * context.toDouble(y);
+            }
+            assertEquals("sum " + sum, context.fromDouble(sum), quire.toPattern());
+        }
+    }
+
+    @Test
+    public void extremes() {
+        final PositContext context = new PositContext(new PositEnv((byte) 32, (byte) 2));
+        final Quire quire = new Quire(context);
+        assertTrue(quire.isZero());
+        assertEquals(0L, quire.toPattern());
+        // maxPos^2 + minPos^2 - maxPos^2 leaves minPos^2, which saturates to minPos.
+        quire.addProduct(context.getMaxPos(), context.getMaxPos());
+        quire.addProduct(context.getMinPos(), context.getMinPos());
+        quire.subtractProduct(context.getMaxPos(), context.getMaxPos());
+        assertEquals(0, PositEnv.powerOfTwo(-2 * 30 * 4).compareTo(quire.toBigDecimal()));
+        assertEquals(context.getMinPos(), quire.toPattern());
+        quire.subtract(context.getOne());
+        assertEquals(context.negate(context.getOne()), quire.toPattern());
+        quire.add(context.getInfinity());
+        assertTrue(quire.isInfinite());
+        assertEquals(context.getInfinity(), quire.toPattern());
+        try {
+            quire.toBigDecimal();
+            fail("infinite quire");
+        } catch (ArithmeticException e) {
+            assertTrue(e.getMessage().contains("infinite"));
+        }
+        quire.clear();
+        assertTrue(quire.isZero());
+        assertTrue(quire.toString().contains("bits=512"));
+    }
+
+    @Test
+    public void divideAndMerge() {
+        final Random random = new Random(314159L);
+        final int[][] envs = { { 8, 0 }, { 16, 1 }, { 32, 2 } };
+        for (int[] bitsEs : envs) {
+            final PositContext context = new PositContext(new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]));
+            final Quire left = new Quire(context);
+            final Quire right = new Quire(context);
+            BigDecimal exact = BigDecimal.ZERO;
+            for (int i = 1; i <= 300; i++) {
+                final long x = random.nextLong() & Bit.mask(bitsEs[0]);
+                if (context.isInfinite(x)) {
+                    continue;
+                }
+                (i % 2 == 0 ? left : right).add(x);
+                exact = exact.add(context.toBigDecimal(x));
+                if (i % 50 == 0) {
+                    final Quire merged = new Quire(context);
+                    merged.add(left);
+                    merged.add(right);
+                    assertEquals(0, exact.compareTo(merged.toBigDecimal()));
+                    final long divisor = 1L + random.nextInt(1000);
+                    assertEquals(context + " / " + divisor,
+                            PositContextTest.round(context, exact, BigDecimal.valueOf(divisor)),
+                            merged.divideToPattern(divisor));
+                }
+            }
+        }
+        try {
+            new Quire(new PositContext(new PositEnv((byte) 8, (byte) 0)))
+                    .add(new Quire(new PositContext(new PositEnv((byte) 8, (byte) 1))));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("cannot add"));
+        }
+    }
+
+    @Test
+    public void serialize() throws IOException {
+        final Random random = new Random(1602176634L);
+        final int[][] envs = { { 8, 0 }, { 16, 1 }, { 32, 2 }, { 64, 3 } };
+        for (int[] bitsEs : envs) {
+            final PositContext context = new PositContext(new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]));
+            final Quire quire = new Quire(context);
+            assertEquals(7, toBytes(quire).length);
+            // One small product writes a limb or two, negative sums imply their sign fill.
+            quire.subtract(context.getOne());
+            assertTrue(toBytes(quire).length <= 7 + 16);
+            assertEquals(0, quire.toBigDecimal().compareTo(read(toBytes(quire), context).toBigDecimal()));
+            for (int i = 0; i < 100; i++) {
+                final long x = random.nextLong() & Bit.mask(bitsEs[0]);
+                if (!context.isInfinite(x)) {
+                    quire.addProduct(x, x);
+                    quire.subtract(x);
+                }
+            }
+            final Quire copy = read(toBytes(quire), context);
+            assertEquals(0, quire.toBigDecimal().compareTo(copy.toBigDecimal()));
+            copy.merge(new DataInputStream(new ByteArrayInputStream(toBytes(quire))));
+            assertEquals(0, quire.toBigDecimal().multiply(BigDecimal.valueOf(2)).compareTo(copy.toBigDecimal()));
+            quire.add(context.getInfinity());
+            assertTrue(read(toBytes(quire), context).isInfinite());
+        }
+        final Quire quire8 = new Quire(new PositContext(new PositEnv((byte) 8, (byte) 0)));
+        try {
+            read(toBytes(quire8), new PositContext(new PositEnv((byte) 8, (byte) 1)));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("cannot merge"));
+        }
+    }
+
+    @Test
+    public void mergeProcesses() throws IOException, InterruptedException {
+        final int shards = 3;
+        final PositContext context = new PositContext(new PositEnv((byte) 32, (byte) 2));
+        final Quire expected = new Quire(context);
+        for (int shard = 0; shard < shards; shard++) {
+            sumShard(expected, shard);
+        }
+        // Each shard sums in its own JVM and writes its quire to a file.
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final File[] files = new File[shards];
+        final Process[] processes = new Process[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            files[shard] = File.createTempFile("quire", ".bin");
+            files[shard].deleteOnExit();
+            processes[shard] = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Shard.class.getName(), Integer.toString(shard), files[shard].getPath()).inheritIO().start();
+        }
+        final Quire merged = new Quire(context);
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                assertEquals(0, exitValue(processes[shard]));
+                try (InputStream in = Files.newInputStream(files[shard].toPath())) {
+                    merged.merge(new DataInputStream(in));
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+        }
+        assertEquals(0, expected.toBigDecimal().compareTo(merged.toBigDecimal()));
+        assertEquals(expected.toPattern(), merged.toPattern());
+    }
+
+    /** Sums the products of a seeded shard into the quire. */
+    static void sumShard(Quire quire, int shard) {
+        final PositContext context = quire.getContext();
+        final Random random = new Random(shard);
+        for (int i = 0; i < 10000; i++) {
+            final long x = random.nextLong() & Bit.mask(32);
+            final long y = random.nextLong() & Bit.mask(32);
+            if (!context.isInfinite(x) && !context.isInfinite(y)) {
+                quire.addProduct(x, y);
+            }
+        }
+    }
+
+    /** Child process of {@link #mergeProcesses()}: sums shard args[0] and writes it to file args[1]. */
+    public static final class Shard {
+        public static void main(String[] args) throws IOException {
+            final Quire quire = new Quire(new PositContext(new PositEnv((byte) 32, (byte) 2)));
+            sumShard(quire, Integer.parseInt(args[0]));
+            try (OutputStream out = new FileOutputStream(args[1])) {
+                quire.writeTo(new DataOutputStream(out));
+            }
+        }
+    }
+
+    /** Returns the exit value of a child JVM, failing rather than waiting on one that hangs. */
+    private static int exitValue(Process process) throws InterruptedException {
+        if (!process.waitFor(CHILD_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            fail("child JVM still running after " + CHILD_SECONDS + " s");
+        }
+        return process.exitValue();
+    }
+
+    private static byte[] toBytes(Quire quire) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        quire.writeTo(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static Quire read(byte[] bytes, PositContext context) throws IOException {
+        return Quire.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)), context);
+    }
+}
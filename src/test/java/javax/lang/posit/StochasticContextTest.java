@@ -0,0 +1,148 @@
+package javax.lang.posit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * General test of this class.
+ *
+ * @author <a href="mailto://dan@danbecker.info">Dan Becker</a>
+ */
+public class StochasticContextTest {
+
+    @Test
+    public void roundsToNeighbours() {
+        final Random random = new Random(6022140L);
+        final SplittableRandom bits = new SplittableRandom(42L);
+        final int[][] envs = { { 8, 0 }, { 8, 1 }, { 16, 1 }, { 16, 2 }, { 32, 2 }, { 5, 3 } };
+        for (int[] bitsEs : envs) {
+            final PositEnv env = new PositEnv((byte) bitsEs[0], (byte) bitsEs[1]);
+            final StochasticContext stochastic = new StochasticContext(env);
+            final PositContext down = new PositContext(env, RoundingMode.DOWN);
+            final PositContext up = new PositContext(env, RoundingMode.UP);
+            for (int i = 0; i < 20000; i++) {
+                final long x = random.nextLong() & down.getMaxPos() | (random.nextBoolean() ? down.getInfinity() : 0L);
+                final long y = random.nextLong() & down.getMaxPos() | (random.nextBoolean() ? down.getInfinity() : 0L);
+                final long z = random.nextLong() & Bit.mask(env.getBitSize());
+                assertNeighbour(env + " add", down.add(x, y), up.add(x, y), stochastic.add(x, y, bits));
+                assertNeighbour(env + " subtract", down.subtract(x, y), up.subtract(x, y),
+                        stochastic.subtract(x, y, bits));
+                assertNeighbour(env + " multiply", down.multiply(x, y), up.multiply(x, y),
+                        stochastic.multiply(x, y, bits));
+                assertNeighbour(env + " divide", down.divide(x, y), up.divide(x, y), stochastic.divide(x, y, bits));
+                assertNeighbour(env + " fma", down.fma(x, y, z), up.fma(x, y, z), stochastic.fma(x, y, z, bits));
+                final double value = random.nextGaussian() * Math.scalb(1.0, random.nextInt(40) - 20);
+                assertNeighbour(env + " " + value, down.fromDouble(value), up.fromDouble(value),
+                        stochastic.fromDouble(value, bits));
+            }
+        }
+    }
+
+    private static void assertNeighbour(String message, long down, long up, long actual) {
+        assertTrue(message + " down=" + down + " up=" + up + " actual=" + actual, actual == down || actual == up);
+    }
+
+    @Test
+    public void unbiased() {
+        final PositEnv env = new PositEnv((byte) 16, (byte) 1);
+        final StochasticContext stochastic = new StochasticContext(env);
+        final PositContext context = env.getContext();
+        final SplittableRandom bits = new SplittableRandom(2718281828L);
+        // Near 1 posit16 es1 has 12 fraction bits.
+        final double ulp = Math.scalb(1.0, -12);
+        for (double fraction : new double[] { 0.0, 0.1, 0.3, 0.5, 0.9 }) {
+            final long one = context.getOne();
+            final double value = 1.0 + fraction * ulp;
+            final int trials = 40000;
+            int ups = 0;
+            for (int i = 0; i < trials; i++) {
+                final long pattern = stochastic.fromDouble(value, bits);
+                if (pattern == one + 1L) {
+                    ups++;
+                } else {
+                    assertEquals(one, pattern);
+                }
+            }
+            assertEquals("fraction " + fraction, fraction, (double) ups / trials, 0.01);
+        }
+
+        // Repeated small increments are not lost, unlike round to nearest.
+        final long increment = context.fromDouble(ulp / 8.0);
+        long sum = context.getOne();
+        long nearest = sum;
+        for (int i = 0; i < 8000; i++) {
+            sum = stochastic.add(sum, increment, bits);
+            nearest = context.add(nearest, increment);
+        }
+        assertEquals(1.0, context.toDouble(nearest), 0.0);
+        assertEquals(1.0 + 1000.0 * ulp, context.toDouble(sum), 60.0 * ulp);
+    }
+
+    @Test
+    public void arrayForms() {
+        final PositEnv env = new PositEnv((byte) 8, (byte) 1);
+        final StochasticContext stochastic = new StochasticContext(env);
+        final Random random = new Random(1602176634L);
+        final int length = 1000;
+        final long[] x = new long[length];
+        final long[] y = new long[length];
+        final double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = random.nextInt(256);
+            y[i] = random.nextInt(256);
+            values[i] = random.nextGaussian();
+        }
+        final long alpha = env.getContext().fromDouble(-0.01);
+
+        final long[] sums = new long[length];
+        final long[] products = new long[length];
+        final long[] patterns = new long[length];
+        final long[] updated = y.clone();
+        final SplittableRandom bits = new SplittableRandom(7L);
+        stochastic.add(x, y, sums, bits);
+        stochastic.multiply(x, y, products, bits);
+        stochastic.fromDouble(values, patterns, bits);
+        stochastic.axpy(alpha, x, updated, bits);
+
+        // The same seed reproduces the arrays, value by value.
+        final SplittableRandom again = new SplittableRandom(7L);
+        final long[] expected = new long[length];
+        for (int i = 0; i < length; i++) {
+            expected[i] = stochastic.add(x[i], y[i], again);
+        }
+        assertArrayEquals(expected, sums);
+        for (int i = 0; i < length; i++) {
+            expected[i] = stochastic.multiply(x[i], y[i], again);
+        }
+        assertArrayEquals(expected, products);
+        for (int i = 0; i < length; i++) {
+            expected[i] = stochastic.fromDouble(values[i], again);
+        }
+        assertArrayEquals(expected, patterns);
+        for (int i = 0; i < length; i++) {
+            expected[i] = stochastic.fma(alpha, x[i], y[i], again);
+        }
+        assertArrayEquals(expected, updated);
+
+        try {
+            stochastic.add(x, new long[1], sums, bits);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("lengths differ"));
+        }
+        try {
+            new StochasticContext(new PositEnv((byte) 64, (byte) 2));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("nBits=64"));
+        }
+    }
+}